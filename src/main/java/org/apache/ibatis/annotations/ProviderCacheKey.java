@@ -0,0 +1,60 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that the SQL returned by an SQL provider method depends only on the given parameter properties,
+ * so the {@link org.apache.ibatis.mapping.SqlSource} created from it can be reused.
+ * <p>
+ * Each value is a property of the mapper method parameter object, resolved the same way as {@code #{...}}
+ * (for example a {@code @Param} name, or {@code criteria.orderBy}).
+ * An empty value means the SQL never changes for a given parameter type.
+ * </p>
+ *
+ * <pre>
+ * public static String findUsers(&#64;Param("name") String name, &#64;Param("orderBy") String orderBy) { ... }
+ * </pre>
+ * with {@code @ProviderCacheKey({"orderBy"})} creates one SQL per distinct {@code orderBy}
+ * when {@code name} is only bound through {@code #{name}}.
+ *
+ * @since 3.5.2
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ProviderCacheKey {
+
+  /**
+   * Specify the parameter properties that determine the SQL text.
+   *
+   * @return properties of the parameter object
+   */
+  String[] value() default {};
+
+  /**
+   * Specify the maximum number of cached SQL sources. The least recently used entry is evicted once exceeded.
+   *
+   * @return maximum number of cached SQL sources
+   */
+  int size() default 256;
+
+}
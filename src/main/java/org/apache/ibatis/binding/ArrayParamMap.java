@@ -0,0 +1,230 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+
+/**
+ * 直接引用方法参数数组的ParamMap，参数名到参数位置的对应关系在ParamNameResolver中预先计算好。
+ * <p>
+ * 只读的get和containsKey直接在数组上查找；其它操作（遍历、修改等）会先把内容复制到HashMap中，
+ * 之后完全按照普通ParamMap的行为处理，所以插件或者KeyGenerator修改参数时语义不变。
+ *
+ * @since 3.5.2
+ */
+public class ArrayParamMap<V> extends ParamMap<V> {
+
+  private static final long serialVersionUID = 2213408240371936153L;
+
+  //参数名，包含param1、param2等通用名称
+  private final transient String[] names;
+  //每个参数名对应的方法参数位置
+  private final transient int[] indexes;
+  private transient Object[] args;
+
+  public ArrayParamMap(String[] names, int[] indexes, Object[] args) {
+    this.names = names;
+    this.indexes = indexes;
+    this.args = args;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    if (args == null) {
+      return super.get(key);
+    }
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(key)) {
+        return (V) args[indexes[i]];
+      }
+    }
+    throw new BindingException("Parameter '" + key + "' not found. Available parameters are " + keySet());
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (args == null) {
+      return super.containsKey(key);
+    }
+    for (String name : names) {
+      if (name.equals(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public int size() {
+    inflate();
+    return super.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    inflate();
+    return super.containsValue(value);
+  }
+
+  @Override
+  public V put(String key, V value) {
+    inflate();
+    return super.put(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ? extends V> m) {
+    inflate();
+    super.putAll(m);
+  }
+
+  @Override
+  public V remove(Object key) {
+    inflate();
+    return super.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    inflate();
+    super.clear();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    inflate();
+    return super.keySet();
+  }
+
+  @Override
+  public Collection<V> values() {
+    inflate();
+    return super.values();
+  }
+
+  @Override
+  public Set<Entry<String, V>> entrySet() {
+    inflate();
+    return super.entrySet();
+  }
+
+  @Override
+  public V getOrDefault(Object key, V defaultValue) {
+    inflate();
+    return super.getOrDefault(key, defaultValue);
+  }
+
+  @Override
+  public V putIfAbsent(String key, V value) {
+    inflate();
+    return super.putIfAbsent(key, value);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    inflate();
+    return super.remove(key, value);
+  }
+
+  @Override
+  public boolean replace(String key, V oldValue, V newValue) {
+    inflate();
+    return super.replace(key, oldValue, newValue);
+  }
+
+  @Override
+  public V replace(String key, V value) {
+    inflate();
+    return super.replace(key, value);
+  }
+
+  @Override
+  public V computeIfAbsent(String key, Function<? super String, ? extends V> mappingFunction) {
+    inflate();
+    return super.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public V computeIfPresent(String key, BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
+    inflate();
+    return super.computeIfPresent(key, remappingFunction);
+  }
+
+  @Override
+  public V compute(String key, BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
+    inflate();
+    return super.compute(key, remappingFunction);
+  }
+
+  @Override
+  public V merge(String key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+    inflate();
+    return super.merge(key, value, remappingFunction);
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super V> action) {
+    inflate();
+    super.forEach(action);
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super String, ? super V, ? extends V> function) {
+    inflate();
+    super.replaceAll(function);
+  }
+
+  @Override
+  public Object clone() {
+    inflate();
+    return super.clone();
+  }
+
+  /**
+   * 序列化时替换为普通的ParamMap
+   */
+  protected Object writeReplace() {
+    ParamMap<V> paramMap = new ParamMap<>();
+    paramMap.putAll(this);
+    return paramMap;
+  }
+
+  //把数组中的参数复制到HashMap中，之后所有操作都交给HashMap
+  @SuppressWarnings("unchecked")
+  private void inflate() {
+    if (args != null) {
+      Object[] values = args;
+      args = null;
+      for (int i = 0; i < names.length; i++) {
+        super.put(names[i], (V) values[indexes[i]]);
+      }
+    }
+  }
+
+}
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.IntFunction;
 
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
@@ -50,77 +51,95 @@ public class MapperMethod {
 
   private final SqlCommand command;
   private final MethodSignature method;
+  //根据命令类型和返回类型预先确定的执行方式，调用时不再逐项判断
+  private final Execution execution;
+  //更新类语句的影响行数转换方式
+  private final IntFunction<Object> rowCountResult;
+  private final boolean returnsPrimitive;
 
   public MapperMethod(Class<?> mapperInterface, Method method, Configuration config) {
-    this.command = new SqlCommand(config, mapperInterface, method);
+    this(mapperInterface, method, config, true);
+  }
+
+  /**
+   * @param validateIncompleteStatements 是否先构建所有未完成的元素，预先解析时配置还未加载完，不能构建
+   */
+  MapperMethod(Class<?> mapperInterface, Method method, Configuration config, boolean validateIncompleteStatements) {
+    this.command = new SqlCommand(config, mapperInterface, method, validateIncompleteStatements);
     this.method = new MethodSignature(config, mapperInterface, method);
+    this.rowCountResult = resolveRowCountResult();
+    this.execution = resolveExecution();
+    this.returnsPrimitive = this.method.getReturnType().isPrimitive() && !this.method.returnsVoid();
   }
 
   //执行一个方法的具体流程
   public Object execute(SqlSession sqlSession, Object[] args) {
-    Object result;
+    Object result = execution.execute(sqlSession, args);
+    if (result == null && returnsPrimitive) {
+      throw new BindingException("Mapper method '" + command.getName()
+        + " attempted to return null from a method with a primitive return type (" + method.getReturnType() + ").");
+    }
+    return result;
+  }
+
+  //解析方法的执行方式，只在创建时执行一次
+  private Execution resolveExecution() {
+    final String name = command.getName();
     switch (command.getType()) {
-      case INSERT: {
-        Object param = method.convertArgsToSqlCommandParam(args);
-        result = rowCountResult(sqlSession.insert(command.getName(), param));
-        break;
-      }
-      case UPDATE: {
-        Object param = method.convertArgsToSqlCommandParam(args);
-        result = rowCountResult(sqlSession.update(command.getName(), param));
-        break;
-      }
-      case DELETE: {
-        Object param = method.convertArgsToSqlCommandParam(args);
-        result = rowCountResult(sqlSession.delete(command.getName(), param));
-        break;
-      }
+      case INSERT:
+        return (sqlSession, args) -> rowCountResult.apply(sqlSession.insert(name, method.convertArgsToSqlCommandParam(args)));
+      case UPDATE:
+        return (sqlSession, args) -> rowCountResult.apply(sqlSession.update(name, method.convertArgsToSqlCommandParam(args)));
+      case DELETE:
+        return (sqlSession, args) -> rowCountResult.apply(sqlSession.delete(name, method.convertArgsToSqlCommandParam(args)));
       case SELECT:
         if (method.returnsVoid() && method.hasResultHandler()) {
-          executeWithResultHandler(sqlSession, args);
-          result = null;
+          return (sqlSession, args) -> {
+            executeWithResultHandler(sqlSession, args);
+            return null;
+          };
         } else if (method.returnsMany()) {
-          result = executeForMany(sqlSession, args);
+          return this::executeForMany;
         } else if (method.returnsMap()) {
-          result = executeForMap(sqlSession, args);
+          return this::executeForMap;
         } else if (method.returnsCursor()) {
-          result = executeForCursor(sqlSession, args);
+          return this::executeForCursor;
+        } else if (method.returnsOptional()) {
+          return (sqlSession, args) -> {
+            Object result = sqlSession.selectOne(name, method.convertArgsToSqlCommandParam(args));
+            if (result == null || !method.getReturnType().equals(result.getClass())) {
+              result = Optional.ofNullable(result);
+            }
+            return result;
+          };
         } else {
-          Object param = method.convertArgsToSqlCommandParam(args);
-          result = sqlSession.selectOne(command.getName(), param);
-          if (method.returnsOptional()
-            && (result == null || !method.getReturnType().equals(result.getClass()))) {
-            result = Optional.ofNullable(result);
-          }
+          return (sqlSession, args) -> sqlSession.selectOne(name, method.convertArgsToSqlCommandParam(args));
         }
-        break;
       case FLUSH:
-        result = sqlSession.flushStatements();
-        break;
+        return (sqlSession, args) -> sqlSession.flushStatements();
       default:
-        throw new BindingException("Unknown execution method for: " + command.getName());
-    }
-    if (result == null && method.getReturnType().isPrimitive() && !method.returnsVoid()) {
-      throw new BindingException("Mapper method '" + command.getName()
-        + " attempted to return null from a method with a primitive return type (" + method.getReturnType() + ").");
+        return (sqlSession, args) -> {
+          throw new BindingException("Unknown execution method for: " + name);
+        };
     }
-    return result;
   }
 
-  private Object rowCountResult(int rowCount) {
-    final Object result;
+  //解析影响行数的转换方式，不支持的返回类型在调用时才抛出异常
+  private IntFunction<Object> resolveRowCountResult() {
+    final Class<?> returnType = method.getReturnType();
     if (method.returnsVoid()) {
-      result = null;
-    } else if (Integer.class.equals(method.getReturnType()) || Integer.TYPE.equals(method.getReturnType())) {
-      result = rowCount;
-    } else if (Long.class.equals(method.getReturnType()) || Long.TYPE.equals(method.getReturnType())) {
-      result = (long) rowCount;
-    } else if (Boolean.class.equals(method.getReturnType()) || Boolean.TYPE.equals(method.getReturnType())) {
-      result = rowCount > 0;
+      return rowCount -> null;
+    } else if (Integer.class.equals(returnType) || Integer.TYPE.equals(returnType)) {
+      return rowCount -> rowCount;
+    } else if (Long.class.equals(returnType) || Long.TYPE.equals(returnType)) {
+      return rowCount -> (long) rowCount;
+    } else if (Boolean.class.equals(returnType) || Boolean.TYPE.equals(returnType)) {
+      return rowCount -> rowCount > 0;
     } else {
-      throw new BindingException("Mapper method '" + command.getName() + "' has an unsupported return type: " + method.getReturnType());
+      return rowCount -> {
+        throw new BindingException("Mapper method '" + command.getName() + "' has an unsupported return type: " + returnType);
+      };
     }
-    return result;
   }
 
   private void executeWithResultHandler(SqlSession sqlSession, Object[] args) {
@@ -219,6 +238,12 @@ public class MapperMethod {
 
   }
 
+  //预先确定的执行方式
+  @FunctionalInterface
+  private interface Execution {
+    Object execute(SqlSession sqlSession, Object[] args);
+  }
+
   /**
    * sql命令类
    */
@@ -229,11 +254,15 @@ public class MapperMethod {
     private final SqlCommandType type;
 
     public SqlCommand(Configuration configuration, Class<?> mapperInterface, Method method) {
+      this(configuration, mapperInterface, method, true);
+    }
+
+    SqlCommand(Configuration configuration, Class<?> mapperInterface, Method method, boolean validateIncompleteStatements) {
       final String methodName = method.getName();
       final Class<?> declaringClass = method.getDeclaringClass();
       //解析接口的statement
       MappedStatement ms = resolveMappedStatement(mapperInterface, methodName, declaringClass,
-        configuration);
+        configuration, validateIncompleteStatements);
       //未找到statement
       if (ms == null) {
         //有flush注解的话，则为flush sql
@@ -268,12 +297,13 @@ public class MapperMethod {
      * 解析对应的statement，整个逻辑是查询configuration中的缓存是否存在，没有则返回空
      */
     private MappedStatement resolveMappedStatement(Class<?> mapperInterface, String methodName,
-                                                   Class<?> declaringClass, Configuration configuration) {
+                                                   Class<?> declaringClass, Configuration configuration,
+                                                   boolean validateIncompleteStatements) {
       //接口名+方法作为statementID
       String statementId = mapperInterface.getName() + "." + methodName;
-      if (configuration.hasStatement(statementId)) {
+      if (configuration.hasStatement(statementId, validateIncompleteStatements)) {
         //返回缓存的statement
-        return configuration.getMappedStatement(statementId);
+        return configuration.getMappedStatement(statementId, validateIncompleteStatements);
       } else if (mapperInterface.equals(declaringClass)) {
         //未缓存且方法为接口方法，返回空
         return null;
@@ -282,7 +312,7 @@ public class MapperMethod {
       for (Class<?> superInterface : mapperInterface.getInterfaces()) {
         if (declaringClass.isAssignableFrom(superInterface)) {
           MappedStatement ms = resolveMappedStatement(superInterface, methodName,
-            declaringClass, configuration);
+            declaringClass, configuration, validateIncompleteStatements);
           if (ms != null) {
             return ms;
           }
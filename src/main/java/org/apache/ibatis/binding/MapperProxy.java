@@ -63,6 +63,11 @@ public class MapperProxy<T> implements InvocationHandler, Serializable {
 
   //缓存方法
   private MapperMethod cachedMapperMethod(Method method) {
+    //命中时直接返回，避免computeIfAbsent在已存在的key上也加锁
+    MapperMethod mapperMethod = methodCache.get(method);
+    if (mapperMethod != null) {
+      return mapperMethod;
+    }
     return methodCache.computeIfAbsent(method, k -> new MapperMethod(mapperInterface, method, sqlSession.getConfiguration()));
   }
 
@@ -16,10 +16,12 @@
 package org.apache.ibatis.binding;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 
 /**
@@ -45,6 +47,27 @@ public class MapperProxyFactory<T> {
     return methodCache;
   }
 
+  /**
+   * 预先解析接口中所有绑定了statement的方法并放入方法缓存，调用时不再需要解析。
+   * 尚未找到statement的方法（例如statement稍后才加载，或者依赖稍后加载的mapper而未完成）保持原样，在第一次调用时再解析。
+   * 解析时配置还在加载，不会构建未完成的元素。
+   *
+   * @since 3.5.2
+   */
+  public void resolveMapperMethods(Configuration configuration) {
+    for (Method method : mapperInterface.getMethods()) {
+      if (method.isBridge() || method.isDefault() || Modifier.isStatic(method.getModifiers())
+          || Object.class.equals(method.getDeclaringClass())) {
+        continue;
+      }
+      try {
+        methodCache.computeIfAbsent(method, k -> new MapperMethod(mapperInterface, method, configuration, false));
+      } catch (BindingException e) {
+        // ignore, resolved on first invocation
+      }
+    }
+  }
+
   @SuppressWarnings("unchecked")
   protected T newInstance(MapperProxy<T> mapperProxy) {
     return (T) Proxy.newProxyInstance(mapperInterface.getClassLoader(), new Class[] { mapperInterface }, mapperProxy);
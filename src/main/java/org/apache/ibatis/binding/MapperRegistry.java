@@ -85,6 +85,10 @@ public class MapperRegistry {
         //解析接口的注释
         MapperAnnotationBuilder parser = new MapperAnnotationBuilder(config, type);
         parser.parse();
+        //延迟初始化statement时不预先解析，否则会在注册时构建所有statement
+        if (config.isEagerMapperMethodResolution() && !config.isLazyStatementInitialization()) {
+          knownMappers.get(type).resolveMapperMethods(config);
+        }
         loadCompleted = true;
       } finally {
         if (!loadCompleted) {
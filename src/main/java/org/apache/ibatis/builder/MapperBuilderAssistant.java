@@ -69,6 +69,13 @@ public class MapperBuilderAssistant extends BaseBuilder {
     return currentNamespace;
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public String getResource() {
+    return resource;
+  }
+
   //设置namespace， 只能设置一次，后面不能切换，也就是一个namespace对应一个assistant
   public void setCurrentNamespace(String currentNamespace) {
     if (currentNamespace == null) {
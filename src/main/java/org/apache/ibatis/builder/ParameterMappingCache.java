@@ -0,0 +1,148 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * #{}占位符解析结果的缓存，动态SQL每次执行都会重新解析占位符，
+ * 缓存后相同的占位符不再重复解析表达式和反射获取属性类型。
+ * <p>
+ * 占位符的javaType取决于参数类型以及额外参数（foreach、bind）中对应属性的类型，所以这两个类型都是缓存key的一部分。
+ * 缓存的数量有上限，超过之后淘汰最近最少使用的占位符，运行时新出现的占位符（例如更大的foreach）仍然可以进入缓存；
+ * 注册新的类型处理器后整个缓存失效。
+ *
+ * @since 3.5.2
+ */
+public class ParameterMappingCache {
+
+  //每个缓存的数量上限
+  private static final int MAX_SIZE = 4096;
+
+  private final TypeHandlerRegistry typeHandlerRegistry;
+  //占位符内容 -> 解析后的属性集合
+  private final Map<String, Map<String, String>> expressions = new LruMap<>(MAX_SIZE);
+  private final Map<Key, ParameterMapping> parameterMappings = new LruMap<>(MAX_SIZE);
+  //缓存的ParameterMapping解析时类型处理器注册的版本
+  private int typeHandlerVersion;
+
+  public ParameterMappingCache(TypeHandlerRegistry typeHandlerRegistry) {
+    this.typeHandlerRegistry = typeHandlerRegistry;
+    this.typeHandlerVersion = typeHandlerRegistry.getVersion();
+  }
+
+  Map<String, String> getExpression(String content) {
+    synchronized (expressions) {
+      return expressions.get(content);
+    }
+  }
+
+  void putExpression(String content, Map<String, String> expression) {
+    synchronized (expressions) {
+      expressions.put(content, expression);
+    }
+  }
+
+  ParameterMapping getParameterMapping(String content, Class<?> parameterType, Class<?> additionalType) {
+    Key key = new Key(content, parameterType, additionalType);
+    synchronized (parameterMappings) {
+      checkTypeHandlerVersion();
+      return parameterMappings.get(key);
+    }
+  }
+
+  void putParameterMapping(String content, Class<?> parameterType, Class<?> additionalType, ParameterMapping parameterMapping) {
+    Key key = new Key(content, parameterType, additionalType);
+    synchronized (parameterMappings) {
+      checkTypeHandlerVersion();
+      parameterMappings.put(key, parameterMapping);
+    }
+  }
+
+  //缓存的ParameterMapping持有最初解析出的类型处理器，注册新的处理器后需要重新解析
+  private void checkTypeHandlerVersion() {
+    int version = typeHandlerRegistry.getVersion();
+    if (version != typeHandlerVersion) {
+      parameterMappings.clear();
+      typeHandlerVersion = version;
+    }
+  }
+
+  public void clear() {
+    synchronized (expressions) {
+      expressions.clear();
+    }
+    synchronized (parameterMappings) {
+      parameterMappings.clear();
+    }
+  }
+
+  /**
+   * 按访问顺序排列的map，超过上限时淘汰最近最少使用的元素
+   */
+  private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+    private static final long serialVersionUID = -3473957287232549916L;
+    private final int maxSize;
+
+    LruMap(int maxSize) {
+      super(16, .75F, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+
+  private static class Key {
+    private final String content;
+    private final Class<?> parameterType;
+    //取自额外参数的属性类型，不是取自额外参数时为null
+    private final Class<?> additionalType;
+
+    Key(String content, Class<?> parameterType, Class<?> additionalType) {
+      this.content = content;
+      this.parameterType = parameterType;
+      this.additionalType = additionalType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return content.equals(that.content)
+          && parameterType == that.parameterType
+          && additionalType == that.additionalType;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(content, parameterType, additionalType);
+    }
+  }
+
+}
@@ -94,16 +94,33 @@ public class SqlSourceBuilder extends BaseBuilder {
     }
 
     /**
-     * 通过#{}中间的占位符构建ParameterMapping
+     * 通过#{}中间的占位符构建ParameterMapping，解析结果按占位符、参数类型和额外参数类型缓存
      * @param content #{}中间的占位符
      * @return
      */
     private ParameterMapping buildParameterMapping(String content) {
-      Map<String, String> propertiesMap = parseParameterMapping(content);
+      ParameterMappingCache cache = configuration.getParameterMappingCache();
+      Map<String, String> propertiesMap = cache.getExpression(content);
+      if (propertiesMap == null) {
+        propertiesMap = parseParameterMapping(content);
+        cache.putExpression(content, propertiesMap);
+      }
+      String property = propertiesMap.get("property");
+      // issue #448 get type from additional params
+      Class<?> additionalType = metaParameters.hasGetter(property) ? metaParameters.getGetterType(property) : null;
+      ParameterMapping parameterMapping = cache.getParameterMapping(content, parameterType, additionalType);
+      if (parameterMapping == null) {
+        parameterMapping = buildParameterMapping(content, propertiesMap, additionalType);
+        cache.putParameterMapping(content, parameterType, additionalType, parameterMapping);
+      }
+      return parameterMapping;
+    }
+
+    private ParameterMapping buildParameterMapping(String content, Map<String, String> propertiesMap, Class<?> additionalType) {
       String property = propertiesMap.get("property");
       Class<?> propertyType;
-      if (metaParameters.hasGetter(property)) { // issue #448 get type from additional params
-        propertyType = metaParameters.getGetterType(property);
+      if (additionalType != null) {
+        propertyType = additionalType;
       } else if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
         propertyType = parameterType;
       } else if (JdbcType.CURSOR.name().equals(propertiesMap.get("jdbcType"))) {
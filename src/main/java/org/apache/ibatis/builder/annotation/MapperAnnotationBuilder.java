@@ -65,6 +65,7 @@ import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.builder.xml.PrecompiledMappers;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -176,6 +177,12 @@ public class MapperAnnotationBuilder {
     if (!configuration.isResourceLoaded("namespace:" + type.getName())) {
       //寻找类名的xml文件
       String xmlResource = type.getName().replace('.', '/') + ".xml";
+      PrecompiledMappers precompiledMappers = configuration.getPrecompiledMappers();
+      if (precompiledMappers != null && precompiledMappers.hasDocument(xmlResource)) {
+        XMLMapperBuilder xmlParser = new XMLMapperBuilder(precompiledMappers.getDocument(xmlResource), assistant.getConfiguration(), xmlResource, configuration.getSqlFragments(), type.getName());
+        xmlParser.parse();
+        return;
+      }
       // #1347 在根目录下寻找文件,也就是类文件和xml文件在一个目录下
       InputStream inputStream = type.getResourceAsStream("/" + xmlResource);
       if (inputStream == null) {
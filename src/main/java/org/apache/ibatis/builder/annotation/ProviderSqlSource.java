@@ -19,12 +19,16 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.ibatis.annotations.Lang;
+import org.apache.ibatis.annotations.ProviderCacheKey;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ParamNameResolver;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
@@ -44,6 +48,9 @@ public class ProviderSqlSource implements SqlSource {
   private Class<?>[] providerMethodParameterTypes;
   private ProviderContext providerContext;
   private Integer providerContextIndex;
+  //决定SQL文本的参数属性，为null时不缓存
+  private String[] cacheKeyProperties;
+  private Map<CacheKey, SqlSource> sqlSourceCache;
 
   /**
    * @deprecated Please use the {@link #ProviderSqlSource(Configuration, Object, Class, Method)} instead of this.
@@ -105,14 +112,74 @@ public class ProviderSqlSource implements SqlSource {
         this.providerContextIndex = i;
       }
     }
+    ProviderCacheKey providerCacheKey = this.providerMethod.getAnnotation(ProviderCacheKey.class);
+    if (providerCacheKey != null) {
+      this.cacheKeyProperties = providerCacheKey.value();
+      this.sqlSourceCache = createSqlSourceCache(providerCacheKey.size());
+    }
   }
 
   @Override
   public BoundSql getBoundSql(Object parameterObject) {
-    SqlSource sqlSource = createSqlSource(parameterObject);
+    SqlSource sqlSource;
+    if (sqlSourceCache == null) {
+      sqlSource = createSqlSource(parameterObject);
+    } else {
+      sqlSource = getCachedSqlSource(parameterObject);
+    }
     return sqlSource.getBoundSql(parameterObject);
   }
 
+  /**
+   * 按@ProviderCacheKey声明的参数属性缓存生成的SqlSource，相同的key不再调用provider方法和解析SQL
+   */
+  private SqlSource getCachedSqlSource(Object parameterObject) {
+    CacheKey cacheKey = createCacheKey(parameterObject);
+    SqlSource sqlSource;
+    synchronized (sqlSourceCache) {
+      sqlSource = sqlSourceCache.get(cacheKey);
+    }
+    if (sqlSource == null) {
+      sqlSource = createSqlSource(parameterObject);
+      synchronized (sqlSourceCache) {
+        sqlSourceCache.put(cacheKey, sqlSource);
+      }
+    }
+    return sqlSource;
+  }
+
+  private CacheKey createCacheKey(Object parameterObject) {
+    CacheKey cacheKey = new CacheKey();
+    if (parameterObject == null) {
+      cacheKey.update(null);
+      return cacheKey;
+    }
+    cacheKey.update(parameterObject.getClass());
+    if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+      //单个简单类型的参数，任何属性名都对应参数本身
+      if (cacheKeyProperties.length > 0) {
+        cacheKey.update(parameterObject);
+      }
+      return cacheKey;
+    }
+    MetaObject metaObject = configuration.newMetaObject(parameterObject);
+    for (String property : cacheKeyProperties) {
+      cacheKey.update(metaObject.getValue(property));
+    }
+    return cacheKey;
+  }
+
+  private static Map<CacheKey, SqlSource> createSqlSourceCache(final int size) {
+    return new LinkedHashMap<CacheKey, SqlSource>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<CacheKey, SqlSource> eldest) {
+        return size() > size;
+      }
+    };
+  }
+
   private SqlSource createSqlSource(Object parameterObject) {
     try {
       int bindParameterCount = providerMethodParameterTypes.length - (providerContext == null ? 0 : 1);
@@ -0,0 +1,240 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.io.Resources;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * 预编译的mapper文件集合。
+ * <p>
+ * 构建时通过{@link #main(String[])}或{@link #precompile(Collection, OutputStream)}把mapper xml文件解析并按DTD校验后，
+ * 以紧凑的二进制格式写入一个文件；运行时加载该文件后，{@link XMLMapperBuilder}直接还原文档，不再解析和校验xml。
+ * 文档中的${}变量不会在构建时替换，仍然使用运行时的配置属性。
+ *
+ * @since 3.5.2
+ */
+public class PrecompiledMappers {
+
+  private static final int MAGIC = 0x4D425043;
+  private static final int VERSION = 1;
+
+  private static final byte ELEMENT = 1;
+  private static final byte TEXT = 2;
+  private static final byte CDATA = 3;
+
+  //资源名 -> 编码后的文档，第一次使用时才还原
+  private final Map<String, byte[]> documents;
+  private final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+
+  private PrecompiledMappers(Map<String, byte[]> documents) {
+    this.documents = documents;
+  }
+
+  /**
+   * 读取预编译的mapper文件集合
+   */
+  public static PrecompiledMappers load(InputStream inputStream) throws IOException {
+    DataInputStream in = new DataInputStream(inputStream);
+    if (in.readInt() != MAGIC) {
+      throw new BuilderException("Not a precompiled mappers file.");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new BuilderException("Unsupported precompiled mappers version " + version + ", expected " + VERSION + ".");
+    }
+    int count = in.readInt();
+    Map<String, byte[]> documents = new HashMap<>(count * 4 / 3 + 1);
+    for (int i = 0; i < count; i++) {
+      String resource = readString(in);
+      byte[] document = new byte[in.readInt()];
+      in.readFully(document);
+      documents.put(resource, document);
+    }
+    return new PrecompiledMappers(documents);
+  }
+
+  public Set<String> getResources() {
+    return Collections.unmodifiableSet(documents.keySet());
+  }
+
+  public boolean hasDocument(String resource) {
+    return documents.containsKey(resource);
+  }
+
+  /**
+   * 还原指定资源的文档，每次调用都返回新的文档对象
+   *
+   * @return 文档，资源未预编译时返回null
+   */
+  public Document getDocument(String resource) {
+    byte[] encoded = documents.get(resource);
+    if (encoded == null) {
+      return null;
+    }
+    try {
+      Document document = newDocument();
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+      document.appendChild(readNode(in, document));
+      return document;
+    } catch (Exception e) {
+      throw new BuilderException("Error restoring precompiled mapper " + resource + ". Cause: " + e, e);
+    }
+  }
+
+  private Document newDocument() throws ParserConfigurationException {
+    // DocumentBuilderFactory is not guaranteed to be thread safe
+    synchronized (documentBuilderFactory) {
+      return documentBuilderFactory.newDocumentBuilder().newDocument();
+    }
+  }
+
+  /**
+   * 解析并校验类路径下的mapper文件，写入预编译文件
+   *
+   * @param resources mapper文件在类路径下的资源名
+   */
+  public static void precompile(Collection<String> resources, OutputStream outputStream) throws IOException {
+    DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(resources.size());
+    for (String resource : resources) {
+      Document document;
+      try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+        document = XMLMapperBuilder.parseDocument(inputStream, false);
+      }
+      ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+      writeNode(new DataOutputStream(encoded), document.getDocumentElement());
+      writeString(out, resource);
+      out.writeInt(encoded.size());
+      encoded.writeTo(out);
+    }
+    out.flush();
+  }
+
+  /**
+   * 构建时使用：{@code PrecompiledMappers <输出文件> <mapper资源>...}
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      throw new IllegalArgumentException("Usage: " + PrecompiledMappers.class.getName() + " <output file> <mapper resource>...");
+    }
+    try (OutputStream out = new FileOutputStream(args[0])) {
+      precompile(Arrays.asList(args).subList(1, args.length), out);
+    }
+  }
+
+  //只保留mapper构建器会读取的节点：元素、文本和CDATA，注释在解析时已经忽略
+  private static void writeNode(DataOutputStream out, Node node) throws IOException {
+    if (node.getNodeType() == Node.CDATA_SECTION_NODE) {
+      out.writeByte(CDATA);
+      writeString(out, node.getNodeValue());
+    } else if (node.getNodeType() == Node.TEXT_NODE) {
+      out.writeByte(TEXT);
+      writeString(out, node.getNodeValue());
+    } else {
+      out.writeByte(ELEMENT);
+      writeString(out, node.getNodeName());
+      NamedNodeMap attributes = node.getAttributes();
+      out.writeInt(attributes.getLength());
+      for (int i = 0; i < attributes.getLength(); i++) {
+        Node attribute = attributes.item(i);
+        writeString(out, attribute.getNodeName());
+        writeString(out, attribute.getNodeValue());
+      }
+      NodeList children = node.getChildNodes();
+      int count = 0;
+      for (int i = 0; i < children.getLength(); i++) {
+        if (isPrecompiled(children.item(i))) {
+          count++;
+        }
+      }
+      out.writeInt(count);
+      for (int i = 0; i < children.getLength(); i++) {
+        if (isPrecompiled(children.item(i))) {
+          writeNode(out, children.item(i));
+        }
+      }
+    }
+  }
+
+  private static boolean isPrecompiled(Node node) {
+    short type = node.getNodeType();
+    return type == Node.ELEMENT_NODE || type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE;
+  }
+
+  private static Node readNode(DataInputStream in, Document document) throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+      case CDATA:
+        return document.createCDATASection(readString(in));
+      case TEXT:
+        return document.createTextNode(readString(in));
+      case ELEMENT:
+        Element element = document.createElement(readString(in));
+        int attributes = in.readInt();
+        for (int i = 0; i < attributes; i++) {
+          element.setAttribute(readString(in), readString(in));
+        }
+        int children = in.readInt();
+        for (int i = 0; i < children; i++) {
+          element.appendChild(readNode(in, document));
+        }
+        return element;
+      default:
+        throw new IOException("Unknown node type " + type);
+    }
+  }
+
+  //DataOutputStream.writeUTF最多只能写64K，较大的sql文本需要自己写长度
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
@@ -15,9 +15,18 @@
  */
 package org.apache.ibatis.builder.xml;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.builder.BaseBuilder;
@@ -25,6 +34,7 @@ import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.datasource.DataSourceFactory;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
+import org.apache.ibatis.io.ClasspathIndex;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
@@ -38,6 +48,7 @@ import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.scripting.xmltags.ExpressionEngine;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
@@ -45,6 +56,7 @@ import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.transaction.TransactionFactory;
 import org.apache.ibatis.type.JdbcType;
+import org.w3c.dom.Document;
 
 /**
  * @author Clinton Begin
@@ -107,6 +119,7 @@ public class XMLConfigBuilder extends BaseBuilder {
       propertiesElement(root.evalNode("properties"));
       Properties settings = settingsAsProperties(root.evalNode("settings"));
       loadCustomVfs(settings);
+      loadVfsIndex(settings);
       loadCustomLogImpl(settings);
       typeAliasesElement(root.evalNode("typeAliases"));
       pluginElement(root.evalNode("plugins"));
@@ -119,6 +132,10 @@ public class XMLConfigBuilder extends BaseBuilder {
       databaseIdProviderElement(root.evalNode("databaseIdProvider"));
       typeHandlerElement(root.evalNode("typeHandlers"));
       mapperElement(root.evalNode("mappers"));
+      //包扫描已经完成，保存jar文件资源索引
+      if (configuration.getVfsIndexFile() != null) {
+        ClasspathIndex.save(new File(configuration.getVfsIndexFile()));
+      }
     } catch (Exception e) {
       throw new BuilderException("Error parsing SQL Mapper Configuration. Cause: " + e, e);
     }
@@ -160,6 +177,17 @@ public class XMLConfigBuilder extends BaseBuilder {
     }
   }
 
+  /**
+   * 加载jar文件资源索引，需要在扫描别名和mapper的包之前加载
+   */
+  private void loadVfsIndex(Properties props) {
+    String value = props.getProperty("vfsIndexFile");
+    if (value != null) {
+      configuration.setVfsIndexFile(value);
+      ClasspathIndex.load(new File(value));
+    }
+  }
+
   /**
    * 加载自定义的log实现
    */
@@ -269,6 +297,20 @@ public class XMLConfigBuilder extends BaseBuilder {
     }
   }
 
+  /**
+   * 加载预编译的mapper，未配置时返回null
+   */
+  private PrecompiledMappers loadPrecompiledMappers(String resource) {
+    if (resource == null) {
+      return null;
+    }
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      return PrecompiledMappers.load(inputStream);
+    } catch (IOException e) {
+      throw new BuilderException("Error loading precompiled mappers " + resource + ". Cause: " + e, e);
+    }
+  }
+
   /**
    * 设置settings，就是将settings中的值通过set方法设置到configuration中
    */
@@ -277,10 +319,18 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setAutoMappingUnknownColumnBehavior(AutoMappingUnknownColumnBehavior.valueOf(props.getProperty("autoMappingUnknownColumnBehavior", "NONE")));
     configuration.setCacheEnabled(booleanValueOf(props.getProperty("cacheEnabled"), true));
     configuration.setProxyFactory((ProxyFactory) createInstance(props.getProperty("proxyFactory")));
+    configuration.setExpressionEngine((ExpressionEngine) createInstance(props.getProperty("expressionEngine")));
     configuration.setLazyLoadingEnabled(booleanValueOf(props.getProperty("lazyLoadingEnabled"), false));
     configuration.setAggressiveLazyLoading(booleanValueOf(props.getProperty("aggressiveLazyLoading"), false));
     configuration.setMultipleResultSetsEnabled(booleanValueOf(props.getProperty("multipleResultSetsEnabled"), true));
     configuration.setUseColumnLabel(booleanValueOf(props.getProperty("useColumnLabel"), true));
+    configuration.setUseColumnIndex(booleanValueOf(props.getProperty("useColumnIndex"), false));
+    configuration.setEagerMapperMethodResolution(booleanValueOf(props.getProperty("eagerMapperMethodResolution"), false));
+    configuration.setPrecompiledMappers(loadPrecompiledMappers(props.getProperty("precompiledMappers")));
+    configuration.setParallelMapperParsing(booleanValueOf(props.getProperty("parallelMapperParsing"), false));
+    configuration.setStreamingMapperParsing(booleanValueOf(props.getProperty("streamingMapperParsing"), false));
+    configuration.setLazyStatementInitialization(booleanValueOf(props.getProperty("lazyStatementInitialization"), false));
+    configuration.setSealOnBuild(booleanValueOf(props.getProperty("sealOnBuild"), false));
     configuration.setUseGeneratedKeys(booleanValueOf(props.getProperty("useGeneratedKeys"), false));
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
@@ -292,6 +342,7 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setLazyLoadTriggerMethods(stringSetValueOf(props.getProperty("lazyLoadTriggerMethods"), "equals,clone,hashCode,toString"));
     configuration.setSafeResultHandlerEnabled(booleanValueOf(props.getProperty("safeResultHandlerEnabled"), true));
     configuration.setDefaultScriptingLanguage(resolveClass(props.getProperty("defaultScriptingLanguage")));
+    configuration.setDynamicSqlShapeCacheSize(integerValueOf(props.getProperty("dynamicSqlShapeCacheSize"), 0));
     configuration.setDefaultEnumTypeHandler(resolveClass(props.getProperty("defaultEnumTypeHandler")));
     configuration.setCallSettersOnNulls(booleanValueOf(props.getProperty("callSettersOnNulls"), false));
     configuration.setUseActualParamName(booleanValueOf(props.getProperty("useActualParamName"), true));
@@ -427,7 +478,12 @@ public class XMLConfigBuilder extends BaseBuilder {
   private void mapperElement(XNode parent) throws Exception {
     //这里是mapper文件的解析，看完配置文件的解析再看这里
     if (parent != null) {
-      for (XNode child : parent.getChildren()) {
+      List<XNode> children = parent.getChildren();
+      //并行解析时先在fork-join线程池中解析各个xml文件的文档，再按原顺序逐个构建到configuration中
+      List<CompletableFuture<Document>> documents = configuration.isParallelMapperParsing() ? parseMapperDocuments(children) : null;
+      for (int i = 0; i < children.size(); i++) {
+        XNode child = children.get(i);
+        CompletableFuture<Document> document = documents == null ? null : documents.get(i);
         //将指定包下的所有mapper注册
         if ("package".equals(child.getName())) {
           String mapperPackage = child.getStringAttribute("name");
@@ -439,15 +495,29 @@ public class XMLConfigBuilder extends BaseBuilder {
           //xml文件构建mapper  classpath文件信息
           if (resource != null && url == null && mapperClass == null) {
             ErrorContext.instance().resource(resource);
-            InputStream inputStream = Resources.getResourceAsStream(resource);
-            //构建xmlMapper构建器，并将mapper信息解析到configuration存储起来
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
+            PrecompiledMappers precompiledMappers = configuration.getPrecompiledMappers();
+            XMLMapperBuilder mapperParser;
+            if (precompiledMappers != null && precompiledMappers.hasDocument(resource)) {
+              //构建时已经预编译过的文件，直接使用还原的文档
+              mapperParser = new XMLMapperBuilder(precompiledMappers.getDocument(resource), configuration, resource, configuration.getSqlFragments());
+            } else if (document != null) {
+              mapperParser = new XMLMapperBuilder(joinDocument(document), configuration, resource, configuration.getSqlFragments());
+            } else {
+              InputStream inputStream = Resources.getResourceAsStream(resource);
+              //构建xmlMapper构建器，并将mapper信息解析到configuration存储起来
+              mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
+            }
             mapperParser.parse();
             //xml文件构建mapper， url：file形式
           } else if (resource == null && url != null && mapperClass == null) {
             ErrorContext.instance().resource(url);
-            InputStream inputStream = Resources.getUrlAsStream(url);
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
+            XMLMapperBuilder mapperParser;
+            if (document != null) {
+              mapperParser = new XMLMapperBuilder(joinDocument(document), configuration, url, configuration.getSqlFragments());
+            } else {
+              InputStream inputStream = Resources.getUrlAsStream(url);
+              mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
+            }
             mapperParser.parse();
             //class构建
           } else if (resource == null && url == null && mapperClass != null) {
@@ -461,6 +531,55 @@ public class XMLConfigBuilder extends BaseBuilder {
     }
   }
 
+  /**
+   * 在fork-join线程池中并行解析和校验resource、url形式的mapper文件，返回的列表与mapper节点一一对应，不需要解析的节点为null。
+   * 文件内容在当前线程读取，保证使用的类加载器与顺序解析时一致；读取或解析失败时，异常在顺序构建到该节点时才抛出。
+   */
+  private List<CompletableFuture<Document>> parseMapperDocuments(List<XNode> children) {
+    PrecompiledMappers precompiledMappers = configuration.getPrecompiledMappers();
+    List<CompletableFuture<Document>> documents = new ArrayList<>(children.size());
+    boolean streaming = configuration.isStreamingMapperParsing();
+    for (XNode child : children) {
+      String resource = child.getStringAttribute("resource");
+      String url = child.getStringAttribute("url");
+      String mapperClass = child.getStringAttribute("class");
+      CompletableFuture<Document> document = null;
+      if (!"package".equals(child.getName()) && mapperClass == null && (resource == null) != (url == null)
+          && (resource == null || precompiledMappers == null || !precompiledMappers.hasDocument(resource))) {
+        try (InputStream inputStream = resource != null ? Resources.getResourceAsStream(resource) : Resources.getUrlAsStream(url)) {
+          byte[] xml = readAll(inputStream);
+          document = CompletableFuture.supplyAsync(() -> XMLMapperBuilder.parseDocument(new ByteArrayInputStream(xml), streaming), ForkJoinPool.commonPool());
+        } catch (IOException e) {
+          document = new CompletableFuture<>();
+          document.completeExceptionally(e);
+        }
+      }
+      documents.add(document);
+    }
+    return documents;
+  }
+
+  private static Document joinDocument(CompletableFuture<Document> document) throws Exception {
+    try {
+      return document.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static byte[] readAll(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    return out.toByteArray();
+  }
+
   private boolean isSpecifiedEnvironment(String id) {
     if (environment == null) {
       throw new BuilderException("No environment specified.");
@@ -41,12 +41,14 @@ import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultFlag;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.parsing.StreamingDocumentBuilder;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
+import org.w3c.dom.Document;
 
 /**
  * xml mapper文件构建器
@@ -77,7 +79,9 @@ public class XMLMapperBuilder extends BaseBuilder {
 
   @Deprecated
   public XMLMapperBuilder(Reader reader, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
-    this(new XPathParser(reader, true, configuration.getVariables(), new XMLMapperEntityResolver()),
+    this(configuration.isStreamingMapperParsing()
+        ? new XPathParser(StreamingDocumentBuilder.build(reader, new XMLMapperEntityResolver()), false, configuration.getVariables(), new XMLMapperEntityResolver())
+        : new XPathParser(reader, true, configuration.getVariables(), new XMLMapperEntityResolver()),
       configuration, resource, sqlFragments);
   }
 
@@ -87,7 +91,27 @@ public class XMLMapperBuilder extends BaseBuilder {
   }
 
   public XMLMapperBuilder(InputStream inputStream, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
-    this(new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver()),
+    this(configuration.isStreamingMapperParsing()
+        ? new XPathParser(StreamingDocumentBuilder.build(inputStream, new XMLMapperEntityResolver()), false, configuration.getVariables(), new XMLMapperEntityResolver())
+        : new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver()),
+      configuration, resource, sqlFragments);
+  }
+
+  /**
+   * 使用已经解析并校验过的文档构建，例如{@link PrecompiledMappers}还原的文档
+   *
+   * @since 3.5.2
+   */
+  public XMLMapperBuilder(Document document, Configuration configuration, String resource, Map<String, XNode> sqlFragments, String namespace) {
+    this(document, configuration, resource, sqlFragments);
+    this.builderAssistant.setCurrentNamespace(namespace);
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public XMLMapperBuilder(Document document, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
+    this(new XPathParser(document, false, configuration.getVariables(), new XMLMapperEntityResolver()),
       configuration, resource, sqlFragments);
   }
 
@@ -99,6 +123,18 @@ public class XMLMapperBuilder extends BaseBuilder {
     this.resource = resource;
   }
 
+  /**
+   * 解析mapper文件，不读取configuration，可以在其他线程中执行
+   *
+   * @param streaming 为true时使用StAX流式读取并且不校验，否则按DTD校验
+   */
+  static Document parseDocument(InputStream inputStream, boolean streaming) {
+    if (streaming) {
+      return StreamingDocumentBuilder.build(inputStream, new XMLMapperEntityResolver());
+    }
+    return new XPathParser(inputStream, true, null, new XMLMapperEntityResolver()).evalNode("/*").getNode().getOwnerDocument();
+  }
+
   public void parse() {
     //资源只加载一次
     if (!configuration.isResourceLoaded(resource)) {
@@ -152,6 +188,11 @@ public class XMLMapperBuilder extends BaseBuilder {
     for (XNode context : list) {
       //构建器
       final XMLStatementBuilder statementParser = new XMLStatementBuilder(configuration, builderAssistant, context, requiredDatabaseId);
+      //延迟初始化时只登记，第一次使用时再构建
+      if (configuration.isLazyStatementInitialization()) {
+        statementParser.registerStatementNode();
+        continue;
+      }
       try {
         statementParser.parseStatementNode();
       } catch (IncompleteElementException e) {
@@ -39,9 +39,12 @@ import org.apache.ibatis.session.Configuration;
 public class XMLStatementBuilder extends BaseBuilder {
 
   private final MapperBuilderAssistant builderAssistant;
-  //CURD节点
-  private final XNode context;
+  //CURD节点，延迟初始化的statement构建完成后释放，不再持有DOM
+  private XNode context;
   private final String requiredDatabaseId;
+  //延迟初始化时登记的statement id和databaseId，节点释放之后仍然可用
+  private String lazyStatementId;
+  private String lazyDatabaseId;
 
   public XMLStatementBuilder(Configuration configuration, MapperBuilderAssistant builderAssistant, XNode context) {
     this(configuration, builderAssistant, context, null);
@@ -54,6 +57,39 @@ public class XMLStatementBuilder extends BaseBuilder {
     this.requiredDatabaseId = databaseId;
   }
 
+  /**
+   * 延迟初始化statement时，只按databaseId的规则登记statement的id，第一次获取该statement时再调用{@link #parseStatementNode()}构建
+   *
+   * @since 3.5.2
+   */
+  public void registerStatementNode() {
+    String id = context.getStringAttribute("id");
+    String databaseId = context.getStringAttribute("databaseId");
+    if (databaseIdMatchesCurrent(id, databaseId, this.requiredDatabaseId)) {
+      lazyStatementId = getStatementId();
+      lazyDatabaseId = databaseId;
+      configuration.addLazyStatement(lazyStatementId, this);
+    }
+  }
+
+  /**
+   * @return 包含命名空间的statement id
+   * @since 3.5.2
+   */
+  public String getStatementId() {
+    if (lazyStatementId != null) {
+      return lazyStatementId;
+    }
+    return builderAssistant.applyCurrentNamespace(context.getStringAttribute("id"), false);
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public String getResource() {
+    return builderAssistant.getResource();
+  }
+
   //解析CRUD节点
   public void parseStatementNode() {
     String id = context.getStringAttribute("id");
@@ -119,6 +155,10 @@ public class XMLStatementBuilder extends BaseBuilder {
       fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass,
       resultSetTypeEnum, flushCache, useCache, resultOrdered,
       keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets);
+    if (lazyStatementId != null) {
+      //延迟初始化的statement只会构建一次，构建完成后释放节点
+      context = null;
+    }
   }
 
   private void processSelectKeyNodes(String id, Class<?> parameterTypeClass, LanguageDriver langDriver) {
@@ -191,6 +231,11 @@ public class XMLStatementBuilder extends BaseBuilder {
       return false;
     }
     id = builderAssistant.applyCurrentNamespace(id, false);
+    XMLStatementBuilder lazyStatement = configuration.getLazyStatement(id);
+    if (lazyStatement != null) {
+      // skip this statement if there is a previous one with a not null databaseId, without building it
+      return lazyStatement.lazyDatabaseId == null;
+    }
     if (!this.configuration.hasStatement(id, false)) {
       return true;
     }
@@ -0,0 +1,330 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * 按列存储的查询结果。整个结果集按列读取到基本类型数组中（int/long/double，字符串使用字典编码），
+ * 不会为每一行创建对象，适用于返回大量数值行的分析类查询。
+ * 将语句的resultType设置为该类即可启用，查询只返回一个ColumnarResult对象。
+ *
+ * @since 3.5.2
+ */
+public class ColumnarResult {
+
+  /**
+   * 列的存储类型
+   */
+  public enum ColumnType {
+    INT, LONG, DOUBLE, STRING, OBJECT;
+
+    /**
+     * 根据列的jdbc类型选择存储类型，DECIMAL/NUMERIC等不能无损转换为基本类型的列按对象存储
+     */
+    public static ColumnType forJdbcType(JdbcType jdbcType) {
+      if (jdbcType == null) {
+        return OBJECT;
+      }
+      switch (jdbcType) {
+        case TINYINT:
+        case SMALLINT:
+        case INTEGER:
+          return INT;
+        case BIGINT:
+          return LONG;
+        case REAL:
+        case FLOAT:
+        case DOUBLE:
+          return DOUBLE;
+        case CHAR:
+        case VARCHAR:
+        case LONGVARCHAR:
+        case NCHAR:
+        case NVARCHAR:
+          return STRING;
+        default:
+          return OBJECT;
+      }
+    }
+  }
+
+  private final List<String> columnNames;
+  private final ColumnType[] columnTypes;
+  private final Map<String, Integer> columnIndexes;
+  /**
+   * 每列的数据：int[]，long[]，double[]，字符串列为字典编码int[]，对象列为Object[]
+   */
+  private final Object[] columns;
+  private final String[][] dictionaries;
+  private final BitSet[] nulls;
+  private final int rowCount;
+
+  private ColumnarResult(Builder builder) {
+    this.columnNames = Collections.unmodifiableList(new ArrayList<>(builder.columnNames));
+    this.columnTypes = builder.columnTypes;
+    this.columnIndexes = new HashMap<>();
+    for (int i = 0; i < columnNames.size(); i++) {
+      columnIndexes.putIfAbsent(columnNames.get(i).toUpperCase(Locale.ENGLISH), i);
+    }
+    this.rowCount = builder.rowCount;
+    this.columns = new Object[columnTypes.length];
+    this.dictionaries = new String[columnTypes.length][];
+    this.nulls = builder.nulls;
+    for (int i = 0; i < columnTypes.length; i++) {
+      columns[i] = trim(builder.columns[i], columnTypes[i]);
+      if (columnTypes[i] == ColumnType.STRING) {
+        dictionaries[i] = builder.dictionaryValues.get(i).toArray(new String[0]);
+      }
+    }
+  }
+
+  private Object trim(Object column, ColumnType columnType) {
+    if (Array.getLength(column) == rowCount) {
+      return column;
+    }
+    switch (columnType) {
+      case INT:
+      case STRING:
+        return Arrays.copyOf((int[]) column, rowCount);
+      case LONG:
+        return Arrays.copyOf((long[]) column, rowCount);
+      case DOUBLE:
+        return Arrays.copyOf((double[]) column, rowCount);
+      default:
+        return Arrays.copyOf((Object[]) column, rowCount);
+    }
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getColumnCount() {
+    return columnTypes.length;
+  }
+
+  public List<String> getColumnNames() {
+    return columnNames;
+  }
+
+  public ColumnType getColumnType(int column) {
+    return columnTypes[column];
+  }
+
+  /**
+   * @param columnName 列名，不区分大小写
+   * @return 列的索引（从0开始）
+   */
+  public int getColumnIndex(String columnName) {
+    Integer index = columnIndexes.get(columnName.toUpperCase(Locale.ENGLISH));
+    if (index == null) {
+      throw new IllegalArgumentException("There is no column named '" + columnName + "' in this result.");
+    }
+    return index;
+  }
+
+  public boolean isNull(int column, int row) {
+    return nulls[column].get(row);
+  }
+
+  /**
+   * @return INT列的数据，NULL值为0，通过isNull区分
+   */
+  public int[] getInts(int column) {
+    return (int[]) checkedColumn(column, ColumnType.INT);
+  }
+
+  public long[] getLongs(int column) {
+    return (long[]) checkedColumn(column, ColumnType.LONG);
+  }
+
+  public double[] getDoubles(int column) {
+    return (double[]) checkedColumn(column, ColumnType.DOUBLE);
+  }
+
+  /**
+   * @return STRING列每行的字典编码，NULL值为-1
+   */
+  public int[] getStringCodes(int column) {
+    return (int[]) checkedColumn(column, ColumnType.STRING);
+  }
+
+  /**
+   * @return STRING列的字典，下标即为编码
+   */
+  public String[] getDictionary(int column) {
+    checkedColumn(column, ColumnType.STRING);
+    return dictionaries[column];
+  }
+
+  public String getString(int column, int row) {
+    int code = getStringCodes(column)[row];
+    return code < 0 ? null : dictionaries[column][code];
+  }
+
+  /**
+   * 以对象的形式读取任意列的值，基本类型会被装箱
+   */
+  public Object getObject(int column, int row) {
+    if (nulls[column].get(row)) {
+      return null;
+    }
+    switch (columnTypes[column]) {
+      case INT:
+        return ((int[]) columns[column])[row];
+      case LONG:
+        return ((long[]) columns[column])[row];
+      case DOUBLE:
+        return ((double[]) columns[column])[row];
+      case STRING:
+        return getString(column, row);
+      default:
+        return ((Object[]) columns[column])[row];
+    }
+  }
+
+  private Object checkedColumn(int column, ColumnType expected) {
+    if (columnTypes[column] != expected) {
+      throw new IllegalStateException("Column '" + columnNames.get(column) + "' is stored as " + columnTypes[column] + ", not " + expected + ".");
+    }
+    return columns[column];
+  }
+
+  public static class Builder {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final List<String> columnNames;
+    private final ColumnType[] columnTypes;
+    private final Object[] columns;
+    private final BitSet[] nulls;
+    private final List<Map<String, Integer>> dictionaryCodes = new ArrayList<>();
+    private final List<List<String>> dictionaryValues = new ArrayList<>();
+    private int capacity = INITIAL_CAPACITY;
+    private int rowCount;
+
+    public Builder(List<String> columnNames, List<ColumnType> columnTypes) {
+      this.columnNames = columnNames;
+      this.columnTypes = columnTypes.toArray(new ColumnType[0]);
+      this.columns = new Object[this.columnTypes.length];
+      this.nulls = new BitSet[this.columnTypes.length];
+      for (int i = 0; i < this.columnTypes.length; i++) {
+        columns[i] = newColumn(this.columnTypes[i], capacity);
+        nulls[i] = new BitSet();
+        dictionaryCodes.add(this.columnTypes[i] == ColumnType.STRING ? new HashMap<>() : null);
+        dictionaryValues.add(this.columnTypes[i] == ColumnType.STRING ? new ArrayList<>() : null);
+      }
+    }
+
+    public ColumnType getColumnType(int column) {
+      return columnTypes[column];
+    }
+
+    /**
+     * 开始新的一行，之后通过setXxx设置该行每列的值
+     */
+    public void nextRow() {
+      if (rowCount == capacity) {
+        capacity = capacity << 1;
+        for (int i = 0; i < columns.length; i++) {
+          columns[i] = grow(columns[i], columnTypes[i], capacity);
+        }
+      }
+      rowCount++;
+    }
+
+    public void setInt(int column, int value, boolean isNull) {
+      ((int[]) columns[column])[rowCount - 1] = value;
+      setNull(column, isNull);
+    }
+
+    public void setLong(int column, long value, boolean isNull) {
+      ((long[]) columns[column])[rowCount - 1] = value;
+      setNull(column, isNull);
+    }
+
+    public void setDouble(int column, double value, boolean isNull) {
+      ((double[]) columns[column])[rowCount - 1] = value;
+      setNull(column, isNull);
+    }
+
+    public void setString(int column, String value) {
+      int code = -1;
+      if (value != null) {
+        List<String> values = dictionaryValues.get(column);
+        code = dictionaryCodes.get(column).computeIfAbsent(value, k -> {
+          values.add(k);
+          return values.size() - 1;
+        });
+      }
+      ((int[]) columns[column])[rowCount - 1] = code;
+      setNull(column, value == null);
+    }
+
+    public void setObject(int column, Object value) {
+      ((Object[]) columns[column])[rowCount - 1] = value;
+      setNull(column, value == null);
+    }
+
+    private void setNull(int column, boolean isNull) {
+      if (isNull) {
+        nulls[column].set(rowCount - 1);
+      }
+    }
+
+    public ColumnarResult build() {
+      return new ColumnarResult(this);
+    }
+
+    private static Object newColumn(ColumnType columnType, int size) {
+      switch (columnType) {
+        case INT:
+        case STRING:
+          return new int[size];
+        case LONG:
+          return new long[size];
+        case DOUBLE:
+          return new double[size];
+        default:
+          return new Object[size];
+      }
+    }
+
+    private static Object grow(Object column, ColumnType columnType, int size) {
+      switch (columnType) {
+        case INT:
+        case STRING:
+          return Arrays.copyOf((int[]) column, size);
+        case LONG:
+          return Arrays.copyOf((long[]) column, size);
+        case DOUBLE:
+          return Arrays.copyOf((double[]) column, size);
+        default:
+          return Arrays.copyOf((Object[]) column, size);
+      }
+    }
+  }
+}
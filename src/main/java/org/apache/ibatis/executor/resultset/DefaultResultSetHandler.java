@@ -16,6 +16,7 @@
 package org.apache.ibatis.executor.resultset;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.sql.CallableStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -39,6 +40,8 @@ import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.result.ColumnarResult;
+import org.apache.ibatis.executor.result.ColumnarResult.ColumnType;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
@@ -49,16 +52,26 @@ import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveSetter;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.PrimitiveDoubleTypeHandler;
+import org.apache.ibatis.type.PrimitiveIntTypeHandler;
+import org.apache.ibatis.type.PrimitiveLongTypeHandler;
+import org.apache.ibatis.type.PrimitiveTypeHandlers;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
@@ -83,11 +96,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final TypeHandlerRegistry typeHandlerRegistry;
   private final ObjectFactory objectFactory;
   private final ReflectorFactory reflectorFactory;
+  private final boolean useColumnIndex;
 
   // nested resultmaps
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+  private final Map<RowKey, Object> nestedResultObjects = new HashMap<>();
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
+  // columns that make up the row key, resolved once per result set, result map and column prefix
+  private final Map<String, Map<String, RowKeyColumns>> rowKeyColumnsCache = new HashMap<>();
+  private ResultSetWrapper rowKeyColumnsOwner;
 
   // multiple resultsets
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
@@ -95,6 +112,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   // Cached Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
+  // property mappings that are set without boxing, in the order of ResultMap.getPropertyResultMappings()
+  private final Map<ResultMap, PrimitivePropertySetter[]> primitivePropertySettersCache = new HashMap<>();
 
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
@@ -109,12 +128,135 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     private final String property;
     private final TypeHandler<?> typeHandler;
     private final boolean primitive;
+    // null when the value is set through the MetaObject
+    private final PrimitivePropertySetter primitiveSetter;
 
-    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
+    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive,
+                                     PrimitivePropertySetter primitiveSetter) {
       this.column = column;
       this.property = property;
       this.typeHandler = typeHandler;
       this.primitive = primitive;
+      this.primitiveSetter = primitiveSetter;
+    }
+  }
+
+  private static class RowKeyColumn {
+    private final String column;
+    // null when the column is compared as a string
+    private final TypeHandler<?> typeHandler;
+
+    public RowKeyColumn(String column, TypeHandler<?> typeHandler) {
+      this.column = column;
+      this.typeHandler = typeHandler;
+    }
+  }
+
+  private static class RowKeyColumns {
+    private final String resultMapId;
+    private final String[] columns;
+    // null when the column is compared as a string
+    private final TypeHandler<?>[] typeHandlers;
+    // int.class, long.class or double.class when the column is read without boxing
+    private final Class<?>[] primitiveTypes;
+    // 0 when the column is looked up by name
+    private final int[] columnIndexes;
+    private final boolean hasPrimitives;
+
+    public RowKeyColumns(String resultMapId, List<RowKeyColumn> rowKeyColumns, ResultSetWrapper rsw, boolean useColumnIndex) {
+      int size = rowKeyColumns.size();
+      this.resultMapId = resultMapId;
+      this.columns = new String[size];
+      this.typeHandlers = new TypeHandler<?>[size];
+      this.primitiveTypes = new Class<?>[size];
+      this.columnIndexes = new int[size];
+      boolean primitives = false;
+      for (int i = 0; i < size; i++) {
+        RowKeyColumn rowKeyColumn = rowKeyColumns.get(i);
+        columns[i] = rowKeyColumn.column;
+        typeHandlers[i] = rowKeyColumn.typeHandler;
+        primitiveTypes[i] = PrimitiveTypeHandlers.getPrimitiveType(rowKeyColumn.typeHandler);
+        columnIndexes[i] = useColumnIndex ? Math.max(rsw.getColumnIndex(rowKeyColumn.column), 0) : 0;
+        primitives = primitives || primitiveTypes[i] != null;
+      }
+      this.hasPrimitives = primitives;
+    }
+  }
+
+  /**
+   * 不装箱地把int、long、double列的值设置到同类型的属性上，
+   * 要求类型处理器直接实现了PrimitiveXxxTypeHandler，并且set方法的Invoker实现了PrimitiveSetter（例如MethodHandleReflectorFactory）
+   */
+  private static class PrimitivePropertySetter {
+    // the setter belongs to this class, other result objects go through the MetaObject
+    private final Class<?> targetType;
+    private final String property;
+    private final Class<?> primitiveType;
+    private final TypeHandler<?> typeHandler;
+    private final PrimitiveSetter setter;
+
+    private PrimitivePropertySetter(Class<?> targetType, String property, Class<?> primitiveType, TypeHandler<?> typeHandler, PrimitiveSetter setter) {
+      this.targetType = targetType;
+      this.property = property;
+      this.primitiveType = primitiveType;
+      this.typeHandler = typeHandler;
+      this.setter = setter;
+    }
+
+    static PrimitivePropertySetter create(MetaObject metaObject, String property, TypeHandler<?> typeHandler) {
+      Class<?> primitiveType = PrimitiveTypeHandlers.getPrimitiveType(typeHandler);
+      if (primitiveType == null || property == null || metaObject.getObjectWrapper().getClass() != BeanWrapper.class) {
+        return null;
+      }
+      Reflector reflector = metaObject.getReflectorFactory().findForClass(metaObject.getOriginalObject().getClass());
+      if (!reflector.hasSetter(property)) {
+        return null;
+      }
+      Invoker invoker = reflector.getSetInvoker(property);
+      if (!(invoker instanceof PrimitiveSetter) || invoker.getType() != primitiveType) {
+        return null;
+      }
+      return new PrimitivePropertySetter(reflector.getType(), property, primitiveType, typeHandler, (PrimitiveSetter) invoker);
+    }
+
+    boolean accepts(Object target) {
+      return target.getClass() == targetType;
+    }
+
+    /**
+     * @return 列的值不是SQL NULL时返回true，SQL NULL和原来一样不调用set方法
+     */
+    boolean apply(ResultSet rs, String column, int columnIndex, Object target) {
+      try {
+        if (primitiveType == int.class) {
+          PrimitiveIntTypeHandler handler = (PrimitiveIntTypeHandler) typeHandler;
+          int value = columnIndex > 0 ? handler.getInt(rs, columnIndex) : handler.getInt(rs, column);
+          if (value == 0 && rs.wasNull()) {
+            return false;
+          }
+          setter.setInt(target, value);
+        } else if (primitiveType == long.class) {
+          PrimitiveLongTypeHandler handler = (PrimitiveLongTypeHandler) typeHandler;
+          long value = columnIndex > 0 ? handler.getLong(rs, columnIndex) : handler.getLong(rs, column);
+          if (value == 0 && rs.wasNull()) {
+            return false;
+          }
+          setter.setLong(target, value);
+        } else {
+          PrimitiveDoubleTypeHandler handler = (PrimitiveDoubleTypeHandler) typeHandler;
+          double value = columnIndex > 0 ? handler.getDouble(rs, columnIndex) : handler.getDouble(rs, column);
+          if (value == 0 && rs.wasNull()) {
+            return false;
+          }
+          setter.setDouble(target, value);
+        }
+        return true;
+      } catch (SQLException e) {
+        throw new ResultMapException("Error attempting to get column '" + column + "' from result set.  Cause: " + e, e);
+      } catch (InvocationTargetException e) {
+        Throwable t = ExceptionUtil.unwrapThrowable(e);
+        throw new ReflectionException("Could not set property '" + property + "' of '" + target.getClass() + "' Cause: " + t.toString(), t);
+      }
     }
   }
 
@@ -129,6 +271,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.objectFactory = configuration.getObjectFactory();
     this.reflectorFactory = configuration.getReflectorFactory();
+    this.useColumnIndex = configuration.isUseColumnIndex();
     this.resultHandler = resultHandler;
   }
 
@@ -327,7 +470,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   public void handleRowValues(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
-    if (resultMap.hasNestedResultMaps()) {
+    if (ColumnarResult.class.equals(resultMap.getType())) {
+      handleRowValuesForColumnarResult(rsw, resultHandler, rowBounds, parentMapping);
+    } else if (resultMap.hasNestedResultMaps()) {
       ensureNoRowBounds();
       checkResultHandler();
       handleRowValuesForNestedResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping);
@@ -357,15 +502,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
-      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
+      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw, resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
-      storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+      storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw);
     }
   }
 
-  private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
+  private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSetWrapper rsw) throws SQLException {
     if (parentMapping != null) {
-      linkToParents(rs, parentMapping, rowValue);
+      linkToParents(rsw, parentMapping, rowValue);
     } else {
       callResultHandler(resultHandler, resultContext, rowValue);
     }
@@ -395,6 +540,58 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  //
+  // HANDLE ROWS FOR COLUMNAR RESULT
+  //
+
+  /**
+   * 将整个结果集按列读取到一个ColumnarResult中，int/long/double列直接通过jdbc的基本类型方法读取，不会装箱
+   */
+  private void handleRowValuesForColumnarResult(ResultSetWrapper rsw, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping)
+    throws SQLException {
+    if (parentMapping != null) {
+      throw new ExecutorException("A ColumnarResult cannot be linked to a parent mapping: " + parentMapping.getProperty());
+    }
+    final List<String> columnNames = rsw.getColumnNames();
+    final List<ColumnType> columnTypes = new ArrayList<>(columnNames.size());
+    final TypeHandler<?>[] objectTypeHandlers = new TypeHandler<?>[columnNames.size()];
+    for (int i = 0; i < columnNames.size(); i++) {
+      final ColumnType columnType = ColumnType.forJdbcType(rsw.getJdbcTypes().get(i));
+      columnTypes.add(columnType);
+      if (columnType == ColumnType.OBJECT) {
+        objectTypeHandlers[i] = rsw.getTypeHandler(Object.class, columnNames.get(i));
+      }
+    }
+    final ColumnarResult.Builder builder = new ColumnarResult.Builder(columnNames, columnTypes);
+    final ResultSet resultSet = rsw.getResultSet();
+    skipRows(resultSet, rowBounds);
+    int rowCount = 0;
+    while (rowCount < rowBounds.getLimit() && !resultSet.isClosed() && resultSet.next()) {
+      builder.nextRow();
+      for (int i = 0; i < objectTypeHandlers.length; i++) {
+        final int columnIndex = i + 1;
+        switch (builder.getColumnType(i)) {
+          case INT:
+            builder.setInt(i, resultSet.getInt(columnIndex), resultSet.wasNull());
+            break;
+          case LONG:
+            builder.setLong(i, resultSet.getLong(columnIndex), resultSet.wasNull());
+            break;
+          case DOUBLE:
+            builder.setDouble(i, resultSet.getDouble(columnIndex), resultSet.wasNull());
+            break;
+          case STRING:
+            builder.setString(i, resultSet.getString(columnIndex));
+            break;
+          default:
+            builder.setObject(i, objectTypeHandlers[i].getResult(resultSet, columnIndex));
+        }
+      }
+      rowCount++;
+    }
+    callResultHandler(resultHandler, new DefaultResultContext<>(), builder.build());
+  }
+
   //
   // GET VALUE FROM ROW FOR SIMPLE RESULT MAP
   //
@@ -436,7 +633,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
     boolean foundValues = false;
     final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-    for (ResultMapping propertyMapping : propertyMappings) {
+    final PrimitivePropertySetter[] primitiveSetters = getPrimitivePropertySetters(resultMap, metaObject);
+    for (int i = 0; i < propertyMappings.size(); i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
       String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
       if (propertyMapping.getNestedResultMapId() != null) {
         // the user added a column attribute to a nested result map, ignore it
@@ -445,7 +644,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (propertyMapping.isCompositeResult()
         || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
         || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        final PrimitivePropertySetter primitiveSetter = primitiveSetters[i];
+        if (primitiveSetter != null && primitiveSetter.accepts(metaObject.getOriginalObject())) {
+          foundValues = applyPrimitiveValue(rsw, primitiveSetter, column, metaObject.getOriginalObject()) || foundValues;
+          continue;
+        }
+        Object value = getPropertyMappingValue(rsw, metaObject, propertyMapping, lazyLoader, columnPrefix);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -466,20 +670,68 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  /**
+   * 找出属性映射中可以不装箱设置的属性，只有简单的列映射才会使用
+   */
+  private PrimitivePropertySetter[] getPrimitivePropertySetters(ResultMap resultMap, MetaObject metaObject) {
+    PrimitivePropertySetter[] primitiveSetters = primitivePropertySettersCache.get(resultMap);
+    if (primitiveSetters == null) {
+      final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+      primitiveSetters = new PrimitivePropertySetter[propertyMappings.size()];
+      for (int i = 0; i < primitiveSetters.length; i++) {
+        final ResultMapping propertyMapping = propertyMappings.get(i);
+        if (propertyMapping.getNestedQueryId() == null && propertyMapping.getNestedResultMapId() == null
+          && propertyMapping.getResultSet() == null && !propertyMapping.isCompositeResult()) {
+          primitiveSetters[i] = PrimitivePropertySetter.create(metaObject, propertyMapping.getProperty(), propertyMapping.getTypeHandler());
+        }
+      }
+      primitivePropertySettersCache.put(resultMap, primitiveSetters);
+    }
+    return primitiveSetters;
+  }
+
+  private boolean applyPrimitiveValue(ResultSetWrapper rsw, PrimitivePropertySetter primitiveSetter, String column, Object target) {
+    final int columnIndex = useColumnIndex ? rsw.getColumnIndex(column) : 0;
+    return primitiveSetter.apply(rsw.getResultSet(), column, columnIndex, target);
+  }
+
+  private Object getPropertyMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
     throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
-      return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
+      return getNestedQueryMappingValue(rsw, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
-      addPendingChildRelation(rs, metaResultObject, propertyMapping);   // TODO is that OK?
+      addPendingChildRelation(rsw, metaResultObject, propertyMapping);   // TODO is that OK?
       return DEFERRED;
     } else {
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      return getColumnValue(rsw, typeHandler, column);
     }
   }
 
+  /**
+   * 读取列的值，开启useColumnIndex时通过列索引读取，避免驱动每次都按列名查找列
+   */
+  private Object getColumnValue(ResultSetWrapper rsw, TypeHandler<?> typeHandler, String column) throws SQLException {
+    if (useColumnIndex) {
+      final int columnIndex = rsw.getColumnIndex(column);
+      if (columnIndex > 0) {
+        return typeHandler.getResult(rsw.getResultSet(), columnIndex);
+      }
+    }
+    return typeHandler.getResult(rsw.getResultSet(), column);
+  }
+
+  private String getColumnString(ResultSetWrapper rsw, String column) throws SQLException {
+    if (useColumnIndex) {
+      final int columnIndex = rsw.getColumnIndex(column);
+      if (columnIndex > 0) {
+        return rsw.getResultSet().getString(columnIndex);
+      }
+    }
+    return rsw.getResultSet().getString(column);
+  }
+
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
     List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
@@ -505,7 +757,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           final Class<?> propertyType = metaObject.getSetterType(property);
           if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
             final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
+            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive(),
+              PrimitivePropertySetter.create(metaObject, property, typeHandler)));
           } else {
             configuration.getAutoMappingUnknownColumnBehavior()
               .doAction(mappedStatement, columnName, property, propertyType);
@@ -525,7 +778,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+        if (mapping.primitiveSetter != null && mapping.primitiveSetter.accepts(metaObject.getOriginalObject())) {
+          foundValues = applyPrimitiveValue(rsw, mapping.primitiveSetter, mapping.column, metaObject.getOriginalObject()) || foundValues;
+          continue;
+        }
+        final Object value = getColumnValue(rsw, mapping.typeHandler, mapping.column);
         if (value != null) {
           foundValues = true;
         }
@@ -540,8 +797,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   // MULTIPLE RESULT SETS
 
-  private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
-    CacheKey parentKey = createKeyForMultipleResults(rs, parentMapping, parentMapping.getColumn(), parentMapping.getForeignColumn());
+  private void linkToParents(ResultSetWrapper rsw, ResultMapping parentMapping, Object rowValue) throws SQLException {
+    CacheKey parentKey = createKeyForMultipleResults(rsw, parentMapping, parentMapping.getColumn(), parentMapping.getForeignColumn());
     List<PendingRelation> parents = pendingRelations.get(parentKey);
     if (parents != null) {
       for (PendingRelation parent : parents) {
@@ -552,8 +809,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
-  private void addPendingChildRelation(ResultSet rs, MetaObject metaResultObject, ResultMapping parentMapping) throws SQLException {
-    CacheKey cacheKey = createKeyForMultipleResults(rs, parentMapping, parentMapping.getColumn(), parentMapping.getColumn());
+  private void addPendingChildRelation(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping parentMapping) throws SQLException {
+    CacheKey cacheKey = createKeyForMultipleResults(rsw, parentMapping, parentMapping.getColumn(), parentMapping.getColumn());
     PendingRelation deferLoad = new PendingRelation();
     deferLoad.metaObject = metaResultObject;
     deferLoad.propertyMapping = parentMapping;
@@ -570,14 +827,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
-  private CacheKey createKeyForMultipleResults(ResultSet rs, ResultMapping resultMapping, String names, String columns) throws SQLException {
+  private CacheKey createKeyForMultipleResults(ResultSetWrapper rsw, ResultMapping resultMapping, String names, String columns) throws SQLException {
     CacheKey cacheKey = new CacheKey();
     cacheKey.update(resultMapping);
     if (columns != null && names != null) {
       String[] columnsArray = columns.split(",");
       String[] namesArray = names.split(",");
       for (int i = 0; i < columnsArray.length; i++) {
-        Object value = rs.getString(columnsArray[i]);
+        Object value = getColumnString(rsw, columnsArray[i]);
         if (value != null) {
           cacheKey.update(namesArray[i]);
           cacheKey.update(value);
@@ -636,13 +893,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       final Object value;
       try {
         if (constructorMapping.getNestedQueryId() != null) {
-          value = getNestedQueryConstructorValue(rsw.getResultSet(), constructorMapping, columnPrefix);
+          value = getNestedQueryConstructorValue(rsw, constructorMapping, columnPrefix);
         } else if (constructorMapping.getNestedResultMapId() != null) {
           final ResultMap resultMap = configuration.getResultMap(constructorMapping.getNestedResultMapId());
           value = getRowValue(rsw, resultMap, getColumnPrefix(columnPrefix, constructorMapping));
         } else {
           final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          value = getColumnValue(rsw, typeHandler, prependPrefix(column, columnPrefix));
         }
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -675,7 +932,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       Class<?> parameterType = constructor.getParameterTypes()[i];
       String columnName = rsw.getColumnNames().get(i);
       TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-      Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
+      Object value = useColumnIndex ? typeHandler.getResult(rsw.getResultSet(), i + 1) : typeHandler.getResult(rsw.getResultSet(), columnName);
       constructorArgTypes.add(parameterType);
       constructorArgs.add(value);
       foundValues = value != null || foundValues;
@@ -720,18 +977,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       columnName = rsw.getColumnNames().get(0);
     }
     final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
-    return typeHandler.getResult(rsw.getResultSet(), columnName);
+    return getColumnValue(rsw, typeHandler, columnName);
   }
 
   //
   // NESTED QUERY
   //
 
-  private Object getNestedQueryConstructorValue(ResultSet rs, ResultMapping constructorMapping, String columnPrefix) throws SQLException {
+  private Object getNestedQueryConstructorValue(ResultSetWrapper rsw, ResultMapping constructorMapping, String columnPrefix) throws SQLException {
     final String nestedQueryId = constructorMapping.getNestedQueryId();
     final MappedStatement nestedQuery = configuration.getMappedStatement(nestedQueryId);
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
-    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, constructorMapping, nestedQueryParameterType, columnPrefix);
+    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rsw, constructorMapping, nestedQueryParameterType, columnPrefix);
     Object value = null;
     if (nestedQueryParameterObject != null) {
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
@@ -743,13 +1000,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
-  private Object getNestedQueryMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  private Object getNestedQueryMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
     throws SQLException {
     final String nestedQueryId = propertyMapping.getNestedQueryId();
     final String property = propertyMapping.getProperty();
     final MappedStatement nestedQuery = configuration.getMappedStatement(nestedQueryId);
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
-    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
+    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rsw, propertyMapping, nestedQueryParameterType, columnPrefix);
     Object value = null;
     if (nestedQueryParameterObject != null) {
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
@@ -771,32 +1028,32 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
-  private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
+  private Object prepareParameterForNestedQuery(ResultSetWrapper rsw, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
-      return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
+      return prepareCompositeKeyParameter(rsw, resultMapping, parameterType, columnPrefix);
     } else {
-      return prepareSimpleKeyParameter(rs, resultMapping, parameterType, columnPrefix);
+      return prepareSimpleKeyParameter(rsw, resultMapping, parameterType, columnPrefix);
     }
   }
 
-  private Object prepareSimpleKeyParameter(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
+  private Object prepareSimpleKeyParameter(ResultSetWrapper rsw, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     final TypeHandler<?> typeHandler;
     if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
       typeHandler = typeHandlerRegistry.getTypeHandler(parameterType);
     } else {
       typeHandler = typeHandlerRegistry.getUnknownTypeHandler();
     }
-    return typeHandler.getResult(rs, prependPrefix(resultMapping.getColumn(), columnPrefix));
+    return getColumnValue(rsw, typeHandler, prependPrefix(resultMapping.getColumn(), columnPrefix));
   }
 
-  private Object prepareCompositeKeyParameter(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
+  private Object prepareCompositeKeyParameter(ResultSetWrapper rsw, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     final Object parameterObject = instantiateParameterObject(parameterType);
     final MetaObject metaObject = configuration.newMetaObject(parameterObject);
     boolean foundValues = false;
     for (ResultMapping innerResultMapping : resultMapping.getComposites()) {
       final Class<?> propType = metaObject.getSetterType(innerResultMapping.getProperty());
       final TypeHandler<?> typeHandler = typeHandlerRegistry.getTypeHandler(propType);
-      final Object propValue = typeHandler.getResult(rs, prependPrefix(innerResultMapping.getColumn(), columnPrefix));
+      final Object propValue = getColumnValue(rsw, typeHandler, prependPrefix(innerResultMapping.getColumn(), columnPrefix));
       // issue #353 & #560 do not execute nested query if key is null
       if (propValue != null) {
         metaObject.setValue(innerResultMapping.getProperty(), propValue);
@@ -821,10 +1078,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   public ResultMap resolveDiscriminatedResultMap(ResultSet rs, ResultMap resultMap, String columnPrefix) throws SQLException {
+    if (resultMap.getDiscriminator() == null) {
+      return resultMap;
+    }
+    return resolveDiscriminatedResultMap(new ResultSetWrapper(rs, configuration), resultMap, columnPrefix);
+  }
+
+  private ResultMap resolveDiscriminatedResultMap(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
     Set<String> pastDiscriminators = new HashSet<>();
     Discriminator discriminator = resultMap.getDiscriminator();
     while (discriminator != null) {
-      final Object value = getDiscriminatorValue(rs, discriminator, columnPrefix);
+      final Object value = getDiscriminatorValue(rsw, discriminator, columnPrefix);
       final String discriminatedMapId = discriminator.getMapIdFor(String.valueOf(value));
       if (configuration.hasResultMap(discriminatedMapId)) {
         resultMap = configuration.getResultMap(discriminatedMapId);
@@ -840,10 +1104,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMap;
   }
 
-  private Object getDiscriminatorValue(ResultSet rs, Discriminator discriminator, String columnPrefix) throws SQLException {
+  private Object getDiscriminatorValue(ResultSetWrapper rsw, Discriminator discriminator, String columnPrefix) throws SQLException {
     final ResultMapping resultMapping = discriminator.getResultMapping();
     final TypeHandler<?> typeHandler = resultMapping.getTypeHandler();
-    return typeHandler.getResult(rs, prependPrefix(resultMapping.getColumn(), columnPrefix));
+    return getColumnValue(rsw, typeHandler, prependPrefix(resultMapping.getColumn(), columnPrefix));
   }
 
   private String prependPrefix(String columnName, String prefix) {
@@ -863,25 +1127,25 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     skipRows(resultSet, rowBounds);
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
-      final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
+      final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw, resultMap, null);
+      final RowKey rowKey = createRowKey(discriminatedResultMap, rsw, null, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
       if (mappedStatement.isResultOrdered()) {
         if (partialObject == null && rowValue != null) {
           nestedResultObjects.clear();
-          storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+          storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw);
         }
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
       } else {
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
         if (partialObject == null) {
-          storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+          storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw);
         }
       }
     }
     if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
-      storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+      storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw);
       previousRowValue = null;
     } else if (rowValue != null) {
       previousRowValue = rowValue;
@@ -892,7 +1156,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
 
-  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, CacheKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
+  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, RowKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
     final String resultMapId = resultMap.getId();
     Object rowValue = partialObject;
     if (rowValue != null) {
@@ -916,7 +1180,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         foundValues = lazyLoader.size() > 0 || foundValues;
         rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
       }
-      if (combinedKey != CacheKey.NULL_CACHE_KEY) {
+      if (combinedKey != RowKey.NULL_ROW_KEY) {
         nestedResultObjects.put(combinedKey, rowValue);
       }
     }
@@ -931,14 +1195,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // NESTED RESULT MAP (JOIN MAPPING)
   //
 
-  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
+  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, RowKey parentRowKey, boolean newObject) {
     boolean foundValues = false;
     for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
       final String nestedResultMapId = resultMapping.getNestedResultMapId();
       if (nestedResultMapId != null && resultMapping.getResultSet() == null) {
         try {
           final String columnPrefix = getColumnPrefix(parentPrefix, resultMapping);
-          final ResultMap nestedResultMap = getNestedResultMap(rsw.getResultSet(), nestedResultMapId, columnPrefix);
+          final ResultMap nestedResultMap = getNestedResultMap(rsw, nestedResultMapId, columnPrefix);
           if (resultMapping.getColumnPrefix() == null) {
             // try to fill circular reference only when columnPrefix
             // is not specified for the nested result map (issue #215)
@@ -950,8 +1214,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               continue;
             }
           }
-          final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
+          final RowKey combinedKey = createRowKey(nestedResultMap, rsw, columnPrefix, parentRowKey);
           Object rowValue = nestedResultObjects.get(combinedKey);
           boolean knownValue = rowValue != null;
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
@@ -986,7 +1249,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     if (notNullColumns != null && !notNullColumns.isEmpty()) {
       ResultSet rs = rsw.getResultSet();
       for (String column : notNullColumns) {
-        rs.getObject(prependPrefix(column, columnPrefix));
+        final String prefixedColumn = prependPrefix(column, columnPrefix);
+        final int columnIndex = useColumnIndex ? rsw.getColumnIndex(prefixedColumn) : 0;
+        if (columnIndex > 0) {
+          rs.getObject(columnIndex);
+        } else {
+          rs.getObject(prefixedColumn);
+        }
         if (!rs.wasNull()) {
           return true;
         }
@@ -1003,46 +1272,94 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return true;
   }
 
-  private ResultMap getNestedResultMap(ResultSet rs, String nestedResultMapId, String columnPrefix) throws SQLException {
+  private ResultMap getNestedResultMap(ResultSetWrapper rsw, String nestedResultMapId, String columnPrefix) throws SQLException {
     ResultMap nestedResultMap = configuration.getResultMap(nestedResultMapId);
-    return resolveDiscriminatedResultMap(rs, nestedResultMap, columnPrefix);
+    return resolveDiscriminatedResultMap(rsw, nestedResultMap, columnPrefix);
   }
 
   //
   // UNIQUE RESULT KEY
   //
 
-  private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
-    cacheKey.update(resultMap.getId());
-    List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
-    if (resultMappings.isEmpty()) {
-      if (Map.class.isAssignableFrom(resultMap.getType())) {
-        createRowKeyForMap(rsw, cacheKey);
+  /**
+   * 创建行key，嵌套结果映射的key包含父对象的key，任何一方没有非null的key列时返回{@link RowKey#NULL_ROW_KEY}
+   */
+  private RowKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix, RowKey parentRowKey) throws SQLException {
+    if (parentRowKey == RowKey.NULL_ROW_KEY) {
+      return RowKey.NULL_ROW_KEY;
+    }
+    final RowKeyColumns rowKeyColumns = getRowKeyColumns(resultMap, rsw, columnPrefix);
+    final ResultSet rs = rsw.getResultSet();
+    final int size = rowKeyColumns.columns.length;
+    final Object[] values = new Object[size];
+    final long[] primitiveValues = rowKeyColumns.hasPrimitives ? new long[size] : null;
+    boolean found = false;
+    for (int i = 0; i < size; i++) {
+      final String column = rowKeyColumns.columns[i];
+      final int columnIndex = rowKeyColumns.columnIndexes[i];
+      final TypeHandler<?> typeHandler = rowKeyColumns.typeHandlers[i];
+      final Object value;
+      if (typeHandler == null) {
+        final String string = columnIndex > 0 ? rs.getString(columnIndex) : rs.getString(column);
+        value = string != null ? string : RowKey.ABSENT;
+      } else if (rowKeyColumns.primitiveTypes[i] != null) {
+        final long primitiveValue = getPrimitiveKeyValue(rs, rowKeyColumns.primitiveTypes[i], typeHandler, column, columnIndex);
+        if (primitiveValue != 0 || !rs.wasNull()) {
+          primitiveValues[i] = primitiveValue;
+          value = RowKey.PRIMITIVE;
+        } else {
+          value = configuration.isReturnInstanceForEmptyRow() ? null : RowKey.ABSENT;
+        }
       } else {
-        createRowKeyForUnmappedProperties(resultMap, rsw, cacheKey, columnPrefix);
+        final Object object = columnIndex > 0 ? typeHandler.getResult(rs, columnIndex) : typeHandler.getResult(rs, column);
+        value = object != null || configuration.isReturnInstanceForEmptyRow() ? object : RowKey.ABSENT;
       }
-    } else {
-      createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
+      values[i] = value;
+      found = found || value != RowKey.ABSENT;
     }
-    if (cacheKey.getUpdateCount() < 2) {
-      return CacheKey.NULL_CACHE_KEY;
+    if (!found) {
+      return RowKey.NULL_ROW_KEY;
     }
-    return cacheKey;
+    return new RowKey(rowKeyColumns.resultMapId, rowKeyColumns.columns, values, primitiveValues, parentRowKey);
   }
 
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
+  // double values are returned as their bits, which compare the same way Double.equals does
+  private long getPrimitiveKeyValue(ResultSet rs, Class<?> primitiveType, TypeHandler<?> typeHandler, String column, int columnIndex) throws SQLException {
+    if (primitiveType == int.class) {
+      PrimitiveIntTypeHandler handler = (PrimitiveIntTypeHandler) typeHandler;
+      return columnIndex > 0 ? handler.getInt(rs, columnIndex) : handler.getInt(rs, column);
+    } else if (primitiveType == long.class) {
+      PrimitiveLongTypeHandler handler = (PrimitiveLongTypeHandler) typeHandler;
+      return columnIndex > 0 ? handler.getLong(rs, columnIndex) : handler.getLong(rs, column);
+    } else {
+      PrimitiveDoubleTypeHandler handler = (PrimitiveDoubleTypeHandler) typeHandler;
+      return Double.doubleToLongBits(columnIndex > 0 ? handler.getDouble(rs, columnIndex) : handler.getDouble(rs, column));
+    }
+  }
+
+  private RowKeyColumns getRowKeyColumns(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    if (rowKeyColumnsOwner != rsw) {
+      rowKeyColumnsCache.clear();
+      rowKeyColumnsOwner = rsw;
+    }
+    Map<String, RowKeyColumns> rowKeyColumnsByPrefix = rowKeyColumnsCache.computeIfAbsent(resultMap.getId(), k -> new HashMap<>());
+    RowKeyColumns rowKeyColumns = rowKeyColumnsByPrefix.get(columnPrefix);
+    if (rowKeyColumns == null) {
+      final List<RowKeyColumn> columns = new ArrayList<>();
+      List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
+      if (resultMappings.isEmpty()) {
+        if (Map.class.isAssignableFrom(resultMap.getType())) {
+          createRowKeyColumnsForMap(rsw, columns);
+        } else {
+          createRowKeyColumnsForUnmappedProperties(resultMap, rsw, columns, columnPrefix);
+        }
+      } else {
+        createRowKeyColumnsForMappedProperties(resultMap, rsw, columns, resultMappings, columnPrefix);
       }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
+      rowKeyColumns = new RowKeyColumns(resultMap.getId(), columns, rsw, useColumnIndex);
+      rowKeyColumnsByPrefix.put(columnPrefix, rowKeyColumns);
     }
-    return CacheKey.NULL_CACHE_KEY;
+    return rowKeyColumns;
   }
 
   private List<ResultMapping> getResultMappingsForRowKey(ResultMap resultMap) {
@@ -1053,12 +1370,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMappings;
   }
 
-  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+  private void createRowKeyColumnsForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, List<RowKeyColumn> rowKeyColumns, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
     for (ResultMapping resultMapping : resultMappings) {
       if (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null) {
         // Issue #392
         final ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
-        createRowKeyForMappedProperties(nestedResultMap, rsw, cacheKey, nestedResultMap.getConstructorResultMappings(),
+        createRowKeyColumnsForMappedProperties(nestedResultMap, rsw, rowKeyColumns, nestedResultMap.getConstructorResultMappings(),
           prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
       } else if (resultMapping.getNestedQueryId() == null) {
         final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
@@ -1066,17 +1383,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
         if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
-          if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-            cacheKey.update(column);
-            cacheKey.update(value);
-          }
+          rowKeyColumns.add(new RowKeyColumn(column, th));
         }
       }
     }
   }
 
-  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
+  private void createRowKeyColumnsForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, List<RowKeyColumn> rowKeyColumns, String columnPrefix) throws SQLException {
     final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
     List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
     for (String column : unmappedColumnNames) {
@@ -1090,23 +1403,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
       if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
-        String value = rsw.getResultSet().getString(column);
-        if (value != null) {
-          cacheKey.update(column);
-          cacheKey.update(value);
-        }
+        rowKeyColumns.add(new RowKeyColumn(column, null));
       }
     }
   }
 
-  private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
-    List<String> columnNames = rsw.getColumnNames();
-    for (String columnName : columnNames) {
-      final String value = rsw.getResultSet().getString(columnName);
-      if (value != null) {
-        cacheKey.update(columnName);
-        cacheKey.update(value);
-      }
+  private void createRowKeyColumnsForMap(ResultSetWrapper rsw, List<RowKeyColumn> rowKeyColumns) {
+    for (String columnName : rsw.getColumnNames()) {
+      rowKeyColumns.add(new RowKeyColumn(columnName, null));
     }
   }
 
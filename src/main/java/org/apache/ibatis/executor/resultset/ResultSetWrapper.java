@@ -27,7 +27,6 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
-import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
@@ -55,6 +54,8 @@ public class ResultSetWrapper {
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   //未匹配上的列名
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  //列名和列索引的对应关系，每个列名只解析一次
+  private final Map<String, Integer> columnIndexMap = new HashMap<>();
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
@@ -95,6 +96,29 @@ public class ResultSetWrapper {
     return null;
   }
 
+  /**
+   * Gets the 1-based index of the column, matching the name case-insensitively like ResultSet#findColumn does.
+   * The lookup is cached, so it is resolved only once per result set.
+   *
+   * @param columnName 列名
+   * @return 列的索引，从1开始，如果没有该列，返回0
+   * @since 3.5.2
+   */
+  public int getColumnIndex(String columnName) {
+    Integer columnIndex = columnIndexMap.get(columnName);
+    if (columnIndex == null) {
+      columnIndex = 0;
+      for (int i = 0; i < columnNames.size(); i++) {
+        if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+          columnIndex = i + 1;
+          break;
+        }
+      }
+      columnIndexMap.put(columnName, columnIndex);
+    }
+    return columnIndex;
+  }
+
   /**
    * Gets the type handler to use when reading the result set.
    * Tries to get from the TypeHandlerRegistry by searching for the property type.
@@ -122,17 +146,9 @@ public class ResultSetWrapper {
       // Replicate logic of UnknownTypeHandler#resolveTypeHandler
       // See issue #59 comment 10   处理器还是为空或者是未知的类型处理器
       if (handler == null || handler instanceof UnknownTypeHandler) {
-        //获取列名对应的javaType
+        //根据列名对应的javaType和jdbcType获取类型处理器，类名的解析结果由注册器缓存
         final int index = columnNames.indexOf(columnName);
-        final Class<?> javaType = resolveClass(classNames.get(index));
-        //根据这些情况获取类型处理器
-        if (javaType != null && jdbcType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
-        } else if (javaType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(javaType);
-        } else if (jdbcType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(jdbcType);
-        }
+        handler = typeHandlerRegistry.getColumnTypeHandler(classNames.get(index), jdbcType);
       }
       //以后仍然找不到处理器，使用Object的类型处理器
       if (handler == null || handler instanceof UnknownTypeHandler) {
@@ -144,18 +160,6 @@ public class ResultSetWrapper {
     return handler;
   }
 
-  private Class<?> resolveClass(String className) {
-    try {
-      // #699 className could be null
-      if (className != null) {
-        return Resources.classForName(className);
-      }
-    } catch (ClassNotFoundException e) {
-      // ignore
-    }
-    return null;
-  }
-
   private void loadMappedAndUnmappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
     List<String> mappedColumnNames = new ArrayList<>();
     List<String> unmappedColumnNames = new ArrayList<>();
@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.reflection.ArrayUtil;
+
+/**
+ * 嵌套结果映射中用来识别同一对象的行key，代替每行创建的CacheKey。
+ * 同一结果映射和列前缀下所有行共享列名数组，int、long、double类型的id列直接以long保存，不装箱。
+ * 判等规则与原先的CacheKey一致：结果映射id、非null的列以及它们的值都相同，嵌套结果还要求父对象的key相同；
+ * 与CacheKey一样通过{@link ArrayUtil}比较列的值，byte[]等数组类型的id列按内容比较。
+ *
+ * @since 3.5.2
+ */
+final class RowKey {
+
+  /**
+   * 没有任何非null的key列时使用，这样的行不会被合并
+   */
+  static final RowKey NULL_ROW_KEY = new RowKey(null, new String[0], new Object[0], null, null);
+
+  // the column is SQL NULL and does not take part in the key
+  static final Object ABSENT = new Object();
+  // the value is held in primitiveValues
+  static final Object PRIMITIVE = new Object();
+
+  private final String resultMapId;
+  // shared by all rows of the same result map and column prefix
+  private final String[] columns;
+  private final Object[] values;
+  // null when none of the columns is read without boxing, double values are stored as their bits
+  private final long[] primitiveValues;
+  private final RowKey parent;
+  private final int hashCode;
+
+  RowKey(String resultMapId, String[] columns, Object[] values, long[] primitiveValues, RowKey parent) {
+    this.resultMapId = resultMapId;
+    this.columns = columns;
+    this.values = values;
+    this.primitiveValues = primitiveValues;
+    this.parent = parent;
+    int hash = resultMapId == null ? 0 : resultMapId.hashCode();
+    for (Object value : values) {
+      hash = 31 * hash + ArrayUtil.hashCode(value);
+    }
+    hash = 31 * hash + Arrays.hashCode(primitiveValues);
+    hash = 31 * hash + (parent == null ? 0 : parent.hashCode);
+    this.hashCode = hash;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RowKey)) {
+      return false;
+    }
+    RowKey that = (RowKey) o;
+    return hashCode == that.hashCode
+        && (resultMapId == null ? that.resultMapId == null : resultMapId.equals(that.resultMapId))
+        && (columns == that.columns || Arrays.equals(columns, that.columns))
+        && valuesEqual(values, that.values)
+        && Arrays.equals(primitiveValues, that.primitiveValues)
+        && (parent == null ? that.parent == null : parent.equals(that.parent));
+  }
+
+  private static boolean valuesEqual(Object[] values, Object[] otherValues) {
+    if (values.length != otherValues.length) {
+      return false;
+    }
+    for (int i = 0; i < values.length; i++) {
+      if (!ArrayUtil.equals(values[i], otherValues[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return resultMapId + ":" + Arrays.toString(columns) + ":" + ArrayUtil.toString(values)
+        + (primitiveValues == null ? "" : Arrays.toString(primitiveValues))
+        + (parent == null ? "" : " <- " + parent);
+  }
+
+}
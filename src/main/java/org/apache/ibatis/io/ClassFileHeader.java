@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 类文件的头部信息：常量池、父类和接口，用于在不加载类的情况下判断类是否可能匹配。
+ * 类名都是内部名称，例如java/lang/Object
+ *
+ * @since 3.5.2
+ */
+final class ClassFileHeader {
+
+  private final String[] utf8Constants;
+  private final String[] superTypes;
+
+  private ClassFileHeader(String[] utf8Constants, String[] superTypes) {
+    this.utf8Constants = utf8Constants;
+    this.superTypes = superTypes;
+  }
+
+  static ClassFileHeader read(InputStream inputStream) throws IOException {
+    DataInputStream in = new DataInputStream(inputStream);
+    if (in.readInt() != 0xCAFEBABE) {
+      throw new IOException("Not a class file");
+    }
+    // minor_version, major_version
+    in.readInt();
+    int count = in.readUnsignedShort();
+    String[] utf8 = new String[count];
+    int[] classNames = new int[count];
+    for (int i = 1; i < count; i++) {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case 1: // Utf8
+          utf8[i] = in.readUTF();
+          break;
+        case 7: // Class
+          classNames[i] = in.readUnsignedShort();
+          break;
+        case 8: // String
+        case 16: // MethodType
+        case 19: // Module
+        case 20: // Package
+          in.readUnsignedShort();
+          break;
+        case 15: // MethodHandle
+          in.readUnsignedByte();
+          in.readUnsignedShort();
+          break;
+        case 3: // Integer
+        case 4: // Float
+        case 9: // Fieldref
+        case 10: // Methodref
+        case 11: // InterfaceMethodref
+        case 12: // NameAndType
+        case 17: // Dynamic
+        case 18: // InvokeDynamic
+          in.readInt();
+          break;
+        case 5: // Long
+        case 6: // Double
+          in.readLong();
+          // 8字节的常量占用两个位置
+          i++;
+          break;
+        default:
+          throw new IOException("Unknown constant pool tag " + tag);
+      }
+    }
+    // access_flags, this_class
+    in.readUnsignedShort();
+    in.readUnsignedShort();
+    int superClass = in.readUnsignedShort();
+    int interfaces = in.readUnsignedShort();
+    String[] superTypes = new String[interfaces + (superClass == 0 ? 0 : 1)];
+    int index = 0;
+    if (superClass != 0) {
+      superTypes[index++] = utf8[classNames[superClass]];
+    }
+    for (int i = 0; i < interfaces; i++) {
+      superTypes[index++] = utf8[classNames[in.readUnsignedShort()]];
+    }
+    return new ClassFileHeader(utf8, superTypes);
+  }
+
+  /**
+   * 直接父类和直接实现的接口，java/lang/Object没有父类
+   */
+  String[] getSuperTypes() {
+    return superTypes;
+  }
+
+  /**
+   * 常量池中是否含有指定的字符串，例如注解的描述符Lorg/apache/ibatis/annotations/Mapper;
+   */
+  boolean containsConstant(String value) {
+    for (String constant : utf8Constants) {
+      if (value.equals(constant)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,226 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * jar文件的资源索引。每个jar文件只通过中央目录读取一次全部的资源名称，之后扫描不同的包时直接按前缀查找，
+ * 不再重新打开jar文件逐个读取条目。jar文件的大小或修改时间变化后索引自动失效。
+ * 索引可以保存到文件中，下次启动时加载，省去读取jar文件的开销。索引文件只是缓存，读写失败时只记录日志。
+ *
+ * @since 3.5.2
+ */
+public final class ClasspathIndex {
+  private static final Log log = LogFactory.getLog(ClasspathIndex.class);
+
+  private static final int MAGIC = 0x4D424349;
+  private static final int VERSION = 1;
+
+  //jar文件的绝对路径 -> 资源名称
+  private static final Map<String, JarResources> jars = new ConcurrentHashMap<>();
+  //从文件加载之后是否有新的jar被索引
+  private static volatile boolean modified;
+
+  private ClasspathIndex() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * List the names of the resources in the given JAR file that begin with the specified path.
+   * Directory entries are not included and the names have no leading slash.
+   *
+   * @param jar  The JAR file
+   * @param path The leading path to match
+   * @return The names of all the matching resources
+   * @throws IOException If I/O errors occur
+   */
+  public static List<String> list(File jar, String path) throws IOException {
+    String prefix = path;
+    if (prefix.startsWith("/")) {
+      prefix = prefix.substring(1);
+    }
+    if (!prefix.isEmpty() && !prefix.endsWith("/")) {
+      prefix = prefix + "/";
+    }
+    String[] names = getResources(jar).names;
+    //名称已排序，从第一个不小于前缀的位置开始查找
+    int index = Arrays.binarySearch(names, prefix);
+    List<String> resources = new ArrayList<>();
+    for (int i = index < 0 ? -index - 1 : index; i < names.length && names[i].startsWith(prefix); i++) {
+      resources.add(names[i]);
+    }
+    return resources;
+  }
+
+  private static JarResources getResources(File jar) throws IOException {
+    String key = jar.getAbsolutePath();
+    long lastModified = jar.lastModified();
+    long length = jar.length();
+    JarResources resources = jars.get(key);
+    if (resources == null || resources.lastModified != lastModified || resources.length != length) {
+      resources = new JarResources(lastModified, length, readNames(jar));
+      jars.put(key, resources);
+      modified = true;
+    }
+    return resources;
+  }
+
+  private static String[] readNames(File jar) throws IOException {
+    if (log.isDebugEnabled()) {
+      log.debug("Indexing " + jar.getAbsolutePath());
+    }
+    List<String> names = new ArrayList<>();
+    try (ZipFile zip = new ZipFile(jar)) {
+      for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+        ZipEntry entry = entries.nextElement();
+        if (!entry.isDirectory()) {
+          String name = entry.getName();
+          names.add(name.startsWith("/") ? name.substring(1) : name);
+        }
+      }
+    }
+    String[] sorted = names.toArray(new String[0]);
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  /**
+   * Adds the entries of an index saved by {@link #save(File)}. A missing, unreadable or corrupt file is
+   * logged and ignored, the JAR files are then indexed again when they are listed.
+   *
+   * @param file The index file
+   */
+  public static void load(File file) {
+    if (!file.isFile()) {
+      return;
+    }
+    //完整读取之后才加入索引，截断的文件不会留下部分条目
+    Map<String, JarResources> loaded = new HashMap<>();
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a classpath index file");
+      }
+      for (int count = in.readInt(); count > 0; count--) {
+        String key = in.readUTF();
+        long lastModified = in.readLong();
+        long length = in.readLong();
+        int size = in.readInt();
+        if (size < 0) {
+          throw new IOException("Corrupt classpath index file");
+        }
+        String[] names = new String[size];
+        for (int i = 0; i < names.length; i++) {
+          names[i] = in.readUTF();
+        }
+        loaded.put(key, new JarResources(lastModified, length, names));
+      }
+    } catch (IOException e) {
+      log.warn("Ignoring the classpath index " + file + ". Cause: " + e);
+      return;
+    }
+    for (Map.Entry<String, JarResources> entry : loaded.entrySet()) {
+      jars.putIfAbsent(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Saves the index if JAR files were indexed since it was loaded. The index is written to a temporary file
+   * that then replaces the given file, so other processes never read a partly written index.
+   * A failure is logged and ignored.
+   *
+   * @param file The index file
+   */
+  public static void save(File file) {
+    if (!modified && file.isFile()) {
+      return;
+    }
+    File temp = null;
+    try {
+      temp = File.createTempFile("." + file.getName() + "-", ".tmp", file.getAbsoluteFile().getParentFile());
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        Map<String, JarResources> snapshot = new HashMap<>(jars);
+        out.writeInt(snapshot.size());
+        for (Map.Entry<String, JarResources> entry : snapshot.entrySet()) {
+          JarResources resources = entry.getValue();
+          out.writeUTF(entry.getKey());
+          out.writeLong(resources.lastModified);
+          out.writeLong(resources.length);
+          out.writeInt(resources.names.length);
+          for (String name : resources.names) {
+            out.writeUTF(name);
+          }
+        }
+      }
+      try {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      modified = false;
+    } catch (IOException e) {
+      log.warn("Could not save the classpath index " + file + ". Cause: " + e);
+      if (temp != null && temp.exists() && !temp.delete()) {
+        temp.deleteOnExit();
+      }
+    }
+  }
+
+  /**
+   * Removes all the indexed JAR files.
+   */
+  public static void clear() {
+    jars.clear();
+    modified = false;
+  }
+
+  private static class JarResources {
+    private final long lastModified;
+    private final long length;
+    private final String[] names;
+
+    JarResources(long lastModified, long length, String[] names) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.names = names;
+    }
+  }
+
+}
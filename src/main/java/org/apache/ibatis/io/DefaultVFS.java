@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.ArrayList;
@@ -71,7 +72,14 @@ public class DefaultVFS extends VFS {
       // file is found, then we'll list child resources by reading the JAR.
       //找给定url的jar文件，如果jar文件存在，则开始读取文件里的资源
       URL jarUrl = findJarForResource(url);
-      if (jarUrl != null) {
+      File jarFile = jarUrl == null ? null : toFile(jarUrl);
+      if (jarFile != null) {
+        if (log.isDebugEnabled()) {
+          log.debug("Listing " + url);
+        }
+        //本地的jar文件使用索引，每个jar文件只读取一次
+        resources = ClasspathIndex.list(jarFile, path);
+      } else if (jarUrl != null) {
         is = jarUrl.openStream();
         if (log.isDebugEnabled()) {
           log.debug("Listing " + url);
@@ -177,6 +185,23 @@ public class DefaultVFS extends VFS {
     }
   }
 
+  /**
+   * Returns the local file of a {@code file:} URL, or null if the URL does not reference a local file.
+   *
+   * @since 3.5.2
+   */
+  protected File toFile(URL url) {
+    if (!"file".equals(url.getProtocol())) {
+      return null;
+    }
+    try {
+      File file = new File(url.toURI());
+      return file.isFile() ? file : null;
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
   /**
    * 查询指定jar包下的所有符合条件的文件名
    * List the names of the entries in the given {@link JarInputStream} that begin with the
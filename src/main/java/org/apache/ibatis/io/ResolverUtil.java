@@ -16,9 +16,13 @@
 package org.apache.ibatis.io;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.ibatis.logging.Log;
@@ -142,6 +146,11 @@ public class ResolverUtil<T> {
    */
   private ClassLoader classloader;
 
+  /**
+   * 已经读取过的类文件头，键为类的内部名称，找不到类文件时值为null
+   */
+  private final Map<String, ClassFileHeader> classFileHeaders = new HashMap<>();
+
   /**
    * Provides access to the classes discovered so far. If no calls have been made to
    * any of the {@code find()} methods, this set will be empty.
@@ -234,7 +243,8 @@ public class ResolverUtil<T> {
       //获取指定目录下的所有文件名
       List<String> children = VFS.getInstance().list(path);
       for (String child : children) {
-        if (child.endsWith(".class")) {
+        //先读取类文件判断，确定不匹配的类不用加载
+        if (child.endsWith(".class") && mayMatch(test, child)) {
           addIfMatching(test, child);
         }
       }
@@ -255,6 +265,82 @@ public class ResolverUtil<T> {
     return packageName == null ? null : packageName.replace('.', '/');
   }
 
+  /**
+   * Checks the class file of the class designated by the fully qualified class name provided,
+   * without loading the class. Only {@link IsA} and {@link AnnotatedWith} tests are checked,
+   * this method returns true for the other tests or if the class file cannot be examined.
+   *
+   * @param test the test used to determine if the class matches
+   * @param fqn  the fully qualified name of a class
+   * @return false if the class certainly does not match
+   * @since 3.5.2
+   */
+  protected boolean mayMatch(Test test, String fqn) {
+    String internalName = fqn.substring(0, fqn.indexOf('.'));
+    try {
+      if (test.getClass() == IsA.class) {
+        Class<?> parent = ((IsA) test).parent;
+        //所有类都是Object的子类，还需要加载
+        return parent == Object.class || !Boolean.FALSE.equals(isAssignable(internalName, parent.getName().replace('.', '/')));
+      }
+      if (test.getClass() == AnnotatedWith.class) {
+        Class<? extends Annotation> annotation = ((AnnotatedWith) test).annotation;
+        //可继承的注解可能在父类上
+        if (annotation.isAnnotationPresent(Inherited.class)) {
+          return true;
+        }
+        //类上的注解会在常量池中保存注解的描述符
+        ClassFileHeader header = getClassFileHeader(internalName);
+        return header == null || header.containsConstant("L" + annotation.getName().replace('.', '/') + ";");
+      }
+    } catch (IOException e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Could not read class file '" + fqn + "': " + e.getMessage());
+      }
+    }
+    return true;
+  }
+
+  /**
+   * 根据类文件沿父类和接口查找，判断type是否是parent的子类型
+   *
+   * @return 无法读取某个父类型的类文件时返回null
+   */
+  private Boolean isAssignable(String type, String parent) throws IOException {
+    if (type.equals(parent)) {
+      return Boolean.TRUE;
+    }
+    ClassFileHeader header = getClassFileHeader(type);
+    if (header == null) {
+      return null;
+    }
+    Boolean result = Boolean.FALSE;
+    for (String superType : header.getSuperTypes()) {
+      Boolean assignable = isAssignable(superType, parent);
+      if (Boolean.TRUE.equals(assignable)) {
+        return Boolean.TRUE;
+      }
+      if (assignable == null) {
+        result = null;
+      }
+    }
+    return result;
+  }
+
+  private ClassFileHeader getClassFileHeader(String internalName) throws IOException {
+    if (classFileHeaders.containsKey(internalName)) {
+      return classFileHeaders.get(internalName);
+    }
+    ClassFileHeader header = null;
+    try (InputStream in = getClassLoader().getResourceAsStream(internalName + ".class")) {
+      if (in != null) {
+        header = ClassFileHeader.read(in);
+      }
+    }
+    classFileHeaders.put(internalName, header);
+    return header;
+  }
+
   /**
    * Add the class designated by the fully qualified class name provided to the set of
    * resolved classes if and only if it is approved by the Test supplied.
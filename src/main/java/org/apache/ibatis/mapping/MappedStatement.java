@@ -26,6 +26,7 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.defaults.ParameterBinder;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -57,6 +58,8 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  //参数绑定计划的缓存，批量执行时复用
+  private final ParameterBinder parameterBinder = new ParameterBinder();
 
   MappedStatement() {
     // constructor disabled
@@ -294,6 +297,13 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public ParameterBinder getParameterBinder() {
+    return parameterBinder;
+  }
+
   public BoundSql getBoundSql(Object parameterObject) {
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
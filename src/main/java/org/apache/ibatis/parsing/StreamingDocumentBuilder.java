@@ -0,0 +1,157 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.parsing;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+/**
+ * 使用StAX在一次流式读取中构建DOM文档，不做DTD校验，也不使用SAX解析器的校验和错误处理流程。
+ * 构建出的文档与{@link XPathParser}不校验时的结果一致：忽略注释，保留空白文本，
+ * 相邻的文本合并为一个节点，CDATA保持为独立的节点。
+ *
+ * @since 3.5.2
+ */
+public class StreamingDocumentBuilder {
+
+  private static final String REPORT_CDATA_EVENT = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+  // the factories are not guaranteed to be thread safe
+  private static final ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal.withInitial(() -> {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+    if (factory.isPropertySupported(REPORT_CDATA_EVENT)) {
+      factory.setProperty(REPORT_CDATA_EVENT, true);
+    }
+    return factory;
+  });
+  private static final ThreadLocal<DocumentBuilderFactory> documentBuilderFactory = ThreadLocal.withInitial(DocumentBuilderFactory::newInstance);
+
+  private StreamingDocumentBuilder() {
+    // Prevent Instantiation
+  }
+
+  public static Document build(InputStream inputStream, EntityResolver entityResolver) {
+    try {
+      return build(newFactory(entityResolver).createXMLStreamReader(inputStream));
+    } catch (XMLStreamException e) {
+      throw new BuilderException("Error creating document instance.  Cause: " + e, e);
+    }
+  }
+
+  public static Document build(Reader reader, EntityResolver entityResolver) {
+    try {
+      return build(newFactory(entityResolver).createXMLStreamReader(reader));
+    } catch (XMLStreamException e) {
+      throw new BuilderException("Error creating document instance.  Cause: " + e, e);
+    }
+  }
+
+  private static XMLInputFactory newFactory(EntityResolver entityResolver) {
+    XMLInputFactory factory = inputFactory.get();
+    factory.setXMLResolver(entityResolver == null ? null : new EntityResolverAdapter(entityResolver));
+    return factory;
+  }
+
+  private static Document build(XMLStreamReader reader) {
+    try {
+      Document document = documentBuilderFactory.get().newDocumentBuilder().newDocument();
+      Node current = document;
+      StringBuilder text = new StringBuilder();
+      while (reader.hasNext()) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            appendText(document, current, text);
+            Element element = document.createElement(qualifiedName(reader.getPrefix(), reader.getLocalName()));
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+              element.setAttribute(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+            }
+            current.appendChild(element);
+            current = element;
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            appendText(document, current, text);
+            current = current.getParentNode();
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.SPACE:
+            //文档元素之外的空白不属于文档内容
+            if (current != document) {
+              text.append(reader.getText());
+            }
+            break;
+          case XMLStreamConstants.CDATA:
+            appendText(document, current, text);
+            current.appendChild(document.createCDATASection(reader.getText()));
+            break;
+          default:
+            //注释、处理指令和DTD都不需要
+            break;
+        }
+      }
+      reader.close();
+      return document;
+    } catch (Exception e) {
+      throw new BuilderException("Error creating document instance.  Cause: " + e, e);
+    }
+  }
+
+  private static void appendText(Document document, Node parent, StringBuilder text) {
+    if (text.length() > 0) {
+      parent.appendChild(document.createTextNode(text.toString()));
+      text.setLength(0);
+    }
+  }
+
+  private static String qualifiedName(String prefix, String localName) {
+    return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+  }
+
+  private static class EntityResolverAdapter implements XMLResolver {
+    private final EntityResolver entityResolver;
+
+    EntityResolverAdapter(EntityResolver entityResolver) {
+      this.entityResolver = entityResolver;
+    }
+
+    @Override
+    public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) throws XMLStreamException {
+      try {
+        InputSource source = entityResolver.resolveEntity(publicID, systemID);
+        return source == null ? null : source.getByteStream();
+      } catch (Exception e) {
+        throw new XMLStreamException(e);
+      }
+    }
+  }
+
+}
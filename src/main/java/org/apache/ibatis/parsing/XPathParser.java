@@ -19,6 +19,7 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
@@ -199,6 +200,13 @@ public class XPathParser {
 
   public List<XNode> evalNodes(Object root, String expression) {
     List<XNode> xnodes = new ArrayList<>();
+    List<Node> elements = findElements(root, expression);
+    if (elements != null) {
+      for (Node element : elements) {
+        xnodes.add(new XNode(this, element, variables));
+      }
+      return xnodes;
+    }
     NodeList nodes = (NodeList) evaluate(expression, root, XPathConstants.NODESET);
     for (int i = 0; i < nodes.getLength(); i++) {
       xnodes.add(new XNode(this, nodes.item(i), variables));
@@ -211,7 +219,13 @@ public class XPathParser {
   }
 
   public XNode evalNode(Object root, String expression) {
-    Node node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    List<Node> elements = findElements(root, expression);
+    Node node;
+    if (elements != null) {
+      node = elements.isEmpty() ? null : elements.get(0);
+    } else {
+      node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    }
     if (node == null) {
       return null;
     }
@@ -228,6 +242,10 @@ public class XPathParser {
    */
   private Object evaluate(String expression, Object root, QName returnType) {
     try {
+      //只有不能直接查找子元素的表达式才需要xpath，第一次使用时再创建
+      if (xpath == null) {
+        xpath = XPathFactory.newInstance().newXPath();
+      }
       return xpath.evaluate(expression, root, returnType);
     } catch (Exception e) {
       throw new BuilderException("Error evaluating XPath.  Cause: " + e, e);
@@ -279,8 +297,93 @@ public class XPathParser {
     this.validation = validation;
     this.entityResolver = entityResolver;
     this.variables = variables;
-    XPathFactory factory = XPathFactory.newInstance();
-    this.xpath = factory.newXPath();
+  }
+
+  /**
+   * 只由元素名组成的简单路径（例如"cache"、"select|insert"、"/mapper/resultMap"、"/*"）直接按文档顺序遍历子元素，
+   * 结果与xpath相同；其他表达式返回null，仍然交给xpath执行
+   */
+  private static List<Node> findElements(Object root, String expression) {
+    if (!(root instanceof Node) || expression.isEmpty()) {
+      return null;
+    }
+    String[] steps;
+    if (expression.indexOf('|') >= 0) {
+      //并集只支持单层的元素名，例如"select|insert|update|delete"
+      if (expression.indexOf('/') >= 0) {
+        return null;
+      }
+      steps = new String[] {expression};
+    } else {
+      steps = expression.split("/", -1);
+    }
+    Node start = (Node) root;
+    int first = 0;
+    if (expression.charAt(0) == '/') {
+      start = start.getNodeType() == Node.DOCUMENT_NODE ? start : start.getOwnerDocument();
+      first = 1;
+    }
+    for (int i = first; i < steps.length; i++) {
+      if (!isNameTest(steps[i])) {
+        return null;
+      }
+    }
+    if (start == null || first == steps.length) {
+      return null;
+    }
+    List<Node> current = Collections.singletonList(start);
+    for (int i = first; i < steps.length; i++) {
+      List<Node> next = new ArrayList<>();
+      for (Node parent : current) {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+          if (child.getNodeType() == Node.ELEMENT_NODE && matchesNameTest(steps[i], child.getNodeName())) {
+            next.add(child);
+          }
+        }
+      }
+      current = next;
+    }
+    return current;
+  }
+
+  //"*"或用|分隔的元素名，元素名不含命名空间前缀
+  private static boolean isNameTest(String step) {
+    if ("*".equals(step)) {
+      return true;
+    }
+    boolean nameStart = true;
+    for (int i = 0; i < step.length(); i++) {
+      char c = step.charAt(i);
+      if (c == '|') {
+        if (nameStart) {
+          return false;
+        }
+        nameStart = true;
+      } else if (nameStart ? Character.isLetter(c) || c == '_' : Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.') {
+        nameStart = false;
+      } else {
+        return false;
+      }
+    }
+    return !nameStart;
+  }
+
+  private static boolean matchesNameTest(String step, String name) {
+    if ("*".equals(step)) {
+      return true;
+    }
+    int start = 0;
+    while (start <= step.length()) {
+      int end = step.indexOf('|', start);
+      if (end < 0) {
+        end = step.length();
+      }
+      if (end - start == name.length() && step.regionMatches(start, name, 0, name.length())) {
+        return true;
+      }
+      start = end + 1;
+    }
+    return false;
   }
 
 }
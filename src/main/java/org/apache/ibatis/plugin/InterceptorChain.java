@@ -18,6 +18,8 @@ package org.apache.ibatis.plugin;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Clinton Begin
@@ -25,8 +27,14 @@ import java.util.List;
 public class InterceptorChain {
 
   private final List<Interceptor> interceptors = new ArrayList<>();
+  //目标类型 -> 合并了所有拦截器的Dispatcher，只在拦截器都使用默认的plugin方法时使用
+  private final Map<Class<?>, Object> dispatchers = new ConcurrentHashMap<>();
+  private boolean defaultPlugins = true;
 
   public Object pluginAll(Object target) {
+    if (defaultPlugins) {
+      return Plugin.wrapAll(target, interceptors, dispatchers);
+    }
     for (Interceptor interceptor : interceptors) {
       target = interceptor.plugin(target);
     }
@@ -35,10 +43,21 @@ public class InterceptorChain {
 
   public void addInterceptor(Interceptor interceptor) {
     interceptors.add(interceptor);
+    dispatchers.clear();
+    defaultPlugins = defaultPlugins && !overridesPlugin(interceptor);
   }
 
   public List<Interceptor> getInterceptors() {
     return Collections.unmodifiableList(interceptors);
   }
 
+  //重写了plugin方法的拦截器可能不是通过Plugin.wrap包装目标对象，只能逐个调用
+  private static boolean overridesPlugin(Interceptor interceptor) {
+    try {
+      return interceptor.getClass().getMethod("plugin", Object.class).getDeclaringClass() != Interceptor.class;
+    } catch (NoSuchMethodException e) {
+      return true;
+    }
+  }
+
 }
@@ -26,14 +26,28 @@ public class Invocation {
   private final Object target;
   private final Method method;
   private final Object[] args;
+  //合并后的插件代理，以及当前拦截器在调用链中的位置
+  private final Plugin plugin;
+  private final int[] chain;
+  private final int position;
 
   public Invocation(Object target, Method method, Object[] args) {
+    this(target, method, args, null, null, 0);
+  }
+
+  Invocation(Object target, Method method, Object[] args, Plugin plugin, int[] chain, int position) {
     this.target = target;
     this.method = method;
     this.args = args;
+    this.plugin = plugin;
+    this.chain = chain;
+    this.position = position;
   }
 
   public Object getTarget() {
+    if (plugin != null) {
+      return plugin.getTarget(chain, position);
+    }
     return target;
   }
 
@@ -46,6 +60,9 @@ public class Invocation {
   }
 
   public Object proceed() throws InvocationTargetException, IllegalAccessException {
+    if (plugin != null) {
+      return plugin.proceed(this, chain, position);
+    }
     return method.invoke(target, args);
   }
 
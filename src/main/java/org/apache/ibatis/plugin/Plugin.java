@@ -16,49 +16,113 @@
 package org.apache.ibatis.plugin;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 /**
+ * 插件代理。对同一个目标对象多次wrap时不再层层嵌套代理，而是把拦截器合并到同一个代理中。
+ * 合并后的拦截器、每层代理的接口以及每个方法需要经过的拦截器都保存在不可变的Dispatcher中，
+ * 在相同类型的目标对象之间共享，每个目标对象只需要创建代理本身。
+ *
  * @author Clinton Begin
  */
 public class Plugin implements InvocationHandler {
 
+  //拦截器类上@Intercepts声明的签名，按拦截器类缓存
+  private static final ClassValue<Map<Class<?>, Set<Method>>> SIGNATURE_MAPS = new ClassValue<Map<Class<?>, Set<Method>>>() {
+    @Override
+    protected Map<Class<?>, Set<Method>> computeValue(Class<?> type) {
+      return getSignatureMap(type);
+    }
+  };
+
+  //没有拦截器需要代理目标类型时缓存的标记
+  private static final Object NO_DISPATCHER = new Object();
+
   private final Object target;
-  private final Interceptor interceptor;
-  private final Map<Class<?>, Set<Method>> signatureMap;
+  private final Dispatcher dispatcher;
+  //从某一层开始的代理对象，按需创建
+  private volatile Object[] views;
 
-  private Plugin(Object target, Interceptor interceptor, Map<Class<?>, Set<Method>> signatureMap) {
+  private Plugin(Object target, Dispatcher dispatcher) {
     this.target = target;
-    this.interceptor = interceptor;
-    this.signatureMap = signatureMap;
+    this.dispatcher = dispatcher;
   }
 
   public static Object wrap(Object target, Interceptor interceptor) {
-    Map<Class<?>, Set<Method>> signatureMap = getSignatureMap(interceptor);
+    Map<Class<?>, Set<Method>> signatureMap = SIGNATURE_MAPS.get(interceptor.getClass());
     Class<?> type = target.getClass();
     Class<?>[] interfaces = getAllInterfaces(type, signatureMap);
     if (interfaces.length > 0) {
-      return Proxy.newProxyInstance(
-          type.getClassLoader(),
-          interfaces,
-          new Plugin(target, interceptor, signatureMap));
+      Plugin inner = getPlugin(target);
+      return inner == null
+          ? newProxy(target, new Dispatcher(interceptor, signatureMap, interfaces))
+          : newProxy(inner.target, inner.dispatcher.wrap(interceptor, signatureMap, interfaces));
     }
     return target;
   }
 
+  /**
+   * 依次用所有拦截器包装目标对象，结果与逐个调用{@link #wrap(Object, Interceptor)}相同，
+   * 合并后的Dispatcher按目标类型缓存在dispatchers中
+   */
+  static Object wrapAll(Object target, List<Interceptor> interceptors, Map<Class<?>, Object> dispatchers) {
+    if (getPlugin(target) != null) {
+      for (Interceptor interceptor : interceptors) {
+        target = wrap(target, interceptor);
+      }
+      return target;
+    }
+    Class<?> type = target.getClass();
+    Object dispatcher = dispatchers.get(type);
+    if (dispatcher == null) {
+      dispatcher = compose(type, interceptors);
+      dispatchers.put(type, dispatcher);
+    }
+    return dispatcher == NO_DISPATCHER ? target : newProxy(target, (Dispatcher) dispatcher);
+  }
+
+  private static Object compose(Class<?> type, List<Interceptor> interceptors) {
+    Dispatcher dispatcher = null;
+    for (Interceptor interceptor : interceptors) {
+      Map<Class<?>, Set<Method>> signatureMap = SIGNATURE_MAPS.get(interceptor.getClass());
+      //已经代理过时，下一个拦截器看到的是代理类：实现上一层的接口，父类为Proxy
+      Class<?>[] interfaces = dispatcher == null
+          ? getAllInterfaces(type, signatureMap)
+          : getAllInterfaces(dispatcher.interfaces[0], Proxy.class, signatureMap);
+      if (interfaces.length > 0) {
+        dispatcher = dispatcher == null
+            ? new Dispatcher(interceptor, signatureMap, interfaces)
+            : dispatcher.wrap(interceptor, signatureMap, interfaces);
+      }
+    }
+    return dispatcher == null ? NO_DISPATCHER : dispatcher;
+  }
+
+  private static Object newProxy(Object target, Dispatcher dispatcher) {
+    return Proxy.newProxyInstance(
+        target.getClass().getClassLoader(),
+        dispatcher.interfaces[0],
+        new Plugin(target, dispatcher));
+  }
+
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     try {
-      Set<Method> methods = signatureMap.get(method.getDeclaringClass());
-      if (methods != null && methods.contains(method)) {
-        return interceptor.intercept(new Invocation(target, method, args));
+      int[] chain = dispatcher.getChain(method);
+      if (chain.length > 0) {
+        return dispatcher.interceptors[chain[0]].intercept(new Invocation(target, method, args, this, chain, 0));
       }
       return method.invoke(target, args);
     } catch (Exception e) {
@@ -66,11 +130,76 @@ public class Plugin implements InvocationHandler {
     }
   }
 
-  private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
-    Intercepts interceptsAnnotation = interceptor.getClass().getAnnotation(Intercepts.class);
+  /**
+   * 调用链中下一个拦截器，与嵌套代理时通过反射调用内层代理的行为保持一致，异常都包装为InvocationTargetException
+   */
+  Object proceed(Invocation invocation, int[] chain, int position) throws InvocationTargetException {
+    Method method = invocation.getMethod();
+    Object[] args = invocation.getArgs();
+    Throwable cause;
+    try {
+      int next = position + 1;
+      if (next < chain.length) {
+        return dispatcher.interceptors[chain[next]].intercept(new Invocation(target, method, args, this, chain, next));
+      }
+      return method.invoke(target, args);
+    } catch (Exception e) {
+      cause = ExceptionUtil.unwrapThrowable(e);
+    } catch (Throwable t) {
+      cause = t;
+    }
+    throw new InvocationTargetException(undeclared(cause, method));
+  }
+
+  /**
+   * 嵌套代理时拦截器看到的目标对象是内层代理，这里按需创建等价的对象：由后面各层拦截器组成的代理
+   */
+  Object getTarget(int[] chain, int position) {
+    int from = chain[position] + 1;
+    if (from >= dispatcher.interceptors.length) {
+      return target;
+    }
+    Object[] cached = views;
+    if (cached == null) {
+      cached = new Object[dispatcher.interceptors.length];
+      views = cached;
+    }
+    Object view = cached[from];
+    if (view == null) {
+      view = newProxy(target, dispatcher.from(from));
+      cached[from] = view;
+    }
+    return view;
+  }
+
+  private static Plugin getPlugin(Object target) {
+    if (Proxy.isProxyClass(target.getClass())) {
+      InvocationHandler handler = Proxy.getInvocationHandler(target);
+      if (handler instanceof Plugin) {
+        return (Plugin) handler;
+      }
+    }
+    return null;
+  }
+
+  //经过代理抛出的受检异常如果没有在方法上声明，JDK代理会将其包装为UndeclaredThrowableException
+  private static Throwable undeclared(Throwable t, Method method) {
+    if (t instanceof RuntimeException || t instanceof Error) {
+      return t;
+    }
+    for (Class<?> exceptionType : method.getExceptionTypes()) {
+      if (exceptionType.isInstance(t)) {
+        return t;
+      }
+    }
+    return new UndeclaredThrowableException(t);
+  }
+
+  private static Map<Class<?>, Set<Method>> getSignatureMap(Class<?> interceptorType) {
+    Intercepts interceptsAnnotation = interceptorType.getAnnotation(Intercepts.class);
     // issue #251
     if (interceptsAnnotation == null) {
-      throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptor.getClass().getName());
+      throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptorType.getName());
     }
     Signature[] sigs = interceptsAnnotation.value();
     Map<Class<?>, Set<Method>> signatureMap = new HashMap<>();
@@ -83,11 +212,21 @@ public class Plugin implements InvocationHandler {
         throw new PluginException("Could not find method on " + sig.type() + " named " + sig.method() + ". Cause: " + e, e);
       }
     }
-    return signatureMap;
+    return Collections.unmodifiableMap(signatureMap);
   }
 
   private static Class<?>[] getAllInterfaces(Class<?> type, Map<Class<?>, Set<Method>> signatureMap) {
+    return getAllInterfaces(type.getInterfaces(), type.getSuperclass(), signatureMap);
+  }
+
+  private static Class<?>[] getAllInterfaces(Class<?>[] directInterfaces, Class<?> superclass, Map<Class<?>, Set<Method>> signatureMap) {
     Set<Class<?>> interfaces = new HashSet<>();
+    for (Class<?> c : directInterfaces) {
+      if (signatureMap.containsKey(c)) {
+        interfaces.add(c);
+      }
+    }
+    Class<?> type = superclass;
     while (type != null) {
       for (Class<?> c : type.getInterfaces()) {
         if (signatureMap.containsKey(c)) {
@@ -99,4 +238,103 @@ public class Plugin implements InvocationHandler {
     return interfaces.toArray(new Class<?>[interfaces.size()]);
   }
 
+  /**
+   * 合并后的拦截器，下标0为最外层，依次向内。创建后不再改变，在相同类型的目标对象之间共享
+   */
+  private static class Dispatcher {
+    private static final int[] NO_CHAIN = new int[0];
+
+    private final Interceptor[] interceptors;
+    private final Map<Class<?>, Set<Method>>[] signatureMaps;
+    //每一层原本代理的接口
+    private final Class<?>[][] interfaces;
+    //方法 -> 依次需要经过的拦截器下标
+    private final Map<Method, int[]> chains = new ConcurrentHashMap<>();
+    //在外面再包一层拦截器后的Dispatcher
+    private final Map<Interceptor, Dispatcher> outers = new ConcurrentHashMap<>();
+    //从某一层开始的Dispatcher，按需创建
+    private final Dispatcher[] inners;
+
+    @SuppressWarnings("unchecked")
+    Dispatcher(Interceptor interceptor, Map<Class<?>, Set<Method>> signatureMap, Class<?>[] interfaces) {
+      this(new Interceptor[] {interceptor}, new Map[] {signatureMap}, new Class<?>[][] {interfaces});
+    }
+
+    private Dispatcher(Interceptor[] interceptors, Map<Class<?>, Set<Method>>[] signatureMaps, Class<?>[][] interfaces) {
+      this.interceptors = interceptors;
+      this.signatureMaps = signatureMaps;
+      this.interfaces = interfaces;
+      this.inners = new Dispatcher[interceptors.length];
+    }
+
+    /**
+     * 外层代理的接口由内层代理的接口决定，所以同一个拦截器包装后的结果可以缓存
+     */
+    @SuppressWarnings("unchecked")
+    Dispatcher wrap(Interceptor interceptor, Map<Class<?>, Set<Method>> signatureMap, Class<?>[] outerInterfaces) {
+      Dispatcher outer = outers.get(interceptor);
+      if (outer == null) {
+        int size = interceptors.length + 1;
+        Interceptor[] newInterceptors = new Interceptor[size];
+        Map<Class<?>, Set<Method>>[] newSignatureMaps = new Map[size];
+        Class<?>[][] newInterfaces = new Class<?>[size][];
+        newInterceptors[0] = interceptor;
+        newSignatureMaps[0] = signatureMap;
+        newInterfaces[0] = outerInterfaces;
+        System.arraycopy(interceptors, 0, newInterceptors, 1, size - 1);
+        System.arraycopy(signatureMaps, 0, newSignatureMaps, 1, size - 1);
+        System.arraycopy(interfaces, 0, newInterfaces, 1, size - 1);
+        outer = new Dispatcher(newInterceptors, newSignatureMaps, newInterfaces);
+        Dispatcher existing = outers.putIfAbsent(interceptor, outer);
+        if (existing != null) {
+          outer = existing;
+        }
+      }
+      return outer;
+    }
+
+    @SuppressWarnings("unchecked")
+    Dispatcher from(int from) {
+      Dispatcher inner = inners[from];
+      if (inner == null) {
+        int size = interceptors.length - from;
+        Interceptor[] newInterceptors = new Interceptor[size];
+        Map<Class<?>, Set<Method>>[] newSignatureMaps = new Map[size];
+        Class<?>[][] newInterfaces = new Class<?>[size][];
+        System.arraycopy(interceptors, from, newInterceptors, 0, size);
+        System.arraycopy(signatureMaps, from, newSignatureMaps, 0, size);
+        System.arraycopy(interfaces, from, newInterfaces, 0, size);
+        inner = new Dispatcher(newInterceptors, newSignatureMaps, newInterfaces);
+        inners[from] = inner;
+      }
+      return inner;
+    }
+
+    int[] getChain(Method method) {
+      int[] chain = chains.get(method);
+      if (chain == null) {
+        chain = computeChain(method);
+        chains.put(method, chain);
+      }
+      return chain;
+    }
+
+    private int[] computeChain(Method method) {
+      int[] chain = new int[interceptors.length];
+      int size = 0;
+      for (int i = 0; i < interceptors.length; i++) {
+        Set<Method> methods = signatureMaps[i].get(method.getDeclaringClass());
+        if (methods != null && methods.contains(method)) {
+          chain[size++] = i;
+        }
+      }
+      if (size == 0) {
+        return NO_CHAIN;
+      }
+      int[] result = new int[size];
+      System.arraycopy(chain, 0, result, 0, size);
+      return result;
+    }
+  }
+
 }
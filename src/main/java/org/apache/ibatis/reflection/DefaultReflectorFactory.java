@@ -18,6 +18,9 @@ package org.apache.ibatis.reflection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.apache.ibatis.reflection.invoker.DefaultInvokerFactory;
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
+
 public class DefaultReflectorFactory implements ReflectorFactory {
   /**
    * 默认缓存类的Reflector对象
@@ -28,7 +31,25 @@ public class DefaultReflectorFactory implements ReflectorFactory {
    */
   private final ConcurrentMap<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<>();
 
+  /**
+   * 创建Reflector时使用的Invoker工厂
+   */
+  private final InvokerFactory invokerFactory;
+
   public DefaultReflectorFactory() {
+    this(new DefaultInvokerFactory());
+  }
+
+  /**
+   * @param invokerFactory 创建Reflector时使用的Invoker工厂
+   * @since 3.5.2
+   */
+  public DefaultReflectorFactory(InvokerFactory invokerFactory) {
+    this.invokerFactory = invokerFactory;
+  }
+
+  public InvokerFactory getInvokerFactory() {
+    return invokerFactory;
   }
 
   @Override
@@ -49,11 +70,15 @@ public class DefaultReflectorFactory implements ReflectorFactory {
     if (classCacheEnabled) {
       //如果缓存，则创建Reflector并缓存
       // synchronized (type) removed see issue #461
-      return reflectorMap.computeIfAbsent(type, Reflector::new);
+      return reflectorMap.computeIfAbsent(type, this::createReflector);
     } else {
       //不缓存，则直接创建新的Reflector
-      return new Reflector(type);
+      return createReflector(type);
     }
   }
 
+  private Reflector createReflector(Class<?> type) {
+    return new Reflector(type, invokerFactory);
+  }
+
 }
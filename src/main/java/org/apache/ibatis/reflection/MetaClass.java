@@ -16,6 +16,7 @@
 package org.apache.ibatis.reflection;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -23,6 +24,7 @@ import java.util.Collection;
 
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleInvoker;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 
@@ -155,6 +157,12 @@ public class MetaClass {
         Field field = (Field) _field.get(invoker);
         //解析属性的类型
         return TypeParameterResolver.resolveFieldType(field, reflector.getType());
+      } else if (invoker instanceof MethodHandleInvoker) {
+        Member member = ((MethodHandleInvoker) invoker).getMember();
+        if (member instanceof Method) {
+          return TypeParameterResolver.resolveReturnType((Method) member, reflector.getType());
+        }
+        return TypeParameterResolver.resolveFieldType((Field) member, reflector.getType());
       }
     } catch (NoSuchFieldException | IllegalAccessException ignored) {
     }
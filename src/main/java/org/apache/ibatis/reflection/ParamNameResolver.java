@@ -18,12 +18,13 @@ package org.apache.ibatis.reflection;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.apache.ibatis.annotations.Param;
-import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.binding.ArrayParamMap;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -53,6 +54,10 @@ public class ParamNameResolver {
 
   private boolean hasParamAnnotation;
 
+  //ParamMap中的参数名（包含param1、param2等通用名称）以及对应的方法参数位置，预先计算好
+  private final String[] paramMapNames;
+  private final int[] paramMapIndexes;
+
   public ParamNameResolver(Configuration config, Method method) {
     //方法的参数类型
     final Class<?>[] paramTypes = method.getParameterTypes();
@@ -93,6 +98,22 @@ public class ParamNameResolver {
     }
     //生成不可修改的map
     names = Collections.unmodifiableSortedMap(map);
+    //按原来逐个put的顺序计算，后放入的同名参数覆盖先放入的
+    final Map<String, Integer> paramMap = new LinkedHashMap<>();
+    int i = 0;
+    for (Map.Entry<Integer, String> entry : names.entrySet()) {
+      paramMap.put(entry.getValue(), entry.getKey());
+      final String genericParamName = GENERIC_NAME_PREFIX + String.valueOf(i + 1);
+      if (!names.containsValue(genericParamName)) {
+        paramMap.put(genericParamName, entry.getKey());
+      }
+      i++;
+    }
+    paramMapNames = paramMap.keySet().toArray(new String[0]);
+    paramMapIndexes = new int[paramMapNames.length];
+    for (int j = 0; j < paramMapNames.length; j++) {
+      paramMapIndexes[j] = paramMap.get(paramMapNames[j]);
+    }
   }
 
   /**
@@ -130,21 +151,8 @@ public class ParamNameResolver {
     } else if (!hasParamAnnotation && paramCount == 1) {
       return args[names.firstKey()];
     } else {
-      //参数名和值的对应关系
-      final Map<String, Object> param = new ParamMap<>();
-      int i = 0;
-      for (Map.Entry<Integer, String> entry : names.entrySet()) {
-        //通过names里的位置和名称对应关系，来查找参数里的值
-        param.put(entry.getValue(), args[entry.getKey()]);
-        // add generic param names (param1, param2, ...)
-        final String genericParamName = GENERIC_NAME_PREFIX + String.valueOf(i + 1);
-        // ensure not to overwrite parameter named with @Param
-        if (!names.containsValue(genericParamName)) {
-          param.put(genericParamName, args[entry.getKey()]);
-        }
-        i++;
-      }
-      return param;
+      //参数名和值的对应关系，直接引用参数数组，不再逐个复制到HashMap中
+      return new ArrayParamMap<>(paramMapNames, paramMapIndexes, args);
     }
   }
 }
@@ -32,10 +32,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.DefaultInvokerFactory;
 import org.apache.ibatis.reflection.invoker.Invoker;
-import org.apache.ibatis.reflection.invoker.MethodInvoker;
-import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
 import org.apache.ibatis.reflection.property.PropertyNamer;
 
 /**
@@ -49,6 +48,10 @@ import org.apache.ibatis.reflection.property.PropertyNamer;
 public class Reflector {
 
   private final Class<?> type;
+  /**
+   * 用来创建get/set方法和字段的Invoker
+   */
+  private final InvokerFactory invokerFactory;
   /**
    * 所有的有get方法的字段数组
    */
@@ -81,7 +84,17 @@ public class Reflector {
   private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
 
   public Reflector(Class<?> clazz) {
+    this(clazz, new DefaultInvokerFactory());
+  }
+
+  /**
+   * @param clazz          类
+   * @param invokerFactory 用来封装get/set方法和字段的Invoker工厂
+   * @since 3.5.2
+   */
+  public Reflector(Class<?> clazz, InvokerFactory invokerFactory) {
     type = clazz;
+    this.invokerFactory = invokerFactory;
     addDefaultConstructor(clazz);
     addGetMethods(clazz);
     addSetMethods(clazz);
@@ -180,7 +193,7 @@ public class Reflector {
   private void addGetMethod(String name, Method method) {
     if (isValidPropertyName(name)) {
       //封装方法调用对象
-      getMethods.put(name, new MethodInvoker(method));
+      getMethods.put(name, invokerFactory.createMethodInvoker(method));
       //获取get方法返回类型，并存在getTypes中与字段名关联
       Type returnType = TypeParameterResolver.resolveReturnType(method, type);
       getTypes.put(name, typeToClass(returnType));
@@ -268,7 +281,7 @@ public class Reflector {
   private void addSetMethod(String name, Method method) {
     if (isValidPropertyName(name)) {
       //添加到setMethods中
-      setMethods.put(name, new MethodInvoker(method));
+      setMethods.put(name, invokerFactory.createMethodInvoker(method));
       Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
       //添加到setTypes中
       setTypes.put(name, typeToClass(paramTypes[0]));
@@ -323,8 +336,8 @@ public class Reflector {
 
   private void addSetField(Field field) {
     if (isValidPropertyName(field.getName())) {
-      //构建一个SetFieldInvoker作为这个字段的set方法存入setMethods中
-      setMethods.put(field.getName(), new SetFieldInvoker(field));
+      //构建一个set字段的Invoker作为这个字段的set方法存入setMethods中
+      setMethods.put(field.getName(), invokerFactory.createSetFieldInvoker(field));
       Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
       //将字段类型存入setTypes中
       setTypes.put(field.getName(), typeToClass(fieldType));
@@ -333,8 +346,8 @@ public class Reflector {
 
   private void addGetField(Field field) {
     if (isValidPropertyName(field.getName())) {
-      //构建GetFieldInvoker来作为该字段的get方法并存入getMethods中
-      getMethods.put(field.getName(), new GetFieldInvoker(field));
+      //构建get字段的Invoker来作为该字段的get方法并存入getMethods中
+      getMethods.put(field.getName(), invokerFactory.createGetFieldInvoker(field));
       Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
       //将字段类型存在getTypes中
       getTypes.put(field.getName(), typeToClass(fieldType));
@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * 创建属性访问用的Invoker，Reflector通过它来封装get/set方法和字段
+ *
+ * @since 3.5.2
+ */
+public interface InvokerFactory {
+
+  /**
+   * 封装get方法或set方法
+   *
+   * @param method 无参get方法或单参数set方法
+   * @return Invoker
+   */
+  Invoker createMethodInvoker(Method method);
+
+  /**
+   * 封装没有get方法的字段
+   *
+   * @param field 字段
+   * @return Invoker
+   */
+  Invoker createGetFieldInvoker(Field field);
+
+  /**
+   * 封装没有set方法的字段
+   *
+   * @param field 字段
+   * @return Invoker
+   */
+  Invoker createSetFieldInvoker(Field field);
+}
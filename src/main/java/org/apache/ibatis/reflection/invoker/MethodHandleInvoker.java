@@ -0,0 +1,282 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Modifier;
+
+import org.apache.ibatis.lang.UsesJava7;
+
+/**
+ * 基于MethodHandle的Invoker，MethodHandle在创建时已经被适配为统一的签名，
+ * get为(Object)Object，set为(Object,Object)void，调用时通过invokeExact执行，可以被JIT内联。
+ * invokeExact是签名多态方法，animal-sniffer的签名文件中没有对应的方法签名，调用的方法都标记了{@link UsesJava7}。
+ * int、long、double类型的属性另外保留一个不装箱的MethodHandle，见{@link PrimitiveGetter}和{@link PrimitiveSetter}
+ * <p>
+ * 调用前和Method.invoke一样校验目标对象和参数，不符合时抛出IllegalArgumentException，
+ * 所以invokeExact抛出的异常都来自被调用的方法，包装为InvocationTargetException。
+ *
+ * @since 3.5.2
+ */
+public abstract class MethodHandleInvoker implements Invoker {
+
+  static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  protected final MethodHandle handle;
+  private final Member member;
+  private final Class<?> type;
+  //目标对象的类型，静态成员忽略目标对象，为null
+  private final Class<?> targetType;
+
+  protected MethodHandleInvoker(MethodHandle handle, Member member, Class<?> type) {
+    this.handle = handle;
+    this.member = member;
+    this.type = type;
+    this.targetType = Modifier.isStatic(member.getModifiers()) ? null : member.getDeclaringClass();
+  }
+
+  /**
+   * @return 被封装的Method或Field
+   */
+  public Member getMember() {
+    return member;
+  }
+
+  @Override
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * 不装箱的MethodHandle只适配目标对象的类型，属性类型保持为基本类型
+   */
+  static MethodHandle primitiveHandle(MethodHandle handle, MethodType type) {
+    Class<?> valueType = type.returnType() == void.class ? type.parameterType(1) : type.returnType();
+    if (valueType != int.class && valueType != long.class && valueType != double.class) {
+      return null;
+    }
+    return handle.asType(type.changeParameterType(0, Object.class));
+  }
+
+  void checkPrimitiveType(Class<?> primitiveType) {
+    if (type != primitiveType) {
+      throw new IllegalArgumentException("argument type mismatch: " + type.getName() + " is not " + primitiveType.getName());
+    }
+  }
+
+  /**
+   * 和Method.invoke一样，实例成员的目标对象为null时抛出NullPointerException，类型不符时抛出IllegalArgumentException
+   */
+  void checkTarget(Object target) {
+    if (targetType == null) {
+      return;
+    }
+    if (target == null) {
+      throw new NullPointerException("target is null for " + member);
+    }
+    if (!targetType.isInstance(target)) {
+      throw new IllegalArgumentException("object is not an instance of declaring class: "
+        + target.getClass().getName() + " is not " + targetType.getName());
+    }
+  }
+
+  /**
+   * 被调用的方法抛出的异常包装为InvocationTargetException，虚拟机错误不是方法抛出的，直接抛出
+   */
+  static InvocationTargetException targetException(Throwable t) {
+    if (t instanceof VirtualMachineError) {
+      throw (VirtualMachineError) t;
+    }
+    return new InvocationTargetException(t);
+  }
+
+  static class Getter extends MethodHandleInvoker implements PrimitiveGetter {
+
+    private final MethodHandle primitiveHandle;
+
+    Getter(MethodHandle handle, Member member, Class<?> type) {
+      super(handle.asType(GETTER_TYPE), member, type);
+      this.primitiveHandle = primitiveHandle(handle, MethodType.methodType(type, Object.class));
+    }
+
+    @Override
+    @UsesJava7
+    public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+      checkTarget(target);
+      try {
+        return (Object) handle.invokeExact(target);
+      } catch (Throwable t) {
+        throw targetException(t);
+      }
+    }
+
+    @Override
+    @UsesJava7
+    public int getInt(Object target) throws InvocationTargetException {
+      checkPrimitiveType(int.class);
+      checkTarget(target);
+      try {
+        return (int) primitiveHandle.invokeExact(target);
+      } catch (Throwable t) {
+        throw targetException(t);
+      }
+    }
+
+    @Override
+    @UsesJava7
+    public long getLong(Object target) throws InvocationTargetException {
+      checkPrimitiveType(long.class);
+      checkTarget(target);
+      try {
+        return (long) primitiveHandle.invokeExact(target);
+      } catch (Throwable t) {
+        throw targetException(t);
+      }
+    }
+
+    @Override
+    @UsesJava7
+    public double getDouble(Object target) throws InvocationTargetException {
+      checkPrimitiveType(double.class);
+      checkTarget(target);
+      try {
+        return (double) primitiveHandle.invokeExact(target);
+      } catch (Throwable t) {
+        throw targetException(t);
+      }
+    }
+  }
+
+  static class Setter extends MethodHandleInvoker implements PrimitiveSetter {
+
+    /**
+     * set参数的包装类型，用来在调用前校验参数，保持和Method.invoke一样抛出IllegalArgumentException
+     */
+    private final Class<?> boxedType;
+    private final MethodHandle primitiveHandle;
+
+    Setter(MethodHandle handle, Member member, Class<?> type) {
+      super(handle.asType(SETTER_TYPE), member, type);
+      this.boxedType = type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+      this.primitiveHandle = primitiveHandle(handle, MethodType.methodType(void.class, Object.class, type));
+    }
+
+    @Override
+    @UsesJava7
+    public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+      checkTarget(target);
+      Object value = args[0];
+      if (value == null ? getType().isPrimitive() : !boxedType.isInstance(value)) {
+        //和Method.invoke一样，基本类型的参数允许拆箱后的宽化转换，例如Integer设置到long属性
+        Object widened = value == null || !getType().isPrimitive() ? null : widen(value, getType());
+        if (widened == null) {
+          throw new IllegalArgumentException("argument type mismatch: cannot assign "
+            + (value == null ? "null" : value.getClass().getName()) + " to " + getType().getName());
+        }
+        value = widened;
+      }
+      try {
+        handle.invokeExact(target, value);
+      } catch (Throwable t) {
+        throw targetException(t);
+      }
+      return null;
+    }
+
+    /**
+     * 按基本类型的宽化转换（JLS 5.1.2）把包装类型的值转换为type的包装类型，不能宽化时返回null
+     */
+    static Object widen(Object value, Class<?> type) {
+      int from = rank(value.getClass());
+      int to = rank(type);
+      if (from == 0 || from >= to || type == char.class) {
+        return null;
+      }
+      Number number = value instanceof Character ? Integer.valueOf((Character) value) : (Number) value;
+      if (type == short.class) {
+        return number.shortValue();
+      } else if (type == int.class) {
+        return number.intValue();
+      } else if (type == long.class) {
+        return number.longValue();
+      } else if (type == float.class) {
+        return number.floatValue();
+      } else {
+        return number.doubleValue();
+      }
+    }
+
+    /**
+     * 宽化转换的顺序，char和short一样只能宽化为int及以上的类型；不能参与宽化的类型返回0
+     */
+    private static int rank(Class<?> type) {
+      if (type == byte.class || type == Byte.class) {
+        return 1;
+      } else if (type == short.class || type == Short.class || type == char.class || type == Character.class) {
+        return 2;
+      } else if (type == int.class || type == Integer.class) {
+        return 3;
+      } else if (type == long.class || type == Long.class) {
+        return 4;
+      } else if (type == float.class || type == Float.class) {
+        return 5;
+      } else if (type == double.class || type == Double.class) {
+        return 6;
+      }
+      return 0;
+    }
+
+    @Override
+    @UsesJava7
+    public void setInt(Object target, int value) throws InvocationTargetException {
+      checkPrimitiveType(int.class);
+      checkTarget(target);
+      try {
+        primitiveHandle.invokeExact(target, value);
+      } catch (Throwable t) {
+        throw targetException(t);
+      }
+    }
+
+    @Override
+    @UsesJava7
+    public void setLong(Object target, long value) throws InvocationTargetException {
+      checkPrimitiveType(long.class);
+      checkTarget(target);
+      try {
+        primitiveHandle.invokeExact(target, value);
+      } catch (Throwable t) {
+        throw targetException(t);
+      }
+    }
+
+    @Override
+    @UsesJava7
+    public void setDouble(Object target, double value) throws InvocationTargetException {
+      checkPrimitiveType(double.class);
+      checkTarget(target);
+      try {
+        primitiveHandle.invokeExact(target, value);
+      } catch (Throwable t) {
+        throw targetException(t);
+      }
+    }
+  }
+}
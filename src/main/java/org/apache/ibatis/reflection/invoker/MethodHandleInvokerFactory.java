@@ -0,0 +1,104 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.apache.ibatis.reflection.Reflector;
+
+/**
+ * 使用MethodHandle生成属性访问的InvokerFactory，相比反射调用，MethodHandle的调用可以被JIT内联。
+ * 对于无法创建MethodHandle的成员（例如无法访问的模块，final字段），退回到反射的Invoker。
+ *
+ * @since 3.5.2
+ */
+public class MethodHandleInvokerFactory extends DefaultInvokerFactory {
+
+  private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+  @Override
+  public Invoker createMethodInvoker(Method method) {
+    Class<?>[] paramTypes = method.getParameterTypes();
+    if (paramTypes.length > 1 || !makeAccessible(method)) {
+      return super.createMethodInvoker(method);
+    }
+    MethodHandle handle;
+    try {
+      handle = ignoreTargetIfStatic(lookup.unreflect(method), method);
+    } catch (IllegalAccessException e) {
+      return super.createMethodInvoker(method);
+    }
+    if (paramTypes.length == 1) {
+      return new MethodHandleInvoker.Setter(handle, method, paramTypes[0]);
+    }
+    return new MethodHandleInvoker.Getter(handle, method, method.getReturnType());
+  }
+
+  @Override
+  public Invoker createGetFieldInvoker(Field field) {
+    if (!makeAccessible(field)) {
+      return super.createGetFieldInvoker(field);
+    }
+    try {
+      MethodHandle handle = ignoreTargetIfStatic(lookup.unreflectGetter(field), field);
+      return new MethodHandleInvoker.Getter(handle, field, field.getType());
+    } catch (IllegalAccessException e) {
+      return super.createGetFieldInvoker(field);
+    }
+  }
+
+  @Override
+  public Invoker createSetFieldInvoker(Field field) {
+    if (!makeAccessible(field)) {
+      return super.createSetFieldInvoker(field);
+    }
+    try {
+      MethodHandle handle = ignoreTargetIfStatic(lookup.unreflectSetter(field), field);
+      return new MethodHandleInvoker.Setter(handle, field, field.getType());
+    } catch (IllegalAccessException e) {
+      return super.createSetFieldInvoker(field);
+    }
+  }
+
+  private static boolean makeAccessible(AccessibleObject member) {
+    if (!Reflector.canControlMemberAccessible()) {
+      return false;
+    }
+    try {
+      member.setAccessible(true);
+      return true;
+    } catch (RuntimeException e) {
+      // java 9+ 的模块不允许访问时会抛出InaccessibleObjectException
+      return false;
+    }
+  }
+
+  /**
+   * 静态成员的MethodHandle没有目标对象参数，这里补上一个被忽略的参数，和Method.invoke的行为一致
+   */
+  private static MethodHandle ignoreTargetIfStatic(MethodHandle handle, Member member) {
+    if (Modifier.isStatic(member.getModifiers())) {
+      return MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+    return handle;
+  }
+}
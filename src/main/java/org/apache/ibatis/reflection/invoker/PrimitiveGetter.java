@@ -0,0 +1,33 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * 可以不装箱读取基本类型属性的Invoker，只能调用与{@link Invoker#getType()}一致的方法，
+ * 类型不一致时抛出IllegalArgumentException
+ *
+ * @since 3.5.2
+ */
+public interface PrimitiveGetter {
+
+  int getInt(Object target) throws InvocationTargetException;
+
+  long getLong(Object target) throws InvocationTargetException;
+
+  double getDouble(Object target) throws InvocationTargetException;
+}
@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.defaults;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * 语句的参数绑定器，按参数类型和ParameterMapping集合（按引用比较）缓存参数绑定计划。
+ * 只有在多次执行之间保持不变的集合才会缓存计划：静态SQL的集合，以及命中动态SQL形态缓存的集合；
+ * 其它动态SQL每次执行都会生成新的集合，每次使用一次性的计划，不占用缓存。
+ *
+ * @since 3.5.2
+ */
+public final class ParameterBinder {
+
+  //每条语句缓存的绑定计划数量下限，开启动态SQL形态缓存时不少于形态缓存的数量
+  private static final int MIN_PLANS = 16;
+
+  private final Map<PlanKey, ParameterBindingPlan> plans = new ConcurrentHashMap<>();
+
+  ParameterBindingPlan getPlan(Configuration configuration, SqlSource sqlSource, List<ParameterMapping> parameterMappings, Object parameterObject) {
+    if (!isStable(sqlSource, parameterMappings)) {
+      return new ParameterBindingPlan(configuration, parameterMappings, parameterObject);
+    }
+    PlanKey key = new PlanKey(parameterObject == null ? null : parameterObject.getClass(), parameterMappings);
+    ParameterBindingPlan plan = plans.get(key);
+    if (plan == null) {
+      plan = new ParameterBindingPlan(configuration, parameterMappings, parameterObject);
+      //缓存满了以后不再缓存新的计划，而不是清空已有的计划
+      if (plans.size() < Math.max(MIN_PLANS, configuration.getDynamicSqlShapeCacheSize())) {
+        ParameterBindingPlan existing = plans.putIfAbsent(key, plan);
+        if (existing != null) {
+          plan = existing;
+        }
+      }
+    }
+    return plan;
+  }
+
+  //ParameterMapping集合是否在多次执行之间保持不变
+  private static boolean isStable(SqlSource sqlSource, List<ParameterMapping> parameterMappings) {
+    if (sqlSource instanceof StaticSqlSource || sqlSource instanceof RawSqlSource) {
+      return true;
+    }
+    return sqlSource instanceof DynamicSqlSource
+        && ((DynamicSqlSource) sqlSource).isCachedParameterMappings(parameterMappings);
+  }
+
+  private static final class PlanKey {
+    private final Class<?> parameterType;
+    private final List<ParameterMapping> parameterMappings;
+
+    PlanKey(Class<?> parameterType, List<ParameterMapping> parameterMappings) {
+      this.parameterType = parameterType;
+      this.parameterMappings = parameterMappings;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PlanKey)) {
+        return false;
+      }
+      PlanKey that = (PlanKey) o;
+      return parameterType == that.parameterType && parameterMappings == that.parameterMappings;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(parameterType) + System.identityHashCode(parameterMappings);
+    }
+  }
+
+}
@@ -0,0 +1,195 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.defaults;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveGetter;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.PrimitiveDoubleTypeHandler;
+import org.apache.ibatis.type.PrimitiveIntTypeHandler;
+import org.apache.ibatis.type.PrimitiveLongTypeHandler;
+import org.apache.ibatis.type.PrimitiveTypeHandlers;
+
+/**
+ * 参数绑定计划，针对一组ParameterMapping和一种参数类型，预先确定每个占位符的取值方式，
+ * 同一语句多次执行（例如批量插入时的每次addBatch）不再重复创建MetaObject和解析属性表达式。
+ *
+ * @since 3.5.2
+ */
+public final class ParameterBindingPlan {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  //不需要设置的OUT参数
+  private static final int SKIP = 0;
+  //参数本身有类型处理器，直接使用参数对象
+  private static final int PARAMETER = 1;
+  //通过getter方法取值
+  private static final int GETTER = 2;
+  //从Map参数中按key取值
+  private static final int MAP_KEY = 3;
+  //其它情况交给MetaObject处理
+  private static final int META_OBJECT = 4;
+  //通过getter方法不装箱取值，并由类型处理器不装箱设置参数
+  private static final int PRIMITIVE_GETTER = 5;
+
+  private final List<ParameterMapping> parameterMappings;
+  private final int[] kinds;
+  private final Invoker[] getters;
+
+  ParameterBindingPlan(Configuration configuration, List<ParameterMapping> parameterMappings, Object parameterObject) {
+    this.parameterMappings = parameterMappings;
+    Class<?> parameterType = parameterObject == null ? null : parameterObject.getClass();
+    int size = parameterMappings.size();
+    this.kinds = new int[size];
+    this.getters = new Invoker[size];
+    boolean simple = parameterType != null && configuration.getTypeHandlerRegistry().hasTypeHandler(parameterType);
+    //自定义ObjectWrapperFactory可能按对象实例决定包装方式，此时全部交给MetaObject
+    boolean plain = parameterObject != null
+        && configuration.getObjectWrapperFactory() instanceof DefaultObjectWrapperFactory
+        && !(parameterObject instanceof ObjectWrapper)
+        && !(parameterObject instanceof Collection);
+    Reflector reflector = plain && !simple && !(parameterObject instanceof Map)
+        ? configuration.getReflectorFactory().findForClass(parameterType) : null;
+    for (int i = 0; i < size; i++) {
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      String property = parameterMapping.getProperty();
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        kinds[i] = SKIP;
+      } else if (simple) {
+        kinds[i] = PARAMETER;
+      } else if (!plain || !isSimpleProperty(property)) {
+        kinds[i] = META_OBJECT;
+      } else if (reflector == null) {
+        kinds[i] = MAP_KEY;
+      } else if (reflector.hasGetter(property)) {
+        getters[i] = reflector.getGetInvoker(property);
+        kinds[i] = isPrimitiveGetter(getters[i], parameterMapping) ? PRIMITIVE_GETTER : GETTER;
+      } else {
+        kinds[i] = META_OBJECT;
+      }
+    }
+  }
+
+  boolean isSkipped(int index) {
+    return kinds[index] == SKIP;
+  }
+
+  boolean isPrimitive(int index) {
+    return kinds[index] == PRIMITIVE_GETTER;
+  }
+
+  /**
+   * 不装箱地设置第index个占位符的参数，只能用于{@link #isPrimitive(int)}为true的占位符，额外参数由调用方先行处理
+   */
+  void setPrimitiveParameter(int index, PreparedStatement ps, Object parameterObject) throws SQLException {
+    PrimitiveGetter getter = (PrimitiveGetter) getters[index];
+    Object typeHandler = parameterMappings.get(index).getTypeHandler();
+    try {
+      Class<?> type = getters[index].getType();
+      if (type == int.class) {
+        ((PrimitiveIntTypeHandler) typeHandler).setInt(ps, index + 1, getter.getInt(parameterObject));
+      } else if (type == long.class) {
+        ((PrimitiveLongTypeHandler) typeHandler).setLong(ps, index + 1, getter.getLong(parameterObject));
+      } else {
+        ((PrimitiveDoubleTypeHandler) typeHandler).setDouble(ps, index + 1, getter.getDouble(parameterObject));
+      }
+    } catch (InvocationTargetException e) {
+      Throwable t = ExceptionUtil.unwrapThrowable(e);
+      throw new ReflectionException("Could not get property '" + parameterMappings.get(index).getProperty() + "' from " + parameterObject.getClass() + ".  Cause: " + t.toString(), t);
+    }
+  }
+
+  /**
+   * 从参数对象中取出第index个占位符的值，额外参数由调用方先行处理
+   */
+  Object getValue(int index, Object parameterObject, MetaObjectHolder metaObjectHolder) {
+    if (parameterObject == null) {
+      return null;
+    }
+    switch (kinds[index]) {
+      case PARAMETER:
+        return parameterObject;
+      case GETTER:
+        return invokeGetter(getters[index], parameterObject, parameterMappings.get(index).getProperty());
+      case MAP_KEY:
+        return ((Map<?, ?>) parameterObject).get(parameterMappings.get(index).getProperty());
+      default:
+        return metaObjectHolder.get().getValue(parameterMappings.get(index).getProperty());
+    }
+  }
+
+  private static boolean isPrimitiveGetter(Invoker getter, ParameterMapping parameterMapping) {
+    return getter instanceof PrimitiveGetter
+        && getter.getType() == PrimitiveTypeHandlers.getPrimitiveType(parameterMapping.getTypeHandler());
+  }
+
+  private static boolean isSimpleProperty(String property) {
+    return property != null && property.indexOf('.') < 0 && property.indexOf('[') < 0;
+  }
+
+  //与BeanWrapper中通过getter取值时的异常处理保持一致
+  private static Object invokeGetter(Invoker getter, Object object, String property) {
+    try {
+      try {
+        return getter.invoke(object, NO_ARGUMENTS);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new ReflectionException("Could not get property '" + property + "' from " + object.getClass() + ".  Cause: " + t.toString(), t);
+    }
+  }
+
+  /**
+   * 一次参数设置过程中共享的MetaObject，只在需要时创建
+   */
+  static class MetaObjectHolder {
+    private final Configuration configuration;
+    private final Object parameterObject;
+    private MetaObject metaObject;
+
+    MetaObjectHolder(Configuration configuration, Object parameterObject) {
+      this.configuration = configuration;
+      this.parameterObject = parameterObject;
+    }
+
+    MetaObject get() {
+      if (metaObject == null) {
+        metaObject = configuration.newMetaObject(parameterObject);
+      }
+      return metaObject;
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.ReflectorFactory;
+
+/**
+ * An {@link ExpressionEngine} that compiles the expressions commonly found in dynamic SQL once,
+ * instead of interpreting an OGNL tree on every evaluation.
+ * <p>
+ * The compiled subset covers property paths, {@code null}, boolean, integer and string literals,
+ * {@code == != < <= > >=} and their {@code eq neq lt lte gt gte} forms, {@code and &&}, {@code or ||},
+ * {@code not !}, parentheses and the {@code size()}, {@code isEmpty()}, {@code length()} and {@code trim()} calls.
+ * Anything else, and any operand whose OGNL conversion rules are not reproduced (e.g. a string compared with a number),
+ * is evaluated with OGNL, so the results are the same as with {@link OgnlExpressionEngine}. An expression that falls
+ * back to OGNL once is evaluated with OGNL from then on. Exceptions thrown while evaluating a compiled expression,
+ * e.g. by a getter, are reported like OGNL does and the expression is not evaluated again.
+ * <p>
+ * The configuration sets its {@link ReflectorFactory} on the engine, see {@link #setReflectorFactory(ReflectorFactory)}.
+ *
+ * @since 3.5.2
+ */
+public class CompiledExpressionEngine implements ExpressionEngine {
+
+  private final Map<String, ExpressionCompiler.Node> expressionCache = new ConcurrentHashMap<>();
+  private volatile ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+
+  public ReflectorFactory getReflectorFactory() {
+    return reflectorFactory;
+  }
+
+  /**
+   * Sets the factory used to read properties, the compiled expressions are discarded.
+   */
+  public void setReflectorFactory(ReflectorFactory reflectorFactory) {
+    this.reflectorFactory = reflectorFactory;
+    expressionCache.clear();
+  }
+
+  @Override
+  public Object getValue(String expression, Object root) {
+    ExpressionCompiler.Node node = expressionCache.computeIfAbsent(expression, e -> new ExpressionCompiler(e, reflectorFactory).compile());
+    if (node != ExpressionCompiler.NOT_COMPILED) {
+      try {
+        return node.getValue(root);
+      } catch (RuntimeException e) {
+        if (e != ExpressionCompiler.UNSUPPORTED) {
+          throw new BuilderException("Error evaluating expression '" + expression + "'. Cause: " + e, e);
+        }
+        // unsupported operand, OGNL evaluates the expression from now on
+        expressionCache.put(expression, ExpressionCompiler.NOT_COMPILED);
+      }
+    }
+    return OgnlCache.getValue(expression, root);
+  }
+
+}
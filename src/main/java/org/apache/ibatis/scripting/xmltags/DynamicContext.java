@@ -17,7 +17,6 @@ package org.apache.ibatis.scripting.xmltags;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.StringJoiner;
 
 import ognl.OgnlContext;
 import ognl.OgnlRuntime;
@@ -41,7 +40,11 @@ public class DynamicContext {
 
   //参数集合
   private final ContextMap bindings;
-  private final StringJoiner sqlBuilder = new StringJoiner(" ");
+  //表达式求值引擎
+  private final ExpressionEngine expressionEngine;
+  //拼接的sql，片段之间以空格分隔；委托型上下文不会使用它
+  private final StringBuilder sqlBuilder;
+  private boolean sqlAppended;
   private int uniqueNumber = 0;
 
   /**
@@ -60,18 +63,43 @@ public class DynamicContext {
     //保存参数对象
     bindings.put(PARAMETER_OBJECT_KEY, parameterObject);
     bindings.put(DATABASE_ID_KEY, configuration.getDatabaseId());
+    expressionEngine = configuration.getExpressionEngine();
+    sqlBuilder = new StringBuilder();
+  }
+
+  /**
+   * 委托型上下文使用的构造器，直接共享父上下文的参数集合，不再重新创建参数集合和sql缓冲区
+   * @param parent 父上下文
+   * @since 3.5.2
+   */
+  DynamicContext(DynamicContext parent) {
+    bindings = parent.bindings;
+    expressionEngine = parent.expressionEngine;
+    sqlBuilder = null;
   }
 
   public Map<String, Object> getBindings() {
     return bindings;
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public ExpressionEngine getExpressionEngine() {
+    return expressionEngine;
+  }
+
   public void bind(String name, Object value) {
     bindings.put(name, value);
   }
 
   public void appendSql(String sql) {
-    sqlBuilder.add(sql);
+    //与StringJoiner(" ")的拼接结果保持一致，空片段同样会追加分隔符
+    if (sqlAppended) {
+      sqlBuilder.append(' ');
+    }
+    sqlBuilder.append(sql);
+    sqlAppended = true;
   }
 
   public String getSql() {
@@ -15,9 +15,16 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -27,6 +34,10 @@ public class DynamicSqlSource implements SqlSource {
 
   private final Configuration configuration;
   private final SqlNode rootSqlNode;
+  //按SQL形态（动态标签执行后的SQL和参数类型）缓存解析后的结果，见 Configuration#getDynamicSqlShapeCacheSize
+  private final Map<ShapeKey, SqlShape> shapeCache = new ConcurrentHashMap<>();
+  //缓存的SQL形态的ParameterMapping集合（按引用比较）
+  private final Set<ParameterMappingsKey> cachedParameterMappings = ConcurrentHashMap.newKeySet();
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
@@ -39,14 +50,131 @@ public class DynamicSqlSource implements SqlSource {
     DynamicContext context = new DynamicContext(configuration, parameterObject);
     //这一步走完，也就在context中生成了完整的SQL，也就是将所有的if，foreach标签都执行完了
     rootSqlNode.apply(context);
-    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
     Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-    //这里将所有的#{}占位符替换为?， 返回一个static SQLSource对象
-    SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
+    SqlSource sqlSource;
+    if (configuration.getDynamicSqlShapeCacheSize() > 0) {
+      sqlSource = getCachedSqlSource(context.getSql(), parameterType, context.getBindings());
+    } else {
+      //这里将所有的#{}占位符替换为?， 返回一个static SQLSource对象
+      sqlSource = new SqlSourceBuilder(configuration).parse(context.getSql(), parameterType, context.getBindings());
+    }
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     //将所有的参数设置到到boundSQL中的额外参数中
     context.getBindings().forEach(boundSql::setAdditionalParameter);
     return boundSql;
   }
 
+  /**
+   * 相同形态的SQL只解析一次#{}占位符。
+   * 占位符的javaType可能取自foreach、bind等额外参数的运行时类型，所以命中缓存时要先校验这些类型是否一致。
+   */
+  private SqlSource getCachedSqlSource(String sql, Class<?> parameterType, Map<String, Object> bindings) {
+    ShapeKey key = new ShapeKey(sql, parameterType);
+    MetaObject metaBindings = configuration.newMetaObject(bindings);
+    SqlShape shape = shapeCache.get(key);
+    if (shape != null && shape.matches(metaBindings)) {
+      return shape.sqlSource;
+    }
+    SqlSource sqlSource = new SqlSourceBuilder(configuration).parse(sql, parameterType, bindings);
+    List<ParameterMapping> parameterMappings = sqlSource.getBoundSql(null).getParameterMappings();
+    shape = new SqlShape(sqlSource, parameterMappings, metaBindings);
+    if (shapeCache.containsKey(key) || shapeCache.size() < configuration.getDynamicSqlShapeCacheSize()) {
+      cachedParameterMappings.add(new ParameterMappingsKey(parameterMappings));
+      SqlShape previous = shapeCache.put(key, shape);
+      if (previous != null) {
+        cachedParameterMappings.remove(new ParameterMappingsKey(previous.parameterMappings));
+      }
+    }
+    return sqlSource;
+  }
+
+  /**
+   * ParameterMapping集合是否来自缓存的SQL形态，这样的集合在多次执行之间保持不变，可以按引用缓存由它得出的结果。
+   * 未开启缓存或者未命中缓存时，每次执行都会生成新的集合。
+   *
+   * @since 3.5.2
+   */
+  public boolean isCachedParameterMappings(List<ParameterMapping> parameterMappings) {
+    return parameterMappings != null && cachedParameterMappings.contains(new ParameterMappingsKey(parameterMappings));
+  }
+
+  private static class ShapeKey {
+    private final String sql;
+    private final Class<?> parameterType;
+
+    ShapeKey(String sql, Class<?> parameterType) {
+      this.sql = sql;
+      this.parameterType = parameterType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ShapeKey)) {
+        return false;
+      }
+      ShapeKey that = (ShapeKey) o;
+      return parameterType.equals(that.parameterType) && sql.equals(that.sql);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * sql.hashCode() + parameterType.hashCode();
+    }
+  }
+
+  private static class ParameterMappingsKey {
+    private final List<ParameterMapping> parameterMappings;
+
+    ParameterMappingsKey(List<ParameterMapping> parameterMappings) {
+      this.parameterMappings = parameterMappings;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof ParameterMappingsKey && parameterMappings == ((ParameterMappingsKey) o).parameterMappings;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(parameterMappings);
+    }
+  }
+
+  private static class SqlShape {
+    private final SqlSource sqlSource;
+    private final List<ParameterMapping> parameterMappings;
+    private final String[] properties;
+    //取自额外参数的属性类型，不是取自额外参数时为null
+    private final Class<?>[] bindingTypes;
+
+    SqlShape(SqlSource sqlSource, List<ParameterMapping> parameterMappings, MetaObject metaBindings) {
+      this.sqlSource = sqlSource;
+      this.parameterMappings = parameterMappings;
+      int size = parameterMappings == null ? 0 : parameterMappings.size();
+      this.properties = new String[size];
+      this.bindingTypes = new Class<?>[size];
+      for (int i = 0; i < size; i++) {
+        properties[i] = parameterMappings.get(i).getProperty();
+        bindingTypes[i] = resolveBindingType(metaBindings, properties[i]);
+      }
+    }
+
+    boolean matches(MetaObject metaBindings) {
+      for (int i = 0; i < properties.length; i++) {
+        if (bindingTypes[i] != resolveBindingType(metaBindings, properties[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static Class<?> resolveBindingType(MetaObject metaBindings, String property) {
+      // same lookup as SqlSourceBuilder, issue #448 get type from additional params
+      return metaBindings.hasGetter(property) ? metaBindings.getGetterType(property) : null;
+    }
+  }
+
 }
@@ -0,0 +1,595 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+
+/**
+ * Compiles the subset of OGNL supported by {@link CompiledExpressionEngine} into a tree of {@link Node}s.
+ * <p>
+ * Operators follow the OGNL semantics: {@code and}/{@code or} return the last evaluated operand,
+ * {@code not} and the comparisons return a {@link Boolean}, and values are compared with the OGNL
+ * conversion rules for strings, booleans and the primitive wrapper numbers. Any other operand makes the
+ * node throw {@link #UNSUPPORTED} so that the expression is evaluated with OGNL instead. Exceptions thrown by
+ * getters are not turned into {@link #UNSUPPORTED}, because the getter must not be called again by OGNL.
+ *
+ * @since 3.5.2
+ */
+final class ExpressionCompiler {
+
+  interface Node {
+    Object getValue(Object root);
+  }
+
+  static final RuntimeException UNSUPPORTED = new UnsupportedOperationException("Not supported by the compiled expression") {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  };
+
+  static final Node NOT_COMPILED = root -> {
+    throw UNSUPPORTED;
+  };
+
+  private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+      "and", "or", "not", "eq", "neq", "lt", "lte", "gt", "gte", "in", "instanceof",
+      "shl", "shr", "ushr", "band", "bor", "xor", "new", "true", "false", "null"));
+  private static final Set<String> MAP_PSEUDO_PROPERTIES = new HashSet<>(Arrays.asList(
+      "size", "keys", "keySet", "values", "isEmpty"));
+  private static final DynamicContext.ContextAccessor CONTEXT_ACCESSOR = new DynamicContext.ContextAccessor();
+
+  private final String expression;
+  private final ReflectorFactory reflectorFactory;
+  private final List<String> tokens = new ArrayList<>();
+  private int position;
+
+  ExpressionCompiler(String expression, ReflectorFactory reflectorFactory) {
+    this.expression = expression;
+    this.reflectorFactory = reflectorFactory;
+  }
+
+  /**
+   * @return the compiled expression, or {@link #NOT_COMPILED} if it uses anything outside the supported subset
+   */
+  Node compile() {
+    try {
+      tokenize();
+      Node node = parseOr();
+      return position == tokens.size() ? node : NOT_COMPILED;
+    } catch (UnsupportedOperationException e) {
+      return NOT_COMPILED;
+    }
+  }
+
+  //
+  // TOKENIZER
+  //
+
+  private void tokenize() {
+    int i = 0;
+    int length = expression.length();
+    while (i < length) {
+      char c = expression.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (Character.isJavaIdentifierStart(c)) {
+        int start = i;
+        while (i < length && Character.isJavaIdentifierPart(expression.charAt(i))) {
+          i++;
+        }
+        tokens.add(expression.substring(start, i));
+      } else if (c >= '0' && c <= '9') {
+        int start = i;
+        while (i < length && Character.isLetterOrDigit(expression.charAt(i)) || i < length && expression.charAt(i) == '.') {
+          i++;
+        }
+        tokens.add(expression.substring(start, i));
+      } else if (c == '\'' || c == '"') {
+        int end = expression.indexOf(c, i + 1);
+        if (end < 0) {
+          throw UNSUPPORTED;
+        }
+        tokens.add(expression.substring(i, end + 1));
+        i = end + 1;
+      } else if (expression.startsWith("==", i) || expression.startsWith("!=", i) || expression.startsWith("<=", i)
+          || expression.startsWith(">=", i) || expression.startsWith("&&", i) || expression.startsWith("||", i)) {
+        tokens.add(expression.substring(i, i + 2));
+        i += 2;
+      } else if ("<>!().".indexOf(c) >= 0) {
+        tokens.add(String.valueOf(c));
+        i++;
+      } else {
+        throw UNSUPPORTED;
+      }
+    }
+  }
+
+  private String peek() {
+    return position < tokens.size() ? tokens.get(position) : null;
+  }
+
+  private boolean accept(String token) {
+    if (token.equals(peek())) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  private String next() {
+    String token = peek();
+    if (token == null) {
+      throw UNSUPPORTED;
+    }
+    position++;
+    return token;
+  }
+
+  //
+  // PARSER
+  //
+
+  private Node parseOr() {
+    List<Node> operands = new ArrayList<>();
+    operands.add(parseAnd());
+    while (accept("or") || accept("||")) {
+      operands.add(parseAnd());
+    }
+    return operands.size() == 1 ? operands.get(0) : new OrNode(operands.toArray(new Node[0]));
+  }
+
+  private Node parseAnd() {
+    List<Node> operands = new ArrayList<>();
+    operands.add(parseEquality());
+    while (accept("and") || accept("&&")) {
+      operands.add(parseEquality());
+    }
+    return operands.size() == 1 ? operands.get(0) : new AndNode(operands.toArray(new Node[0]));
+  }
+
+  private Node parseEquality() {
+    Node node = parseRelational();
+    while (true) {
+      if (accept("==") || accept("eq")) {
+        node = new EqualNode(node, parseRelational(), false);
+      } else if (accept("!=") || accept("neq")) {
+        node = new EqualNode(node, parseRelational(), true);
+      } else {
+        return node;
+      }
+    }
+  }
+
+  private Node parseRelational() {
+    Node node = parseUnary();
+    while (true) {
+      if (accept("<") || accept("lt")) {
+        node = new CompareNode(node, parseUnary(), CompareNode.LESS);
+      } else if (accept("<=") || accept("lte")) {
+        node = new CompareNode(node, parseUnary(), CompareNode.LESS_OR_EQUAL);
+      } else if (accept(">") || accept("gt")) {
+        node = new CompareNode(node, parseUnary(), CompareNode.GREATER);
+      } else if (accept(">=") || accept("gte")) {
+        node = new CompareNode(node, parseUnary(), CompareNode.GREATER_OR_EQUAL);
+      } else {
+        return node;
+      }
+    }
+  }
+
+  private Node parseUnary() {
+    if (accept("!") || accept("not")) {
+      return new NotNode(parseUnary());
+    }
+    return parsePrimary();
+  }
+
+  private Node parsePrimary() {
+    String token = next();
+    if ("(".equals(token)) {
+      Node node = parseOr();
+      if (!accept(")")) {
+        throw UNSUPPORTED;
+      }
+      return node;
+    }
+    if ("null".equals(token)) {
+      return new ConstantNode(null);
+    }
+    if ("true".equals(token)) {
+      return new ConstantNode(Boolean.TRUE);
+    }
+    if ("false".equals(token)) {
+      return new ConstantNode(Boolean.FALSE);
+    }
+    char first = token.charAt(0);
+    if (first == '\'' || first == '"') {
+      return new ConstantNode(parseString(token));
+    }
+    if (first >= '0' && first <= '9') {
+      return new ConstantNode(parseInteger(token));
+    }
+    Node node = new RootPropertyNode(parseIdentifier(token), reflectorFactory);
+    while (accept(".")) {
+      String name = parseIdentifier(next());
+      if (accept("(")) {
+        if (!accept(")")) {
+          throw UNSUPPORTED;
+        }
+        node = new MethodNode(node, name);
+      } else {
+        node = new PropertyNode(node, name, reflectorFactory);
+      }
+    }
+    return node;
+  }
+
+  private static String parseIdentifier(String token) {
+    if (!Character.isJavaIdentifierStart(token.charAt(0)) || KEYWORDS.contains(token)) {
+      throw UNSUPPORTED;
+    }
+    return token;
+  }
+
+  private static String parseString(String token) {
+    String value = token.substring(1, token.length() - 1);
+    // escapes are left to OGNL, as is a single quoted single character which is a Character literal
+    if (value.indexOf('\\') >= 0 || token.charAt(0) == '\'' && value.length() == 1) {
+      throw UNSUPPORTED;
+    }
+    return value;
+  }
+
+  private static Integer parseInteger(String token) {
+    // octal, hexadecimal, decimal and suffixed literals are left to OGNL
+    if (token.length() > 1 && token.charAt(0) == '0') {
+      throw UNSUPPORTED;
+    }
+    for (int i = 0; i < token.length(); i++) {
+      if (token.charAt(i) < '0' || token.charAt(i) > '9') {
+        throw UNSUPPORTED;
+      }
+    }
+    try {
+      return Integer.valueOf(token);
+    } catch (NumberFormatException e) {
+      throw UNSUPPORTED;
+    }
+  }
+
+  //
+  // OGNL SEMANTICS
+  //
+
+  static boolean booleanValue(Object value) {
+    if (value == null) {
+      return false;
+    }
+    Class<?> type = value.getClass();
+    if (type == Boolean.class) {
+      return (Boolean) value;
+    }
+    if (type == String.class) {
+      return Boolean.parseBoolean((String) value);
+    }
+    if (type == Character.class) {
+      return (Character) value != 0;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).doubleValue() != 0;
+    }
+    return true;
+  }
+
+  static boolean equal(Object left, Object right) {
+    if (left == null) {
+      return right == null;
+    }
+    if (left == right) {
+      return true;
+    }
+    if (left.getClass().isArray()) {
+      throw UNSUPPORTED;
+    }
+    if (right == null) {
+      return false;
+    }
+    if (left.equals(right)) {
+      return true;
+    }
+    return compare(left, right) == 0;
+  }
+
+  static int compare(Object left, Object right) {
+    if (left == right) {
+      return 0;
+    }
+    if (left instanceof String && right instanceof String) {
+      return ((String) left).compareTo((String) right);
+    }
+    if (left instanceof Boolean && right instanceof Boolean) {
+      return Boolean.compare((Boolean) left, (Boolean) right);
+    }
+    if (isIntegral(left) && isIntegral(right)) {
+      return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+    }
+    if ((isIntegral(left) || isFloating(left)) && (isIntegral(right) || isFloating(right))) {
+      double leftValue = ((Number) left).doubleValue();
+      double rightValue = ((Number) right).doubleValue();
+      return leftValue == rightValue ? 0 : leftValue < rightValue ? -1 : 1;
+    }
+    throw UNSUPPORTED;
+  }
+
+  private static boolean isIntegral(Object value) {
+    Class<?> type = value == null ? null : value.getClass();
+    return type == Integer.class || type == Long.class || type == Short.class || type == Byte.class;
+  }
+
+  private static boolean isFloating(Object value) {
+    Class<?> type = value == null ? null : value.getClass();
+    return type == Double.class || type == Float.class;
+  }
+
+  //
+  // NODES
+  //
+
+  private static class ConstantNode implements Node {
+    private final Object value;
+
+    ConstantNode(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    public Object getValue(Object root) {
+      return value;
+    }
+  }
+
+  private static Object getProperty(Object target, String name, ReflectorFactory reflectorFactory) {
+    if (target == null || target.getClass().isArray() || target instanceof Collection
+        || target instanceof Iterator || target instanceof Enumeration || target instanceof Class) {
+      throw UNSUPPORTED;
+    }
+    if (target instanceof DynamicContext.ContextMap) {
+      return CONTEXT_ACCESSOR.getProperty(null, target, name);
+    }
+    if (target instanceof Map) {
+      if (MAP_PSEUDO_PROPERTIES.contains(name)) {
+        throw UNSUPPORTED;
+      }
+      return ((Map<?, ?>) target).get(name);
+    }
+    Reflector reflector = reflectorFactory.findForClass(target.getClass());
+    if (!reflector.hasGetter(name)) {
+      throw UNSUPPORTED;
+    }
+    try {
+      return reflector.getGetInvoker(name).invoke(target, null);
+    } catch (InvocationTargetException e) {
+      Throwable t = ExceptionUtil.unwrapThrowable(e);
+      throw new ReflectionException("Could not get property '" + name + "' from " + target.getClass() + ".  Cause: " + t.toString(), t);
+    } catch (ReflectiveOperationException e) {
+      throw UNSUPPORTED;
+    }
+  }
+
+  private static class RootPropertyNode implements Node {
+    private final String name;
+    private final ReflectorFactory reflectorFactory;
+
+    RootPropertyNode(String name, ReflectorFactory reflectorFactory) {
+      this.name = name;
+      this.reflectorFactory = reflectorFactory;
+    }
+
+    @Override
+    public Object getValue(Object root) {
+      return getProperty(root, name, reflectorFactory);
+    }
+  }
+
+  private static class PropertyNode implements Node {
+    private final Node target;
+    private final String name;
+    private final ReflectorFactory reflectorFactory;
+
+    PropertyNode(Node target, String name, ReflectorFactory reflectorFactory) {
+      this.target = target;
+      this.name = name;
+      this.reflectorFactory = reflectorFactory;
+    }
+
+    @Override
+    public Object getValue(Object root) {
+      return getProperty(target.getValue(root), name, reflectorFactory);
+    }
+  }
+
+  private static class MethodNode implements Node {
+    private final Node target;
+    private final String name;
+
+    MethodNode(Node target, String name) {
+      this.target = target;
+      this.name = name;
+    }
+
+    @Override
+    public Object getValue(Object root) {
+      Object value = target.getValue(root);
+      switch (name) {
+        case "size":
+          if (value instanceof Collection) {
+            return ((Collection<?>) value).size();
+          } else if (value instanceof Map) {
+            return ((Map<?, ?>) value).size();
+          }
+          break;
+        case "isEmpty":
+          if (value instanceof Collection) {
+            return ((Collection<?>) value).isEmpty();
+          } else if (value instanceof Map) {
+            return ((Map<?, ?>) value).isEmpty();
+          } else if (value instanceof String) {
+            return ((String) value).isEmpty();
+          }
+          break;
+        case "length":
+          if (value instanceof String) {
+            return ((String) value).length();
+          }
+          break;
+        case "trim":
+          if (value instanceof String) {
+            return ((String) value).trim();
+          }
+          break;
+        default:
+          break;
+      }
+      throw UNSUPPORTED;
+    }
+  }
+
+  private static class NotNode implements Node {
+    private final Node operand;
+
+    NotNode(Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    public Object getValue(Object root) {
+      return booleanValue(operand.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+    }
+  }
+
+  private static class AndNode implements Node {
+    private final Node[] operands;
+
+    AndNode(Node[] operands) {
+      this.operands = operands;
+    }
+
+    @Override
+    public Object getValue(Object root) {
+      Object result = null;
+      for (int i = 0; i < operands.length; i++) {
+        result = operands[i].getValue(root);
+        if (i < operands.length - 1 && !booleanValue(result)) {
+          break;
+        }
+      }
+      return result;
+    }
+  }
+
+  private static class OrNode implements Node {
+    private final Node[] operands;
+
+    OrNode(Node[] operands) {
+      this.operands = operands;
+    }
+
+    @Override
+    public Object getValue(Object root) {
+      Object result = null;
+      for (int i = 0; i < operands.length; i++) {
+        result = operands[i].getValue(root);
+        if (i < operands.length - 1 && booleanValue(result)) {
+          break;
+        }
+      }
+      return result;
+    }
+  }
+
+  private static class EqualNode implements Node {
+    private final Node left;
+    private final Node right;
+    private final boolean negate;
+
+    EqualNode(Node left, Node right, boolean negate) {
+      this.left = left;
+      this.right = right;
+      this.negate = negate;
+    }
+
+    @Override
+    public Object getValue(Object root) {
+      return equal(left.getValue(root), right.getValue(root)) != negate ? Boolean.TRUE : Boolean.FALSE;
+    }
+  }
+
+  private static class CompareNode implements Node {
+    static final int LESS = 0;
+    static final int LESS_OR_EQUAL = 1;
+    static final int GREATER = 2;
+    static final int GREATER_OR_EQUAL = 3;
+
+    private final Node left;
+    private final Node right;
+    private final int operator;
+
+    CompareNode(Node left, Node right, int operator) {
+      this.left = left;
+      this.right = right;
+      this.operator = operator;
+    }
+
+    @Override
+    public Object getValue(Object root) {
+      int result = compare(left.getValue(root), right.getValue(root));
+      boolean matched;
+      switch (operator) {
+        case LESS:
+          matched = result < 0;
+          break;
+        case LESS_OR_EQUAL:
+          matched = result <= 0;
+          break;
+        case GREATER:
+          matched = result > 0;
+          break;
+        default:
+          matched = result >= 0;
+          break;
+      }
+      return matched ? Boolean.TRUE : Boolean.FALSE;
+    }
+  }
+
+}
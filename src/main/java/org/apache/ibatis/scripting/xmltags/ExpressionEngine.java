@@ -0,0 +1,40 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+/**
+ * The expression language used by the dynamic SQL tags.
+ * It evaluates the expressions of {@code <if test>}, {@code <when test>}, {@code <bind value>},
+ * {@code <foreach collection>} and {@code ${}} against the bindings of a {@link DynamicContext}.
+ * <p>
+ * Implementations must be thread safe and are expected to cache whatever they derive from an expression string.
+ *
+ * @since 3.5.2
+ * @see org.apache.ibatis.session.Configuration#setExpressionEngine(ExpressionEngine)
+ */
+public interface ExpressionEngine {
+
+  /**
+   * Evaluates the expression.
+   *
+   * @param expression the expression
+   * @param root the root object, usually the bindings of a {@link DynamicContext}
+   * @return the value of the expression
+   * @throws org.apache.ibatis.builder.BuilderException if the expression cannot be evaluated
+   */
+  Object getValue(String expression, Object root);
+
+}
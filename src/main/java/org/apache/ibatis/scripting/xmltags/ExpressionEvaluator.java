@@ -29,10 +29,19 @@ import org.apache.ibatis.builder.BuilderException;
  */
 public class ExpressionEvaluator {
 
+  private static final ExpressionEngine DEFAULT_ENGINE = new OgnlExpressionEngine();
+
   //判断表达式对应的值是否是true
   public boolean evaluateBoolean(String expression, Object parameterObject) {
+    return evaluateBoolean(expression, parameterObject, DEFAULT_ENGINE);
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public boolean evaluateBoolean(String expression, Object parameterObject, ExpressionEngine expressionEngine) {
     //获取表达式的值
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    Object value = expressionEngine.getValue(expression, parameterObject);
     if (value instanceof Boolean) {
       return (Boolean) value;
     }
@@ -45,7 +54,14 @@ public class ExpressionEvaluator {
   }
 
   public Iterable<?> evaluateIterable(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    return evaluateIterable(expression, parameterObject, DEFAULT_ENGINE);
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public Iterable<?> evaluateIterable(String expression, Object parameterObject, ExpressionEngine expressionEngine) {
+    Object value = expressionEngine.getValue(expression, parameterObject);
     if (value == null) {
       throw new BuilderException("The expression '" + expression + "' evaluated to a null value.");
     }
@@ -15,10 +15,15 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.ArrayTypeHandler;
 
 /**
  * @author Clinton Begin
@@ -26,6 +31,44 @@ import org.apache.ibatis.session.Configuration;
 public class ForEachSqlNode implements SqlNode {
   public static final String ITEM_PREFIX = "__frch_";
 
+  /**
+   * How the elements of the collection are bound to the statement.
+   *
+   * @since 3.5.2
+   */
+  public enum Strategy {
+    /**
+     * Applies the contents once per element, every element is a parameter of its own.
+     */
+    ITERATE,
+    /**
+     * Binds the whole collection as a single JDBC array parameter (e.g. {@code id = ANY(...)}), the contents are not used.
+     * The SQL is the same whatever the size of the collection.
+     */
+    ARRAY
+  }
+
+  /**
+   * Pads the elements of the {@link Strategy#ITERATE} strategy up to the next power of two, so that a statement
+   * has only about log2(N) different SQL strings instead of one per collection size.
+   *
+   * @since 3.5.2
+   */
+  public enum Padding {
+    /**
+     * No padding.
+     */
+    NONE,
+    /**
+     * Repeats the last element, which keeps the result of an {@code IN} or {@code NOT IN} list unchanged.
+     */
+    LAST,
+    /**
+     * Binds {@code null}, which keeps the result of an {@code IN} list unchanged.
+     */
+    NULL
+  }
+
   //各项表达式
   private final ExpressionEvaluator evaluator;
   private final String collectionExpression;
@@ -38,8 +81,23 @@ public class ForEachSqlNode implements SqlNode {
   //每个索引值名称-开发者写SQL是要用索引的时候用的
   private final String index;
   private final Configuration configuration;
+  private final Strategy strategy;
+  private final Padding padding;
+  //占位符中引用item和index的匹配规则，只编译一次
+  private final Pattern itemPattern;
+  private final Pattern indexPattern;
+  //子节点都是静态文本时的文本内容，这时每个元素不用再创建上下文；否则为null
+  private final String[] staticTexts;
 
   public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator) {
+    this(configuration, contents, collectionExpression, index, item, open, close, separator, Strategy.ITERATE, Padding.NONE);
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator,
+                        Strategy strategy, Padding padding) {
     this.evaluator = new ExpressionEvaluator();
     this.collectionExpression = collectionExpression;
     this.contents = contents;
@@ -49,6 +107,11 @@ public class ForEachSqlNode implements SqlNode {
     this.index = index;
     this.item = item;
     this.configuration = configuration;
+    this.strategy = strategy == null ? Strategy.ITERATE : strategy;
+    this.padding = padding == null ? Padding.NONE : padding;
+    this.itemPattern = Pattern.compile("^\\s*" + item + "(?![^.,:\\s])");
+    this.indexPattern = index == null ? null : Pattern.compile("^\\s*" + index + "(?![^.,:\\s])");
+    this.staticTexts = collectStaticTexts(contents);
   }
 
   @Override
@@ -56,42 +119,31 @@ public class ForEachSqlNode implements SqlNode {
     //获取各项参数值
     Map<String, Object> bindings = context.getBindings();
     //获取数组参数的迭代器
-    final Iterable<?> iterable = evaluator.evaluateIterable(collectionExpression, bindings);
+    final Iterable<?> iterable = evaluator.evaluateIterable(collectionExpression, bindings, context.getExpressionEngine());
     if (!iterable.iterator().hasNext()) {
       return true;
     }
+    if (strategy == Strategy.ARRAY) {
+      applyArray(context, iterable);
+      return true;
+    }
     boolean first = true;
     //应用open的值
     applyOpen(context);
     int i = 0;
+    Object last = null;
     for (Object o : iterable) {
-      DynamicContext oldContext = context;
-      //首位不用分隔符
-      if (first || separator == null) {
-        context = new PrefixedContext(context, "");
-      } else {
-        context = new PrefixedContext(context, separator);
-      }
-      int uniqueNumber = context.getUniqueNumber();
-      // Issue #709
-      if (o instanceof Map.Entry) {
-        @SuppressWarnings("unchecked")
-        Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
-        //应用SQL下标
-        applyIndex(context, mapEntry.getKey(), uniqueNumber);
-        //应用SQL参数
-        applyItem(context, mapEntry.getValue(), uniqueNumber);
-      } else {
-        applyIndex(context, i, uniqueNumber);
-        applyItem(context, o, uniqueNumber);
-      }
-      contents.apply(new FilteredDynamicContext(configuration, context, index, item, uniqueNumber));
-      if (first) {
-        first = !((PrefixedContext) context).isPrefixApplied();
-      }
-      context = oldContext;
+      first = applyElement(context, o, i, first);
+      last = o;
       i++;
     }
+    //补齐到2的幂次个元素
+    if (padding != Padding.NONE) {
+      Object pad = padding == Padding.LAST ? last : null;
+      for (int size = bucketSize(i); i < size; i++) {
+        first = applyElement(context, pad, i, first);
+      }
+    }
     //应用close值
     applyClose(context);
     //移除参数和下标
@@ -100,6 +152,76 @@ public class ForEachSqlNode implements SqlNode {
     return true;
   }
 
+  /**
+   * 应用一个元素
+   *
+   * @return 下一个元素是否仍然是首位
+   */
+  private boolean applyElement(DynamicContext context, Object o, int i, boolean first) {
+    //首位不用分隔符
+    String prefix = first || separator == null ? "" : separator;
+    if (staticTexts == null) {
+      context = new PrefixedContext(context, prefix);
+    }
+    int uniqueNumber = context.getUniqueNumber();
+    // Issue #709
+    if (o instanceof Map.Entry) {
+      @SuppressWarnings("unchecked")
+      Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
+      //应用SQL下标
+      applyIndex(context, mapEntry.getKey(), uniqueNumber);
+      //应用SQL参数
+      applyItem(context, mapEntry.getValue(), uniqueNumber);
+    } else {
+      applyIndex(context, i, uniqueNumber);
+      applyItem(context, o, uniqueNumber);
+    }
+    boolean prefixApplied;
+    if (staticTexts == null) {
+      contents.apply(new FilteredDynamicContext(context, uniqueNumber));
+      prefixApplied = ((PrefixedContext) context).isPrefixApplied();
+    } else {
+      prefixApplied = applyStaticTexts(context, prefix, uniqueNumber);
+    }
+    return first && !prefixApplied;
+  }
+
+  private static int bucketSize(int size) {
+    int bucket = Integer.highestOneBit(size);
+    return bucket == size ? size : bucket << 1;
+  }
+
+  //与PrefixedContext和FilteredDynamicContext的处理结果相同
+  private boolean applyStaticTexts(DynamicContext context, String prefix, int uniqueNumber) {
+    boolean prefixApplied = false;
+    for (String text : staticTexts) {
+      if (!prefixApplied && text.trim().length() > 0) {
+        context.appendSql(prefix);
+        prefixApplied = true;
+      }
+      context.appendSql(itemizePlaceholders(text, uniqueNumber));
+    }
+    return prefixApplied;
+  }
+
+  private void applyArray(DynamicContext context, Iterable<?> iterable) {
+    List<Object> values = new ArrayList<>();
+    Class<?> componentType = null;
+    for (Object o : iterable) {
+      Object value = o instanceof Map.Entry ? ((Map.Entry<?, ?>) o).getValue() : o;
+      if (value != null) {
+        componentType = componentType == null || componentType == value.getClass() ? value.getClass() : Object.class;
+      }
+      values.add(value);
+    }
+    Object[] array = (Object[]) Array.newInstance(componentType == null ? Object.class : componentType, values.size());
+    String name = itemizeItem(item == null ? "array" : item, context.getUniqueNumber());
+    context.bind(name, values.toArray(array));
+    applyOpen(context);
+    context.appendSql("#{" + name + ",typeHandler=" + ArrayTypeHandler.class.getName() + "}");
+    applyClose(context);
+  }
+
   private void applyIndex(DynamicContext context, Object o, int i) {
     if (index != null) {
       context.bind(index, o);
@@ -130,21 +252,45 @@ public class ForEachSqlNode implements SqlNode {
     return ITEM_PREFIX + item + "_" + i;
   }
 
-  private static class FilteredDynamicContext extends DynamicContext {
+  //这里处理foreach中的每个占位符的值，替换为含有item 的占位符
+  private String itemizePlaceholders(String sql, int uniqueNumber) {
+    GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
+      String newContent = itemPattern.matcher(content).replaceFirst(itemizeItem(item, uniqueNumber));
+      if (indexPattern != null && newContent.equals(content)) {
+        newContent = indexPattern.matcher(content).replaceFirst(itemizeItem(index, uniqueNumber));
+      }
+      return "#{" + newContent + "}";
+    });
+    return parser.parse(sql);
+  }
+
+  private static String[] collectStaticTexts(SqlNode contents) {
+    if (contents instanceof StaticTextSqlNode) {
+      return new String[] {((StaticTextSqlNode) contents).getText()};
+    }
+    if (contents instanceof MixedSqlNode) {
+      List<SqlNode> children = ((MixedSqlNode) contents).getContents();
+      String[] texts = new String[children.size()];
+      for (int i = 0; i < texts.length; i++) {
+        if (!(children.get(i) instanceof StaticTextSqlNode)) {
+          return null;
+        }
+        texts[i] = ((StaticTextSqlNode) children.get(i)).getText();
+      }
+      return texts;
+    }
+    return null;
+  }
+
+  private class FilteredDynamicContext extends DynamicContext {
     private final DynamicContext delegate;
     //唯一索引
     private final int index;
-    //下标对应的名字
-    private final String itemIndex;
-    //遍历的每项的名字
-    private final String item;
 
-    public FilteredDynamicContext(Configuration configuration,DynamicContext delegate, String itemIndex, String item, int i) {
-      super(configuration, null);
+    public FilteredDynamicContext(DynamicContext delegate, int i) {
+      super(delegate);
       this.delegate = delegate;
       this.index = i;
-      this.itemIndex = itemIndex;
-      this.item = item;
     }
 
     @Override
@@ -164,16 +310,7 @@ public class ForEachSqlNode implements SqlNode {
 
     @Override
     public void appendSql(String sql) {
-      //这里处理foreach中的每个占位符的值，替换为含有item 的占位符
-      GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
-        String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
-        if (itemIndex != null && newContent.equals(content)) {
-          newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
-        }
-        return "#{" + newContent + "}";
-      });
-
-      delegate.appendSql(parser.parse(sql));
+      delegate.appendSql(itemizePlaceholders(sql, index));
     }
 
     @Override
@@ -191,7 +328,7 @@ public class ForEachSqlNode implements SqlNode {
     private boolean prefixApplied;
 
     public PrefixedContext(DynamicContext delegate, String prefix) {
-      super(configuration, null);
+      super(delegate);
       this.delegate = delegate;
       this.prefix = prefix;
       this.prefixApplied = false;
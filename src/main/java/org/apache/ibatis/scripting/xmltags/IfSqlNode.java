@@ -34,7 +34,7 @@ public class IfSqlNode implements SqlNode {
   @Override
   public boolean apply(DynamicContext context) {
     //表达式通过的话，把参数传进去执行子表达式
-    if (evaluator.evaluateBoolean(test, context.getBindings())) {
+    if (evaluator.evaluateBoolean(test, context.getBindings(), context.getExpressionEngine())) {
       contents.apply(context);
       return true;
     }
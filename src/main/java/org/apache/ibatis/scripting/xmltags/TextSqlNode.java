@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
@@ -27,9 +30,15 @@ import org.apache.ibatis.type.SimpleTypeRegistry;
  * @author Clinton Begin
  */
 public class TextSqlNode implements SqlNode {
+  //拆分计划中用来标记${}位置的字符
+  private static final char SLOT_MARKER = '\u0000';
+
   //文本值
   private final String text;
   private final Pattern injectionFilter;
+  //预先拆分好的文本片段，literals比expressions多一个，为null时表示无法预拆分，每次调用时解析
+  private final String[] literals;
+  private final String[] expressions;
 
   public TextSqlNode(String text) {
     this(text, null);
@@ -38,10 +47,23 @@ public class TextSqlNode implements SqlNode {
   public TextSqlNode(String text, Pattern injectionFilter) {
     this.text = text;
     this.injectionFilter = injectionFilter;
+    if (text == null || text.indexOf(SLOT_MARKER) >= 0) {
+      this.literals = null;
+      this.expressions = null;
+    } else {
+      //用同一个解析器拆分一次，保证转义字符等处理与运行时解析完全一致
+      SlotRecorder recorder = new SlotRecorder();
+      String marked = createParser(recorder).parse(text);
+      this.expressions = recorder.expressions.toArray(new String[0]);
+      this.literals = split(marked, expressions.length);
+    }
   }
 
   //判断是否是动态节点
   public boolean isDynamic() {
+    if (expressions != null) {
+      return expressions.length > 0;
+    }
     //动态检查器
     DynamicCheckerTokenParser checker = new DynamicCheckerTokenParser();
     //检查是否为动态文本，通过createParser可知，只要文本中包含${...}的都认为是动态文本
@@ -52,12 +74,39 @@ public class TextSqlNode implements SqlNode {
 
   @Override
   public boolean apply(DynamicContext context) {
-    GenericTokenParser parser = createParser(new BindingTokenParser(context, injectionFilter));
-    //直接拼接到SQL上
-    context.appendSql(parser.parse(text));
+    if (expressions == null) {
+      GenericTokenParser parser = createParser(new BindingTokenParser(context, injectionFilter));
+      //直接拼接到SQL上
+      context.appendSql(parser.parse(text));
+      return true;
+    }
+    if (expressions.length == 0) {
+      context.appendSql(literals[0]);
+      return true;
+    }
+    BindingTokenParser binder = new BindingTokenParser(context, injectionFilter);
+    StringBuilder sql = new StringBuilder(text.length() + 16 * expressions.length);
+    sql.append(literals[0]);
+    for (int i = 0; i < expressions.length; i++) {
+      sql.append(binder.handleToken(expressions[i]));
+      sql.append(literals[i + 1]);
+    }
+    context.appendSql(sql.toString());
     return true;
   }
 
+  private static String[] split(String marked, int slots) {
+    String[] segments = new String[slots + 1];
+    int offset = 0;
+    for (int i = 0; i < slots; i++) {
+      int end = marked.indexOf(SLOT_MARKER, offset);
+      segments[i] = marked.substring(offset, end);
+      offset = end + 1;
+    }
+    segments[slots] = marked.substring(offset);
+    return segments;
+  }
+
   private GenericTokenParser createParser(TokenHandler handler) {
     return new GenericTokenParser("${", "}", handler);
   }
@@ -66,6 +115,8 @@ public class TextSqlNode implements SqlNode {
 
     private DynamicContext context;
     private Pattern injectionFilter;
+    //同一次拼接中的多个${}复用同一个Matcher
+    private Matcher injectionMatcher;
 
     public BindingTokenParser(DynamicContext context, Pattern injectionFilter) {
       this.context = context;
@@ -82,7 +133,7 @@ public class TextSqlNode implements SqlNode {
         context.getBindings().put("value", parameter);
       }
       //从参数中取值
-      Object value = OgnlCache.getValue(content, context.getBindings());
+      Object value = context.getExpressionEngine().getValue(content, context.getBindings());
       String srtValue = value == null ? "" : String.valueOf(value); // issue #274 return "" instead of "null"
       checkInjection(srtValue);
       //返回参数中的值
@@ -90,12 +141,36 @@ public class TextSqlNode implements SqlNode {
     }
 
     private void checkInjection(String value) {
-      if (injectionFilter != null && !injectionFilter.matcher(value).matches()) {
+      if (injectionFilter == null) {
+        return;
+      }
+      if (injectionMatcher == null) {
+        injectionMatcher = injectionFilter.matcher(value);
+      } else {
+        injectionMatcher.reset(value);
+      }
+      if (!injectionMatcher.matches()) {
         throw new ScriptingException("Invalid input. Please conform to regex" + injectionFilter.pattern());
       }
     }
   }
 
+  //记录每个${}中的表达式，并在原位置留下标记字符
+  private static class SlotRecorder implements TokenHandler {
+
+    private final List<String> expressions = new ArrayList<>();
+
+    public SlotRecorder() {
+      // Prevent Synthetic Access
+    }
+
+    @Override
+    public String handleToken(String content) {
+      expressions.add(content);
+      return String.valueOf(SLOT_MARKER);
+    }
+  }
+
   //动态SQL检查器，只要文本存在${...]格式的参数，则认为是动态文本
   private static class DynamicCheckerTokenParser implements TokenHandler {
 
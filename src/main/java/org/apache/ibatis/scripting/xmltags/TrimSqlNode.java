@@ -82,7 +82,7 @@ public class TrimSqlNode implements SqlNode {
     private StringBuilder sqlBuffer;
 
     public FilteredDynamicContext(DynamicContext delegate) {
-      super(configuration, null);
+      super(delegate);
       this.delegate = delegate;
       this.prefixApplied = false;
       this.suffixApplied = false;
@@ -90,15 +90,28 @@ public class TrimSqlNode implements SqlNode {
     }
 
     public void applyAll() {
-      sqlBuffer = new StringBuilder(sqlBuffer.toString().trim());
-      String trimmedUppercaseSql = sqlBuffer.toString().toUpperCase(Locale.ENGLISH);
-      if (trimmedUppercaseSql.length() > 0) {
-        //应用前缀
-        applyPrefix(sqlBuffer, trimmedUppercaseSql);
-        //应用尾缀
-        applySuffix(sqlBuffer, trimmedUppercaseSql);
+      //直接在缓冲区上定位去除首尾空白后的区间，不再复制和转换大写
+      int begin = 0;
+      int end = sqlBuffer.length();
+      while (begin < end && sqlBuffer.charAt(begin) <= ' ') {
+        begin++;
+      }
+      while (begin < end && sqlBuffer.charAt(end - 1) <= ' ') {
+        end--;
       }
-      delegate.appendSql(sqlBuffer.toString());
+      if (begin == end) {
+        delegate.appendSql("");
+        return;
+      }
+      //前缀和尾缀都基于原始内容匹配，匹配完成后再统一修改
+      String prefixToRemove = prefixApplied ? null : findPrefixOverride(begin, end);
+      String suffixToRemove = suffixApplied ? null : findSuffixOverride(begin, end);
+      StringBuilder sql = new StringBuilder(end - begin + length(prefix) + length(suffix) + 2);
+      //应用前缀
+      applyPrefix(sql, begin, end, prefixToRemove);
+      //应用尾缀
+      applySuffix(sql, suffixToRemove);
+      delegate.appendSql(sql.toString());
     }
 
     @Override
@@ -127,50 +140,99 @@ public class TrimSqlNode implements SqlNode {
     }
 
     //应用前缀
-    private void applyPrefix(StringBuilder sql, String trimmedUppercaseSql) {
+    private void applyPrefix(StringBuilder sql, int begin, int end, String toRemove) {
       //只做一次处理
       if (!prefixApplied) {
         prefixApplied = true;
-        if (prefixesToOverride != null) {
-          for (String toRemove : prefixesToOverride) {
-            //如果是以响应的前缀开头，则删除，只删除第一个匹配的前缀
-            if (trimmedUppercaseSql.startsWith(toRemove)) {
-              sql.delete(0, toRemove.trim().length());
-              break;
-            }
-          }
-        }
         //插入前缀
         if (prefix != null) {
-          sql.insert(0, " ");
-          sql.insert(0, prefix);
+          sql.append(prefix).append(' ');
         }
+        //如果是以响应的前缀开头，则删除，只删除第一个匹配的前缀
+        sql.append(sqlBuffer, toRemove != null ? Math.min(begin + toRemove.trim().length(), end) : begin, end);
+      } else {
+        sql.append(sqlBuffer, begin, end);
       }
     }
 
     //应用尾缀
-    private void applySuffix(StringBuilder sql, String trimmedUppercaseSql) {
+    private void applySuffix(StringBuilder sql, String toRemove) {
       if (!suffixApplied) {
         suffixApplied = true;
-        if (suffixesToOverride != null) {
-          for (String toRemove : suffixesToOverride) {
-            //去除尾缀的内容， 只去除第一个匹配的尾缀
-            if (trimmedUppercaseSql.endsWith(toRemove) || trimmedUppercaseSql.endsWith(toRemove.trim())) {
-              int start = sql.length() - toRemove.trim().length();
-              int end = sql.length();
-              sql.delete(start, end);
-              break;
-            }
-          }
+        //去除尾缀的内容， 只去除第一个匹配的尾缀
+        if (toRemove != null) {
+          sql.delete(sql.length() - toRemove.trim().length(), sql.length());
         }
         //应用尾缀
         if (suffix != null) {
-          sql.append(" ");
-          sql.append(suffix);
+          sql.append(' ').append(suffix);
+        }
+      }
+    }
+
+    private String findPrefixOverride(int begin, int end) {
+      if (prefixesToOverride != null) {
+        for (String toRemove : prefixesToOverride) {
+          if (regionMatchesUppercase(begin, end, begin, toRemove, true)) {
+            return toRemove;
+          }
+        }
+      }
+      return null;
+    }
+
+    private String findSuffixOverride(int begin, int end) {
+      if (suffixesToOverride != null) {
+        for (String toRemove : suffixesToOverride) {
+          String trimmed = toRemove.trim();
+          if (regionMatchesUppercase(begin, end, end - toRemove.length(), toRemove, false)
+              || regionMatchesUppercase(begin, end, end - trimmed.length(), trimmed, false)) {
+            return toRemove;
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * 判断缓冲区[begin, end)中从offset开始的内容转换为大写后是否与expected一致，
+     * 非ASCII字符转换大写后长度可能变化，此时退回到整体转换大写后再比较
+     */
+    private boolean regionMatchesUppercase(int begin, int end, int offset, String expected, boolean leading) {
+      if (offset < begin || offset + expected.length() > end) {
+        return !isAscii(begin, end) && matchesUppercaseCopy(begin, end, leading, expected);
+      }
+      for (int i = 0; i < expected.length(); i++) {
+        char c = sqlBuffer.charAt(offset + i);
+        char e = expected.charAt(i);
+        if (c >= 0x80 || e >= 0x80) {
+          return matchesUppercaseCopy(begin, end, leading, expected);
+        }
+        if (c != e && (c < 'a' || c > 'z' || c - ('a' - 'A') != e)) {
+          return false;
         }
       }
+      return true;
     }
 
+    private boolean matchesUppercaseCopy(int begin, int end, boolean leading, String expected) {
+      String trimmedUppercaseSql = sqlBuffer.substring(begin, end).toUpperCase(Locale.ENGLISH);
+      return leading ? trimmedUppercaseSql.startsWith(expected) : trimmedUppercaseSql.endsWith(expected);
+    }
+
+    private boolean isAscii(int begin, int end) {
+      for (int i = begin; i < end; i++) {
+        if (sqlBuffer.charAt(i) >= 0x80) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+  }
+
+  private static int length(String value) {
+    return value == null ? 0 : value.length();
   }
 
 }
@@ -18,6 +18,7 @@ package org.apache.ibatis.scripting.xmltags;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.apache.ibatis.builder.BaseBuilder;
@@ -196,7 +197,11 @@ public class XMLScriptBuilder extends BaseBuilder {
       String open = nodeToHandle.getStringAttribute("open");
       String close = nodeToHandle.getStringAttribute("close");
       String separator = nodeToHandle.getStringAttribute("separator");
-      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator);
+      String strategy = nodeToHandle.getStringAttribute("strategy");
+      String padding = nodeToHandle.getStringAttribute("padding");
+      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator,
+          strategy == null ? ForEachSqlNode.Strategy.ITERATE : ForEachSqlNode.Strategy.valueOf(strategy.toUpperCase(Locale.ENGLISH)),
+          padding == null ? ForEachSqlNode.Padding.NONE : ForEachSqlNode.Padding.valueOf(padding.toUpperCase(Locale.ENGLISH)));
       targetContents.add(forEachSqlNode);
     }
   }
@@ -15,8 +15,11 @@
  */
 package org.apache.ibatis.session;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,13 +28,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import org.apache.ibatis.binding.MapperRegistry;
+import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
+import org.apache.ibatis.builder.ParameterMappingCache;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
+import org.apache.ibatis.builder.xml.PrecompiledMappers;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.decorators.FifoCache;
@@ -85,6 +93,9 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.CompiledExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.ExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.OgnlExpressionEngine;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -108,6 +119,8 @@ public class Configuration {
   protected boolean multipleResultSetsEnabled = true;
   protected boolean useGeneratedKeys;
   protected boolean useColumnLabel = true;
+  protected boolean useColumnIndex;
+  protected boolean eagerMapperMethodResolution;
   protected boolean cacheEnabled = true;
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
@@ -116,11 +129,13 @@ public class Configuration {
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
   protected Class<? extends VFS> vfsImpl;
+  protected String vfsIndexFile;
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected int dynamicSqlShapeCacheSize;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
   protected AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior = AutoMappingUnknownColumnBehavior.NONE;
@@ -132,6 +147,7 @@ public class Configuration {
 
   protected boolean lazyLoadingEnabled = false;
   protected ProxyFactory proxyFactory = new JavassistProxyFactory(); // #224 Using internal Javassist instead of OGNL
+  protected ExpressionEngine expressionEngine = new OgnlExpressionEngine();
 
   protected String databaseId;
   /**
@@ -141,25 +157,39 @@ public class Configuration {
    * @see <a href='https://code.google.com/p/mybatis/issues/detail?id=300'>Issue 300 (google code)</a>
    */
   protected Class<?> configurationFactory;
+  protected PrecompiledMappers precompiledMappers;
+  protected boolean parallelMapperParsing;
+  protected boolean streamingMapperParsing;
+  protected boolean lazyStatementInitialization;
+  protected boolean sealOnBuild;
+  //封闭之后所有注册表只读，获取statement时不再检查未完成的元素
+  protected boolean sealed;
 
   protected final MapperRegistry mapperRegistry = new MapperRegistry(this);
   protected final InterceptorChain interceptorChain = new InterceptorChain();
   protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
   protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
   protected final LanguageDriverRegistry languageRegistry = new LanguageDriverRegistry();
+  protected final ParameterMappingCache parameterMappingCache = new ParameterMappingCache(typeHandlerRegistry);
 
-  protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection")
+  protected Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection")
       .conflictMessageProducer((savedValue, targetValue) ->
           ". please check " + savedValue.getResource() + " and " + targetValue.getResource());
-  protected final Map<String, Cache> caches = new StrictMap<>("Caches collection");
-  protected final Map<String, ResultMap> resultMaps = new StrictMap<>("Result Maps collection");
-  protected final Map<String, ParameterMap> parameterMaps = new StrictMap<>("Parameter Maps collection");
-  protected final Map<String, KeyGenerator> keyGenerators = new StrictMap<>("Key Generators collection");
+  //封闭时以下注册表会被替换为只读的SealedMap
+  protected Map<String, Cache> caches = new StrictMap<>("Caches collection");
+  protected Map<String, ResultMap> resultMaps = new StrictMap<>("Result Maps collection");
+  protected Map<String, ParameterMap> parameterMaps = new StrictMap<>("Parameter Maps collection");
+  protected Map<String, KeyGenerator> keyGenerators = new StrictMap<>("Key Generators collection");
 
   protected final Set<String> loadedResources = new HashSet<>();
-  protected final Map<String, XNode> sqlFragments = new StrictMap<>("XML fragments parsed from previous mappers");
+  protected Map<String, XNode> sqlFragments = new StrictMap<>("XML fragments parsed from previous mappers");
 
   protected final Collection<XMLStatementBuilder> incompleteStatements = new LinkedList<>();
+  //延迟初始化时登记的statement，只在启动时修改；以及第一次获取时构建出的statement，运行时并发写入
+  protected Map<String, XMLStatementBuilder> lazyStatements = new StrictMap<>("Lazy Mapped Statements collection");
+  protected final Map<String, MappedStatement> lazyMappedStatements = new ConcurrentHashMap<>();
+  //构建延迟初始化的statement时持有的锁
+  protected final Object lazyStatementLock = new Object();
   protected final Collection<CacheRefResolver> incompleteCacheRefs = new LinkedList<>();
   protected final Collection<ResultMapResolver> incompleteResultMaps = new LinkedList<>();
   protected final Collection<MethodResolver> incompleteMethods = new LinkedList<>();
@@ -206,6 +236,9 @@ public class Configuration {
     typeAliasRegistry.registerAlias("CGLIB", CglibProxyFactory.class);
     typeAliasRegistry.registerAlias("JAVASSIST", JavassistProxyFactory.class);
 
+    typeAliasRegistry.registerAlias("OGNL", OgnlExpressionEngine.class);
+    typeAliasRegistry.registerAlias("COMPILED", CompiledExpressionEngine.class);
+
     //语言驱动初注册
     languageRegistry.setDefaultDriverClass(XMLLanguageDriver.class);
     languageRegistry.register(RawLanguageDriver.class);
@@ -241,6 +274,22 @@ public class Configuration {
     }
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public String getVfsIndexFile() {
+    return vfsIndexFile;
+  }
+
+  /**
+   * 保存jar文件资源索引的文件，构建配置时加载，构建完成后保存，见{@link org.apache.ibatis.io.ClasspathIndex}
+   *
+   * @since 3.5.2
+   */
+  public void setVfsIndexFile(String vfsIndexFile) {
+    this.vfsIndexFile = vfsIndexFile;
+  }
+
   public boolean isCallSettersOnNulls() {
     return callSettersOnNulls;
   }
@@ -362,6 +411,27 @@ public class Configuration {
     this.proxyFactory = proxyFactory;
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public ExpressionEngine getExpressionEngine() {
+    return expressionEngine;
+  }
+
+  /**
+   * 动态SQL中表达式（if、when、bind、foreach、${}）的求值引擎，为null时使用OGNL
+   *
+   * @since 3.5.2
+   */
+  public void setExpressionEngine(ExpressionEngine expressionEngine) {
+    if (expressionEngine == null) {
+      expressionEngine = new OgnlExpressionEngine();
+    } else if (expressionEngine instanceof CompiledExpressionEngine) {
+      ((CompiledExpressionEngine) expressionEngine).setReflectorFactory(reflectorFactory);
+    }
+    this.expressionEngine = expressionEngine;
+  }
+
   public boolean isAggressiveLazyLoading() {
     return aggressiveLazyLoading;
   }
@@ -432,6 +502,22 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public int getDynamicSqlShapeCacheSize() {
+    return dynamicSqlShapeCacheSize;
+  }
+
+  /**
+   * 每个动态SQL最多缓存多少种解析后的SQL形态，0表示不缓存
+   *
+   * @since 3.5.2
+   */
+  public void setDynamicSqlShapeCacheSize(int dynamicSqlShapeCacheSize) {
+    this.dynamicSqlShapeCacheSize = dynamicSqlShapeCacheSize;
+  }
+
   public boolean isUseColumnLabel() {
     return useColumnLabel;
   }
@@ -440,6 +526,163 @@ public class Configuration {
     this.useColumnLabel = useColumnLabel;
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public boolean isUseColumnIndex() {
+    return useColumnIndex;
+  }
+
+  /**
+   * 结果映射时按列索引读取值，列名到索引的解析在每个结果集中只做一次
+   *
+   * @since 3.5.2
+   */
+  public void setUseColumnIndex(boolean useColumnIndex) {
+    this.useColumnIndex = useColumnIndex;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public boolean isEagerMapperMethodResolution() {
+    return eagerMapperMethodResolution;
+  }
+
+  /**
+   * 注册mapper时预先解析接口的所有方法，调用时不再解析绑定的statement和返回类型
+   *
+   * @since 3.5.2
+   */
+  public void setEagerMapperMethodResolution(boolean eagerMapperMethodResolution) {
+    this.eagerMapperMethodResolution = eagerMapperMethodResolution;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public PrecompiledMappers getPrecompiledMappers() {
+    return precompiledMappers;
+  }
+
+  /**
+   * 构建时预编译的mapper文件，其中包含的资源不再解析xml
+   *
+   * @since 3.5.2
+   */
+  public void setPrecompiledMappers(PrecompiledMappers precompiledMappers) {
+    this.precompiledMappers = precompiledMappers;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public boolean isParallelMapperParsing() {
+    return parallelMapperParsing;
+  }
+
+  /**
+   * 并行解析配置文件中resource和url形式的mapper文件，解析结果仍按声明顺序构建到configuration中
+   *
+   * @since 3.5.2
+   */
+  public void setParallelMapperParsing(boolean parallelMapperParsing) {
+    this.parallelMapperParsing = parallelMapperParsing;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public boolean isStreamingMapperParsing() {
+    return streamingMapperParsing;
+  }
+
+  /**
+   * 使用StAX流式读取mapper文件，不再按DTD校验
+   *
+   * @since 3.5.2
+   */
+  public void setStreamingMapperParsing(boolean streamingMapperParsing) {
+    this.streamingMapperParsing = streamingMapperParsing;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public boolean isLazyStatementInitialization() {
+    return lazyStatementInitialization;
+  }
+
+  /**
+   * xml中的statement在解析mapper时只登记id，第一次获取时才构建
+   *
+   * @since 3.5.2
+   */
+  public void setLazyStatementInitialization(boolean lazyStatementInitialization) {
+    this.lazyStatementInitialization = lazyStatementInitialization;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public boolean isSealOnBuild() {
+    return sealOnBuild;
+  }
+
+  /**
+   * {@link SqlSessionFactoryBuilder#build(Configuration)}创建工厂时封闭configuration，见{@link #seal()}
+   *
+   * @since 3.5.2
+   */
+  public void setSealOnBuild(boolean sealOnBuild) {
+    this.sealOnBuild = sealOnBuild;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public boolean isSealed() {
+    return sealed;
+  }
+
+  /**
+   * Builds all the pending elements and replaces the statement, result map, parameter map, cache, key generator
+   * and sql fragment registries with right-sized read-only copies that store every element once under its full id.
+   * Short names stay resolvable through {@code get} and {@code containsKey} but are no longer listed by
+   * {@code keySet()}. Adding to the registries afterwards throws {@link UnsupportedOperationException}.
+   * The statement lookups of a sealed configuration no longer check for incomplete elements.
+   * <p>
+   * When statements are initialized lazily, the key generators stay writable because the selectKey of a lazy
+   * statement is registered when the statement is built.
+   *
+   * @throws BuilderException if an element cannot be completed
+   * @since 3.5.2
+   */
+  public void seal() {
+    if (sealed) {
+      return;
+    }
+    buildAllStatements();
+    if (!incompleteCacheRefs.isEmpty() || !incompleteResultMaps.isEmpty()
+        || !incompleteStatements.isEmpty() || !incompleteMethods.isEmpty()) {
+      throw new BuilderException("Cannot seal the configuration, some elements are still incomplete.");
+    }
+    mappedStatements = sealRegistry(mappedStatements);
+    caches = sealRegistry(caches);
+    resultMaps = sealRegistry(resultMaps);
+    parameterMaps = sealRegistry(parameterMaps);
+    sqlFragments = sealRegistry(sqlFragments);
+    lazyStatements = sealRegistry(lazyStatements);
+    if (lazyStatements.isEmpty()) {
+      keyGenerators = sealRegistry(keyGenerators);
+    }
+    sealed = true;
+  }
+
+  private static <V> Map<String, V> sealRegistry(Map<String, V> registry) {
+    return registry instanceof StrictMap ? ((StrictMap<V>) registry).toSealedMap() : Collections.unmodifiableMap(registry);
+  }
+
   public LocalCacheScope getLocalCacheScope() {
     return localCacheScope;
   }
@@ -497,6 +740,9 @@ public class Configuration {
 
   public void setReflectorFactory(ReflectorFactory reflectorFactory) {
     this.reflectorFactory = reflectorFactory;
+    if (expressionEngine instanceof CompiledExpressionEngine) {
+      ((CompiledExpressionEngine) expressionEngine).setReflectorFactory(reflectorFactory);
+    }
   }
 
   public ObjectFactory getObjectFactory() {
@@ -526,6 +772,13 @@ public class Configuration {
     return languageRegistry;
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public ParameterMappingCache getParameterMappingCache() {
+    return parameterMappingCache;
+  }
+
   public void setDefaultScriptingLanguage(Class<? extends LanguageDriver> driver) {
     if (driver == null) {
       driver = XMLLanguageDriver.class;
@@ -694,17 +947,89 @@ public class Configuration {
   }
 
   public void addMappedStatement(MappedStatement ms) {
+    //延迟构建的statement（包括其selectKey）在运行时加入，不能修改启动后只读的mappedStatements
+    if (Thread.holdsLock(lazyStatementLock)) {
+      lazyMappedStatements.put(ms.getId(), ms);
+      return;
+    }
+    if (lazyStatements.containsKey(ms.getId())) {
+      throw new IllegalArgumentException("Mapped Statements collection already contains value for " + ms.getId()
+          + ". please check " + lazyStatements.get(ms.getId()).getResource() + " and " + ms.getResource());
+    }
     mappedStatements.put(ms.getId(), ms);
   }
 
   public Collection<String> getMappedStatementNames() {
-    buildAllStatements();
-    return mappedStatements.keySet();
+    if (!sealed) {
+      buildAllStatements();
+    }
+    if (lazyStatements.isEmpty()) {
+      return mappedStatements.keySet();
+    }
+    Set<String> names = new HashSet<>(mappedStatements.keySet());
+    names.addAll(lazyStatements.keySet());
+    names.addAll(lazyMappedStatements.keySet());
+    return names;
   }
 
   public Collection<MappedStatement> getMappedStatements() {
-    buildAllStatements();
-    return mappedStatements.values();
+    if (!sealed) {
+      buildAllStatements();
+    }
+    if (lazyStatements.isEmpty()) {
+      return mappedStatements.values();
+    }
+    //需要返回statement对象时，构建所有延迟初始化的statement
+    for (Object lazyStatement : lazyStatements.values()) {
+      if (lazyStatement instanceof XMLStatementBuilder) {
+        getLazyMappedStatement(((XMLStatementBuilder) lazyStatement).getStatementId());
+      }
+    }
+    List<MappedStatement> statements = new ArrayList<>(mappedStatements.values());
+    statements.addAll(lazyMappedStatements.values());
+    return statements;
+  }
+
+  /**
+   * 登记一个延迟初始化的statement
+   *
+   * @since 3.5.2
+   */
+  public void addLazyStatement(String id, XMLStatementBuilder statementBuilder) {
+    if (mappedStatements.containsKey(id)) {
+      throw new IllegalArgumentException("Mapped Statements collection already contains value for " + id
+          + ". please check " + mappedStatements.get(id).getResource() + " and " + statementBuilder.getResource());
+    }
+    lazyStatements.put(id, statementBuilder);
+  }
+
+  /**
+   * @return 延迟初始化的statement的构建器，未登记时返回null
+   * @since 3.5.2
+   */
+  public XMLStatementBuilder getLazyStatement(String id) {
+    return lazyStatements.containsKey(id) ? lazyStatements.get(id) : null;
+  }
+
+  //获取延迟初始化的statement，第一次获取时构建；不是延迟初始化的statement时返回null
+  private MappedStatement getLazyMappedStatement(String id) {
+    MappedStatement ms = lazyMappedStatements.get(id);
+    if (ms != null || !lazyStatements.containsKey(id)) {
+      return ms;
+    }
+    XMLStatementBuilder statementBuilder = lazyStatements.get(id);
+    String statementId = statementBuilder.getStatementId();
+    ms = lazyMappedStatements.get(statementId);
+    if (ms == null) {
+      synchronized (lazyStatementLock) {
+        ms = lazyMappedStatements.get(statementId);
+        if (ms == null) {
+          statementBuilder.parseStatementNode();
+          ms = lazyMappedStatements.get(statementId);
+        }
+      }
+    }
+    return ms;
   }
 
   public Collection<XMLStatementBuilder> getIncompleteStatements() {
@@ -744,9 +1069,15 @@ public class Configuration {
   }
 
   public MappedStatement getMappedStatement(String id, boolean validateIncompleteStatements) {
-    if (validateIncompleteStatements) {
+    if (validateIncompleteStatements && !sealed) {
       buildAllStatements();
     }
+    if (!lazyStatements.isEmpty()) {
+      MappedStatement ms = getLazyMappedStatement(id);
+      if (ms != null) {
+        return ms;
+      }
+    }
     return mappedStatements.get(id);
   }
 
@@ -783,10 +1114,11 @@ public class Configuration {
   }
 
   public boolean hasStatement(String statementName, boolean validateIncompleteStatements) {
-    if (validateIncompleteStatements) {
+    if (validateIncompleteStatements && !sealed) {
       buildAllStatements();
     }
-    return mappedStatements.containsKey(statementName);
+    return mappedStatements.containsKey(statementName)
+      || lazyStatements.containsKey(statementName) || lazyMappedStatements.containsKey(statementName);
   }
 
   public void addCacheRef(String namespace, String referencedNamespace) {
@@ -934,6 +1266,42 @@ public class Configuration {
       return this;
     }
 
+    /**
+     * Copies this map into a read-only {@link SealedMap}. Elements are stored once under their full id,
+     * short names are kept in a separate index and ambiguous short names only by name.
+     *
+     * @since 3.5.2
+     */
+    public SealedMap<V> toSealedMap() {
+      Set<String> aliases = new HashSet<>();
+      for (Map.Entry<String, V> entry : super.entrySet()) {
+        if (entry.getKey().contains(".")) {
+          String shortName = getShortName(entry.getKey());
+          if (super.get(shortName) == entry.getValue()) {
+            aliases.add(shortName);
+          }
+        }
+      }
+      Set<String> ambiguousNames = new HashSet<>();
+      Map<String, V> entries = new HashMap<>(capacityFor(size() - aliases.size()));
+      Map<String, V> shortNames = new HashMap<>(capacityFor(aliases.size()));
+      for (Map.Entry<String, V> entry : super.entrySet()) {
+        if (entry.getValue() instanceof Ambiguity) {
+          ambiguousNames.add(entry.getKey());
+        } else if (aliases.contains(entry.getKey())) {
+          shortNames.put(entry.getKey(), entry.getValue());
+        } else {
+          entries.put(entry.getKey(), entry.getValue());
+        }
+      }
+      return new SealedMap<>(name, entries, shortNames,
+          ambiguousNames.isEmpty() ? Collections.emptySet() : ambiguousNames);
+    }
+
+    private static int capacityFor(int size) {
+      return (int) (size / 0.75f) + 1;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public V put(String key, V value) {
@@ -983,4 +1351,144 @@ public class Configuration {
     }
   }
 
+
+  /**
+   * 封闭之后的只读注册表，每个元素只按完整id保存一次，短名称单独索引，有歧义的短名称只记录名称。
+   * 查找的行为与{@link StrictMap}一致，任何修改都抛出{@link UnsupportedOperationException}。
+   *
+   * @since 3.5.2
+   */
+  protected static class SealedMap<V> extends AbstractMap<String, V> {
+
+    private final String name;
+    private final Map<String, V> entries;
+    private final Map<String, V> shortNames;
+    private final Set<String> ambiguousNames;
+    //只读视图，keySet、values、entrySet的包装对象由它缓存
+    private final Map<String, V> view;
+
+    SealedMap(String name, Map<String, V> entries, Map<String, V> shortNames, Set<String> ambiguousNames) {
+      this.name = name;
+      this.entries = entries;
+      this.shortNames = shortNames;
+      this.ambiguousNames = ambiguousNames;
+      this.view = Collections.unmodifiableMap(entries);
+    }
+
+    @Override
+    public V get(Object key) {
+      V value = entries.get(key);
+      if (value == null) {
+        value = shortNames.get(key);
+      }
+      if (value == null) {
+        if (ambiguousNames.contains(key)) {
+          throw new IllegalArgumentException(key + " is ambiguous in " + name
+              + " (try using the full name including the namespace, or rename one of the entries)");
+        }
+        throw new IllegalArgumentException(name + " does not contain value for " + key);
+      }
+      return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return entries.containsKey(key) || shortNames.containsKey(key) || ambiguousNames.contains(key);
+    }
+
+    @Override
+    public int size() {
+      return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return entries.isEmpty();
+    }
+
+    @Override
+    public Set<String> keySet() {
+      return view.keySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+      return view.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+      return view.entrySet();
+    }
+
+    private UnsupportedOperationException sealedException() {
+      return new UnsupportedOperationException(name + " is sealed and cannot be modified");
+    }
+
+    @Override
+    public V put(String key, V value) {
+      throw sealedException();
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends V> m) {
+      throw sealedException();
+    }
+
+    @Override
+    public V putIfAbsent(String key, V value) {
+      throw sealedException();
+    }
+
+    @Override
+    public V remove(Object key) {
+      throw sealedException();
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+      throw sealedException();
+    }
+
+    @Override
+    public boolean replace(String key, V oldValue, V newValue) {
+      throw sealedException();
+    }
+
+    @Override
+    public V replace(String key, V value) {
+      throw sealedException();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super V, ? extends V> function) {
+      throw sealedException();
+    }
+
+    @Override
+    public V computeIfAbsent(String key, Function<? super String, ? extends V> mappingFunction) {
+      throw sealedException();
+    }
+
+    @Override
+    public V computeIfPresent(String key, BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
+      throw sealedException();
+    }
+
+    @Override
+    public V compute(String key, BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
+      throw sealedException();
+    }
+
+    @Override
+    public V merge(String key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+      throw sealedException();
+    }
+
+    @Override
+    public void clear() {
+      throw sealedException();
+    }
+  }
+
 }
@@ -106,6 +106,9 @@ public class SqlSessionFactoryBuilder {
    * @param config 配置文件的封装对象，里面有所有的配置信息
    */
   public SqlSessionFactory build(Configuration config) {
+    if (config.isSealOnBuild()) {
+      config.seal();
+    }
     return new DefaultSqlSessionFactory(config);
   }
 
@@ -0,0 +1,36 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 不装箱读写double值的类型处理器，结果映射和参数绑定遇到double类型的属性时直接调用这些方法。
+ * 读取到SQL NULL时返回0，由调用方通过{@link ResultSet#wasNull()}判断。
+ *
+ * @since 3.5.2
+ * @see PrimitiveTypeHandlers#getPrimitiveType(TypeHandler)
+ */
+public interface PrimitiveDoubleTypeHandler {
+
+  void setDouble(PreparedStatement ps, int i, double parameter) throws SQLException;
+
+  double getDouble(ResultSet rs, String columnName) throws SQLException;
+
+  double getDouble(ResultSet rs, int columnIndex) throws SQLException;
+}
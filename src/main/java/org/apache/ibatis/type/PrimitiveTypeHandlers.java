@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+/**
+ * 识别可以不装箱读写基本类型的类型处理器
+ *
+ * @since 3.5.2
+ */
+public final class PrimitiveTypeHandlers {
+
+  private PrimitiveTypeHandlers() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * 返回类型处理器可以不装箱读写的基本类型。
+   * 只识别处理器自身的类直接声明的接口，子类重写了装箱的读写方法时不会绕过这些方法。
+   *
+   * @param typeHandler 类型处理器
+   * @return int.class、long.class、double.class，不支持时返回null
+   */
+  public static Class<?> getPrimitiveType(TypeHandler<?> typeHandler) {
+    if (typeHandler == null) {
+      return null;
+    }
+    for (Class<?> type : typeHandler.getClass().getInterfaces()) {
+      if (type == PrimitiveIntTypeHandler.class) {
+        return int.class;
+      } else if (type == PrimitiveLongTypeHandler.class) {
+        return long.class;
+      } else if (type == PrimitiveDoubleTypeHandler.class) {
+        return double.class;
+      }
+    }
+    return null;
+  }
+}
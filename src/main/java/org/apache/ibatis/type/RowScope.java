@@ -0,0 +1,141 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Binds a LOB stream obtained from a {@link ResultSet} to the row it was read from.
+ * The stream is read directly from the driver and becomes invalid as soon as the result set
+ * moves to another row or is closed; reading it afterwards fails with an {@link IOException}
+ * instead of driver specific behaviour.
+ *
+ * @since 3.5.2
+ */
+final class RowScope {
+
+  private final ResultSet resultSet;
+  private final int row;
+
+  private RowScope(ResultSet resultSet, int row) {
+    this.resultSet = resultSet;
+    this.row = row;
+  }
+
+  static RowScope of(ResultSet resultSet) {
+    int row;
+    try {
+      row = resultSet.getRow();
+    } catch (SQLException e) {
+      // the driver cannot report the row number, the stream is not checked
+      row = 0;
+    }
+    return new RowScope(resultSet, row);
+  }
+
+  void check() throws IOException {
+    if (row == 0) {
+      return;
+    }
+    try {
+      if (resultSet.isClosed() || resultSet.getRow() != row) {
+        throw new IOException("The LOB stream read from row " + row + " is no longer valid because the result set has moved past that row.");
+      }
+    } catch (SQLException e) {
+      throw new IOException("Could not check the row of the LOB stream.  Cause: " + e, e);
+    }
+  }
+
+  static InputStream wrap(InputStream in, ResultSet resultSet) {
+    return in == null ? null : new RowScopedInputStream(in, of(resultSet));
+  }
+
+  static Reader wrap(Reader reader, ResultSet resultSet) {
+    return reader == null ? null : new RowScopedReader(reader, of(resultSet));
+  }
+
+  private static class RowScopedInputStream extends FilterInputStream {
+    private final RowScope scope;
+
+    RowScopedInputStream(InputStream in, RowScope scope) {
+      super(in);
+      this.scope = scope;
+    }
+
+    @Override
+    public int read() throws IOException {
+      scope.check();
+      return super.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      scope.check();
+      return super.read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      scope.check();
+      return super.skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+      scope.check();
+      return super.available();
+    }
+  }
+
+  private static class RowScopedReader extends FilterReader {
+    private final RowScope scope;
+
+    RowScopedReader(Reader in, RowScope scope) {
+      super(in);
+      this.scope = scope;
+    }
+
+    @Override
+    public int read() throws IOException {
+      scope.check();
+      return super.read();
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      scope.check();
+      return super.read(cbuf, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      scope.check();
+      return super.skip(n);
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+      scope.check();
+      return super.ready();
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The {@link TypeHandler} that streams a {@link Blob} column without buffering it on the heap.
+ * <p>
+ * The returned {@link InputStream} is read directly from the driver through {@link ResultSet#getBinaryStream(int)}
+ * and stays valid only while the result set is positioned on the same row, so it is meant to be consumed
+ * from a {@link org.apache.ibatis.cursor.Cursor} or a {@link org.apache.ibatis.session.ResultHandler}.
+ * Parameters are bound with {@link PreparedStatement#setBinaryStream(int, InputStream)}.
+ *
+ * @since 3.5.2
+ */
+public class StreamingBlobTypeHandler extends BaseTypeHandler<InputStream> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, InputStream parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setBinaryStream(i, parameter);
+  }
+
+  @Override
+  public InputStream getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return RowScope.wrap(rs.getBinaryStream(columnName), rs);
+  }
+
+  @Override
+  public InputStream getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return RowScope.wrap(rs.getBinaryStream(columnIndex), rs);
+  }
+
+  @Override
+  public InputStream getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    Blob blob = cs.getBlob(columnIndex);
+    return blob == null ? null : blob.getBinaryStream();
+  }
+
+}
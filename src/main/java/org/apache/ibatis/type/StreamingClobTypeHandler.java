@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.Reader;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The {@link TypeHandler} that streams a {@link Clob} column without buffering it on the heap.
+ * <p>
+ * The returned {@link Reader} is read directly from the driver through {@link ResultSet#getCharacterStream(int)}
+ * and stays valid only while the result set is positioned on the same row, so it is meant to be consumed
+ * from a {@link org.apache.ibatis.cursor.Cursor} or a {@link org.apache.ibatis.session.ResultHandler}.
+ * Parameters are bound with {@link PreparedStatement#setCharacterStream(int, Reader)}.
+ *
+ * @since 3.5.2
+ */
+public class StreamingClobTypeHandler extends BaseTypeHandler<Reader> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, Reader parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setCharacterStream(i, parameter);
+  }
+
+  @Override
+  public Reader getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return RowScope.wrap(rs.getCharacterStream(columnName), rs);
+  }
+
+  @Override
+  public Reader getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return RowScope.wrap(rs.getCharacterStream(columnIndex), rs);
+  }
+
+  @Override
+  public Reader getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    Clob clob = cs.getClob(columnIndex);
+    return clob == null ? null : clob.getCharacterStream();
+  }
+
+}
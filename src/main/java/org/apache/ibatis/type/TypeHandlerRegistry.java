@@ -22,6 +22,7 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.channels.ReadableByteChannel;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -40,8 +41,10 @@ import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.io.ResolverUtil;
@@ -66,6 +69,14 @@ public final class TypeHandlerRegistry {
 
   private static final Map<JdbcType, TypeHandler<?>> NULL_TYPE_HANDLER_MAP = Collections.emptyMap();
 
+  //(javaType, jdbcType)解析出的处理器缓存，数组下标为jdbcType的序号加1，0对应jdbcType为null；找不到处理器时缓存NO_TYPE_HANDLER
+  private final Map<Type, AtomicReferenceArray<Object>> resolvedTypeHandlers = new ConcurrentHashMap<>();
+  private static final Object NO_TYPE_HANDLER = new Object();
+  //结果集中列的java类名解析出的类，找不到的类也会缓存
+  private final Map<String, Optional<Class<?>>> columnClasses = new ConcurrentHashMap<>();
+  //注册处理器时递增，外部缓存的解析结果（例如ParameterMapping）通过它判断是否失效
+  private volatile int version;
+
   private Class<? extends TypeHandler> defaultEnumTypeHandler = EnumTypeHandler.class;
 
   //初始化的时候关联所有的类型和处理器
@@ -127,6 +138,7 @@ public final class TypeHandlerRegistry {
     register(JdbcType.NUMERIC, new BigDecimalTypeHandler());
 
     register(InputStream.class, new BlobInputStreamTypeHandler());
+    register(ReadableByteChannel.class, new BlobByteChannelTypeHandler());
     register(Byte[].class, new ByteObjectArrayTypeHandler());
     register(Byte[].class, JdbcType.BLOB, new BlobByteObjectArrayTypeHandler());
     register(Byte[].class, JdbcType.LONGVARBINARY, new BlobByteObjectArrayTypeHandler());
@@ -179,6 +191,18 @@ public final class TypeHandlerRegistry {
    */
   public void setDefaultEnumTypeHandler(Class<? extends TypeHandler> typeHandler) {
     this.defaultEnumTypeHandler = typeHandler;
+    resolvedTypeHandlers.clear();
+    version++;
+  }
+
+  /**
+   * 返回处理器注册的版本号，每次注册处理器或修改默认的枚举处理器后都会变化，
+   * 缓存了处理器解析结果的地方可以据此清空缓存
+   *
+   * @since 3.5.2
+   */
+  public int getVersion() {
+    return version;
   }
 
   public boolean hasTypeHandler(Class<?> javaType) {
@@ -222,11 +246,56 @@ public final class TypeHandlerRegistry {
   }
 
   /**
-   * 通过制定的javaType和jdbcType获取关联的类型处理器
+   * Gets the type handler for a column of a result set, by the Java class name and the JDBC type reported
+   * by the result set metadata. The class names are resolved only once.
+   *
+   * @param columnClassName the class name returned by {@link java.sql.ResultSetMetaData#getColumnClassName(int)}, may be null
+   * @param jdbcType        the JDBC type of the column, may be null
+   * @return the type handler, or null if none was found
+   * @since 3.5.2
+   */
+  public TypeHandler<?> getColumnTypeHandler(String columnClassName, JdbcType jdbcType) {
+    // #699 className could be null
+    Class<?> javaType = columnClassName == null ? null
+        : columnClasses.computeIfAbsent(columnClassName, TypeHandlerRegistry::resolveColumnClass).orElse(null);
+    if (javaType != null && jdbcType != null) {
+      return getTypeHandler(javaType, jdbcType);
+    } else if (javaType != null) {
+      return getTypeHandler(javaType);
+    } else if (jdbcType != null) {
+      return getTypeHandler(jdbcType);
+    }
+    return null;
+  }
+
+  private static Optional<Class<?>> resolveColumnClass(String className) {
+    try {
+      return Optional.of(Resources.classForName(className));
+    } catch (ClassNotFoundException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * 通过制定的javaType和jdbcType获取关联的类型处理器，解析结果会被缓存，注册新的处理器时清空
    */
   @SuppressWarnings("unchecked")
   private <T> TypeHandler<T> getTypeHandler(Type type, JdbcType jdbcType) {
-    if (ParamMap.class.equals(type)) {
+    AtomicReferenceArray<Object> handlers = resolvedTypeHandlers.get(type);
+    if (handlers == null) {
+      handlers = resolvedTypeHandlers.computeIfAbsent(type, k -> new AtomicReferenceArray<>(JdbcType.values().length + 1));
+    }
+    int index = jdbcType == null ? 0 : jdbcType.ordinal() + 1;
+    Object handler = handlers.get(index);
+    if (handler == null) {
+      handler = resolveTypeHandler(type, jdbcType);
+      handlers.set(index, handler == null ? NO_TYPE_HANDLER : handler);
+    }
+    return handler == NO_TYPE_HANDLER ? null : (TypeHandler<T>) handler;
+  }
+
+  private TypeHandler<?> resolveTypeHandler(Type type, JdbcType jdbcType) {
+    if (type instanceof Class && ParamMap.class.isAssignableFrom((Class<?>) type)) {
       return null;
     }
     //获取HandlerMap
@@ -245,8 +314,7 @@ public final class TypeHandlerRegistry {
         handler = pickSoleHandler(jdbcHandlerMap);
       }
     }
-    // type drives generics here
-    return (TypeHandler<T>) handler;
+    return handler;
   }
 
   /**
@@ -417,8 +485,11 @@ public final class TypeHandlerRegistry {
         typeHandlerMap.put(javaType, map);
       }
       map.put(jdbcType, handler);
+      //新的处理器可能改变已经解析过的类型（包括子类和枚举）对应的处理器
+      resolvedTypeHandlers.clear();
     }
     allTypeHandlersMap.put(handler.getClass(), handler);
+    version++;
   }
 
   //
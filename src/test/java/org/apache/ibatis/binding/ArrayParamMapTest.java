@@ -0,0 +1,112 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+class ArrayParamMapTest {
+
+  @Test
+  void shouldResolveNamesAndGenericNamesFromArguments() throws Exception {
+    Map<String, Object> params = namedParams("select", 1, RowBounds.DEFAULT, "jim");
+    assertEquals(1, params.get("id"));
+    assertEquals(1, params.get("param1"));
+    assertEquals("jim", params.get("name"));
+    assertEquals("jim", params.get("param2"));
+    assertTrue(params.containsKey("name"));
+    assertFalse(params.containsKey("param3"));
+    BindingException e = assertThrows(BindingException.class, () -> params.get("missing"));
+    assertThat(e.getMessage()).contains("Parameter 'missing' not found");
+  }
+
+  @Test
+  void shouldNotOverwriteParameterNamedLikeGenericName() throws Exception {
+    Map<String, Object> params = namedParams("conflict", "a", "b");
+    assertEquals("b", params.get("param1"));
+    assertEquals("a", params.get("first"));
+    assertEquals(3, params.size());
+  }
+
+  @Test
+  void shouldBehaveAsParamMapOnceModified() throws Exception {
+    Map<String, Object> params = namedParams("select", 1, RowBounds.DEFAULT, "jim");
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("id", 1);
+    expected.put("param1", 1);
+    expected.put("name", "jim");
+    expected.put("param2", "jim");
+    assertEquals(expected, params);
+    params.put("id", 2);
+    params.put("extra", "x");
+    assertEquals(2, params.get("id"));
+    assertEquals("x", params.get("extra"));
+    assertEquals(1, params.get("param1"));
+    assertEquals(5, params.size());
+  }
+
+  @Test
+  void shouldSerializeAsParamMap() throws Exception {
+    Map<String, Object> params = namedParams("select", 1, RowBounds.DEFAULT, "jim");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(params);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      Object copy = in.readObject();
+      assertEquals(ParamMap.class, copy.getClass());
+      assertEquals(params, copy);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> namedParams(String methodName, Object... args) throws Exception {
+    Method method = null;
+    for (Method m : Mapper.class.getMethods()) {
+      if (m.getName().equals(methodName)) {
+        method = m;
+      }
+    }
+    Object params = new ParamNameResolver(new Configuration(), method).getNamedParams(args);
+    assertThat(params).isInstanceOf(ParamMap.class);
+    return (Map<String, Object>) params;
+  }
+
+  interface Mapper {
+    void select(@Param("id") int id, RowBounds rowBounds, @Param("name") String name);
+
+    void conflict(@Param("first") String first, @Param("param1") String second);
+  }
+
+}
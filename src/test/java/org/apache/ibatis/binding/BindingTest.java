@@ -78,6 +78,20 @@ class BindingTest {
     sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
   }
 
+  @Test
+  void shouldResolveMapperMethodsEagerlyWhenCacheRefPointsToLaterMapper() {
+    Configuration configuration = new Configuration(sqlSessionFactory.getConfiguration().getEnvironment());
+    configuration.setEagerMapperMethodResolution(true);
+    configuration.addMapper(CacheRefMapper.class);
+    configuration.addMapper(CachedMapper.class);
+    assertTrue(configuration.hasMapper(CacheRefMapper.class));
+    try (SqlSession session = new SqlSessionFactoryBuilder().build(configuration).openSession()) {
+      assertEquals(2, session.getMapper(CacheRefMapper.class).countBlogs());
+      assertSame(configuration.getCache("org.apache.ibatis.binding.CachedMapper"),
+          configuration.getMappedStatement("org.apache.ibatis.binding.CacheRefMapper.countBlogs").getCache());
+    }
+  }
+
   @Test
   void shouldSelectBlogWithPostsUsingSubSelect() {
     try (SqlSession session = sqlSessionFactory.openSession()) {
@@ -606,6 +620,26 @@ class BindingTest {
     }
   }
 
+  @Test
+  void shouldResolveMapperMethodsBeforeFirstCall() throws Exception {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      final MapperProxyFactory<BoundBlogMapper> mapperProxyFactory = new MapperProxyFactory<>(BoundBlogMapper.class);
+      mapperProxyFactory.resolveMapperMethods(session.getConfiguration());
+
+      final Method selectBlog = BoundBlogMapper.class.getMethod("selectBlog", Integer.TYPE);
+      final Method selectBlogByIdUsingConstructor = BoundBlogMapper.class.getMethod("selectBlogByIdUsingConstructor", Integer.TYPE);
+      final int resolved = mapperProxyFactory.getMethodCache().size();
+      assertTrue(mapperProxyFactory.getMethodCache().containsKey(selectBlog));
+      assertTrue(mapperProxyFactory.getMethodCache().containsKey(selectBlogByIdUsingConstructor));
+      final MapperMethod resolvedSelectBlog = mapperProxyFactory.getMethodCache().get(selectBlog);
+
+      final BoundBlogMapper mapper = mapperProxyFactory.newInstance(session);
+      assertEquals(1, mapper.selectBlog(1).getId());
+      assertEquals(resolved, mapperProxyFactory.getMethodCache().size());
+      assertSame(resolvedSelectBlog, mapperProxyFactory.getMethodCache().get(selectBlog));
+    }
+  }
+
   @Test
   void shouldGetBlogsWithAuthorsAndPosts() {
     try (SqlSession session = sqlSessionFactory.openSession()) {
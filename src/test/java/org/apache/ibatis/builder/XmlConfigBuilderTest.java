@@ -25,6 +25,7 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Properties;
+import java.util.Scanner;
 
 import org.apache.ibatis.builder.mapper.CustomMapper;
 import org.apache.ibatis.builder.typehandler.CustomIntegerTypeHandler;
@@ -32,6 +33,7 @@ import org.apache.ibatis.builder.xml.XMLConfigBuilder;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.domain.blog.mappers.AuthorMapperWithMultipleHandlers;
 import org.apache.ibatis.domain.blog.mappers.BlogMapper;
 import org.apache.ibatis.domain.blog.mappers.NestedBlogMapper;
 import org.apache.ibatis.domain.jpetstore.Cart;
@@ -41,6 +43,7 @@ import org.apache.ibatis.io.JBoss6VFS;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.AutoMappingBehavior;
@@ -48,6 +51,7 @@ import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
 import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.EnumOrdinalTypeHandler;
@@ -60,6 +64,7 @@ import org.junit.jupiter.api.Test;
 import static com.googlecode.catchexception.apis.BDDCatchException.*;
 import static org.assertj.core.api.BDDAssertions.then;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -253,6 +258,76 @@ class XmlConfigBuilderTest {
     }
   }
 
+  @Test
+  void shouldBuildSameConfigurationWithParallelMapperParsing() throws Exception {
+    String resource = "org/apache/ibatis/builder/MapperConfig.xml";
+    Configuration sequential;
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      sequential = new XMLConfigBuilder(inputStream).parse();
+    }
+    String config;
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      config = new Scanner(inputStream, "UTF-8").useDelimiter("\\A").next()
+        .replace("<settings>", "<settings>\n    <setting name=\"parallelMapperParsing\" value=\"true\"/>");
+    }
+    Configuration parallel = new XMLConfigBuilder(new StringReader(config)).parse();
+
+    assertTrue(parallel.isParallelMapperParsing());
+    assertThat(parallel.getMappedStatementNames()).isEqualTo(sequential.getMappedStatementNames());
+    assertThat(parallel.getResultMapNames()).isEqualTo(sequential.getResultMapNames());
+    assertThat(parallel.getCacheNames()).isEqualTo(sequential.getCacheNames());
+    assertThat(parallel.getIncompleteStatements()).isEmpty();
+  }
+
+  @Test
+  void shouldSealConfigurationOnBuild() throws Exception {
+    String config;
+    try (InputStream inputStream = Resources.getResourceAsStream("org/apache/ibatis/builder/MapperConfig.xml")) {
+      config = new Scanner(inputStream, "UTF-8").useDelimiter("\\A").next()
+        .replace("<settings>", "<settings>\n    <setting name=\"sealOnBuild\" value=\"true\"/>");
+    }
+    Configuration configuration = new SqlSessionFactoryBuilder().build(new StringReader(config)).getConfiguration();
+
+    assertTrue(configuration.isSealed());
+    assertThat(configuration.getIncompleteStatements()).isEmpty();
+    MappedStatement statement = configuration.getMappedStatement("org.apache.ibatis.domain.blog.mappers.BlogMapper.selectBlogWithPostsUsingSubSelect");
+    assertThat(configuration.getMappedStatement("selectBlogWithPostsUsingSubSelect")).isSameAs(statement);
+    assertTrue(configuration.hasStatement("selectBlogWithPostsUsingSubSelect"));
+    // every statement is listed once, under its full id
+    assertThat(configuration.getMappedStatementNames()).doesNotContain("selectBlogWithPostsUsingSubSelect");
+    assertThat(configuration.getMappedStatements()).hasSameSizeAs(configuration.getMappedStatementNames()).doesNotHaveDuplicates();
+    when(configuration).getMappedStatement("noSuchStatement");
+    then(caughtException()).isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("does not contain value for noSuchStatement");
+    when(configuration).addMappedStatement(statement);
+    then(caughtException()).isInstanceOf(UnsupportedOperationException.class)
+      .hasMessage("Mapped Statements collection is sealed and cannot be modified");
+    when(configuration.getResultMapNames()).clear();
+    then(caughtException()).isInstanceOf(UnsupportedOperationException.class);
+    when(configuration).addMapper(AuthorMapperWithMultipleHandlers.class);
+    then(caughtException()).isInstanceOf(UnsupportedOperationException.class);
+    assertFalse(configuration.hasMapper(AuthorMapperWithMultipleHandlers.class));
+  }
+
+  @Test
+  void parallelMapperParsingReportsMissingResource() {
+    final String MAPPER_CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+            + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+            + "<configuration>\n"
+            + "  <settings>\n"
+            + "    <setting name=\"parallelMapperParsing\" value=\"true\"/>\n"
+            + "  </settings>\n"
+            + "  <mappers>\n"
+            + "    <mapper resource=\"org/apache/ibatis/builder/MissingMapper.xml\"/>\n"
+            + "  </mappers>\n"
+            + "</configuration>\n";
+
+    XMLConfigBuilder builder = new XMLConfigBuilder(new StringReader(MAPPER_CONFIG));
+    when(builder).parse();
+    then(caughtException()).isInstanceOf(BuilderException.class)
+      .hasMessageContaining("Could not find resource org/apache/ibatis/builder/MissingMapper.xml");
+  }
+
   @Test
   void unknownSettings() {
     final String MAPPER_CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
@@ -15,14 +15,25 @@
  */
 package org.apache.ibatis.builder;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import org.apache.ibatis.builder.xml.PrecompiledMappers;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.TypeHandler;
 import org.junit.jupiter.api.Assertions;
@@ -63,6 +74,163 @@ class XmlMapperBuilderTest {
     }
   }
 
+  @Test
+  void shouldBuildSameStatementsFromPrecompiledMapper() throws Exception {
+    String resource = "org/apache/ibatis/builder/AuthorMapper.xml";
+    File precompiled = File.createTempFile("mappers", ".bin");
+    precompiled.deleteOnExit();
+    PrecompiledMappers.main(new String[] {precompiled.getAbsolutePath(), resource});
+    PrecompiledMappers precompiledMappers;
+    try (InputStream inputStream = new FileInputStream(precompiled)) {
+      precompiledMappers = PrecompiledMappers.load(inputStream);
+    }
+    assertThat(precompiledMappers.getResources()).containsExactly(resource);
+    assertThat(precompiledMappers.getDocument("org/apache/ibatis/builder/BlogMapper.xml")).isNull();
+
+    Configuration parsed = new Configuration();
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      new XMLMapperBuilder(inputStream, parsed, resource, parsed.getSqlFragments()).parse();
+    }
+    Configuration restored = new Configuration();
+    new XMLMapperBuilder(precompiledMappers.getDocument(resource), restored, resource, restored.getSqlFragments()).parse();
+
+    assertThat(restored.getMappedStatementNames()).isEqualTo(parsed.getMappedStatementNames());
+    assertThat(restored.getResultMapNames()).isEqualTo(parsed.getResultMapNames());
+    for (MappedStatement expected : parsed.getMappedStatements()) {
+      MappedStatement actual = restored.getMappedStatement(expected.getId());
+      assertThat(actual.getSqlCommandType()).isEqualTo(expected.getSqlCommandType());
+      assertThat(actual.getStatementType()).isEqualTo(expected.getStatementType());
+      assertThat(actual.getResultMaps()).extracting(ResultMap::getId)
+        .isEqualTo(expected.getResultMaps().stream().map(ResultMap::getId).collect(Collectors.toList()));
+      assertThat(actual.getSqlSource().getClass()).isEqualTo(expected.getSqlSource().getClass());
+      if (!(expected.getSqlSource() instanceof DynamicSqlSource)) {
+        assertThat(actual.getBoundSql(null).getSql()).isEqualTo(expected.getBoundSql(null).getSql());
+      }
+    }
+  }
+
+  @Test
+  void shouldBuildSameStatementsWithStreamingParser() throws Exception {
+    String resource = "org/apache/ibatis/builder/AuthorMapper.xml";
+    Configuration validated = new Configuration();
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      new XMLMapperBuilder(inputStream, validated, resource, validated.getSqlFragments()).parse();
+    }
+    Configuration streamed = new Configuration();
+    streamed.setStreamingMapperParsing(true);
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      new XMLMapperBuilder(inputStream, streamed, resource, streamed.getSqlFragments()).parse();
+    }
+
+    assertThat(streamed.getMappedStatementNames()).isEqualTo(validated.getMappedStatementNames());
+    assertThat(streamed.getResultMapNames()).isEqualTo(validated.getResultMapNames());
+    for (MappedStatement expected : validated.getMappedStatements()) {
+      MappedStatement actual = streamed.getMappedStatement(expected.getId());
+      assertThat(actual.getSqlCommandType()).isEqualTo(expected.getSqlCommandType());
+      assertThat(actual.getFetchSize()).isEqualTo(expected.getFetchSize());
+      assertThat(actual.getSqlSource().getClass()).isEqualTo(expected.getSqlSource().getClass());
+      if (!(expected.getSqlSource() instanceof DynamicSqlSource)) {
+        assertThat(actual.getBoundSql(null).getSql()).isEqualTo(expected.getBoundSql(null).getSql());
+      }
+    }
+  }
+
+  @Test
+  void shouldRejectInvalidPrecompiledMappers() {
+    Exception exception = Assertions.assertThrows(BuilderException.class,
+      () -> PrecompiledMappers.load(new ByteArrayInputStream(new byte[] {0, 1, 2, 3})));
+    assertThat(exception.getMessage()).isEqualTo("Not a precompiled mappers file.");
+  }
+
+  @Test
+  void shouldBuildSameStatementsLazily() throws Exception {
+    String resource = "org/apache/ibatis/builder/AuthorMapper.xml";
+    Configuration eager = new Configuration();
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      new XMLMapperBuilder(inputStream, eager, resource, eager.getSqlFragments()).parse();
+    }
+    Configuration lazy = new Configuration();
+    lazy.setLazyStatementInitialization(true);
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      new XMLMapperBuilder(inputStream, lazy, resource, lazy.getSqlFragments()).parse();
+    }
+
+    assertThat(lazy.getMappedStatementNames()).containsExactlyInAnyOrderElementsOf(eager.getMappedStatementNames());
+    MappedStatement expected = eager.getMappedStatement("selectWithOptions");
+    MappedStatement actual = lazy.getMappedStatement("selectWithOptions");
+    assertThat(actual.getId()).isEqualTo(expected.getId());
+    assertThat(actual.getFetchSize()).isEqualTo(200);
+    assertThat(actual.getResultSetType()).isEqualTo(ResultSetType.SCROLL_SENSITIVE);
+    assertThat(lazy.getMappedStatement(expected.getId())).isSameAs(actual);
+    assertThat(distinctIds(lazy.getMappedStatements())).containsExactlyInAnyOrderElementsOf(distinctIds(eager.getMappedStatements()));
+  }
+
+  private static List<String> distinctIds(Collection<?> statements) {
+    // the short names are registered as well, as the same statement or as an ambiguity marker
+    return statements.stream().filter(MappedStatement.class::isInstance)
+      .map(statement -> ((MappedStatement) statement).getId()).distinct().collect(Collectors.toList());
+  }
+
+  @Test
+  void shouldBuildLazyStatementOnFirstUse() throws Exception {
+    String namespace = "org.apache.ibatis.builder.LazyMapper";
+    String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+      + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+      + "<mapper namespace=\"" + namespace + "\">\n"
+      + "  <select id=\"selectOne\" databaseId=\"other\" resultType=\"int\">select 2</select>\n"
+      + "  <select id=\"selectOne\" resultType=\"int\">select 1</select>\n"
+      + "  <insert id=\"insertWithKey\" parameterType=\"map\">\n"
+      + "    <selectKey keyProperty=\"id\" resultType=\"int\" order=\"BEFORE\">select 3</selectKey>\n"
+      + "    insert into t values (#{id})\n"
+      + "  </insert>\n"
+      + "  <select id=\"selectBroken\" resultType=\"no.such.Type\">select 4</select>\n"
+      + "</mapper>\n";
+
+    Configuration eager = new Configuration();
+    Assertions.assertThrows(BuilderException.class, () -> new XMLMapperBuilder(
+      new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), eager, "lazy.xml", eager.getSqlFragments()).parse());
+
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementInitialization(true);
+    new XMLMapperBuilder(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), configuration, "lazy.xml",
+      configuration.getSqlFragments()).parse();
+
+    assertThat(configuration.hasStatement(namespace + ".selectBroken")).isTrue();
+    assertThat(configuration.getMappedStatement("selectOne").getBoundSql(null).getSql()).isEqualTo("select 1");
+    // the built statement is still found by its short name once the builder released its node
+    assertThat(configuration.getMappedStatement("selectOne")).isSameAs(configuration.getMappedStatement(namespace + ".selectOne"));
+    assertThat(configuration.getLazyStatement(namespace + ".selectOne").getStatementId()).isEqualTo(namespace + ".selectOne");
+    MappedStatement insert = configuration.getMappedStatement(namespace + ".insertWithKey");
+    assertThat(insert.getKeyGenerator()).isInstanceOf(SelectKeyGenerator.class);
+    assertThat(configuration.getMappedStatement(namespace + ".insertWithKey!selectKey").getBoundSql(null).getSql()).isEqualTo("select 3");
+    Assertions.assertThrows(BuilderException.class, () -> configuration.getMappedStatement(namespace + ".selectBroken"));
+  }
+
+  @Test
+  void shouldBuildLazyStatementOfSealedConfiguration() throws Exception {
+    String namespace = "org.apache.ibatis.builder.SealedMapper";
+    String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+      + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+      + "<mapper namespace=\"" + namespace + "\">\n"
+      + "  <insert id=\"insertWithKey\" parameterType=\"map\">\n"
+      + "    <selectKey keyProperty=\"id\" resultType=\"int\" order=\"BEFORE\">select 3</selectKey>\n"
+      + "    insert into t values (#{id})\n"
+      + "  </insert>\n"
+      + "</mapper>\n";
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementInitialization(true);
+    new XMLMapperBuilder(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), configuration, "sealed.xml",
+      configuration.getSqlFragments()).parse();
+    configuration.seal();
+
+    // the selectKey of a lazy statement is registered when the statement is built
+    MappedStatement insert = configuration.getMappedStatement(namespace + ".insertWithKey");
+    assertThat(insert.getKeyGenerator()).isInstanceOf(SelectKeyGenerator.class);
+    assertThat(configuration.hasKeyGenerator(namespace + ".insertWithKey!selectKey")).isTrue();
+    MappedStatement other = new MappedStatement.Builder(configuration, namespace + ".other", insert.getSqlSource(), insert.getSqlCommandType()).build();
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> configuration.addMappedStatement(other));
+  }
+
   @Test
   void parseExpression() {
     BaseBuilder builder = new BaseBuilder(new Configuration()){{}};
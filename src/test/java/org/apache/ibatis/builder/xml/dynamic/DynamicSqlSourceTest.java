@@ -16,19 +16,26 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.scripting.ScriptingException;
 import org.apache.ibatis.scripting.xmltags.ChooseSqlNode;
 import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
 import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
@@ -37,10 +44,13 @@ import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
 import org.apache.ibatis.scripting.xmltags.SetSqlNode;
 import org.apache.ibatis.scripting.xmltags.SqlNode;
 import org.apache.ibatis.scripting.xmltags.TextSqlNode;
+import org.apache.ibatis.scripting.xmltags.TrimSqlNode;
 import org.apache.ibatis.scripting.xmltags.WhereSqlNode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -312,6 +322,33 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals(expected, boundSql.getSql());
   }
 
+  @Test
+  void shouldTrimMixedCasePrefixAndSuffixOverrides() throws Exception {
+    final String expected = "INSERT INTO BLOG (  ID,  NAME  )";
+    DynamicSqlSource source = createDynamicSqlSource(
+        new TextSqlNode("INSERT INTO BLOG"),
+        new TrimSqlNode(new Configuration(), mixedContents(
+            new IfSqlNode(mixedContents(new TextSqlNode(" And ID, ")), "true"),
+            new IfSqlNode(mixedContents(new TextSqlNode(" NAME , ")), "true")),
+            "(", "and |or ", ")", ","));
+    BoundSql boundSql = source.getBoundSql(null);
+    assertEquals(expected, boundSql.getSql());
+  }
+
+  @Test
+  void shouldTrimNestedWhereInsideTrim() throws Exception {
+    final String expected = "SELECT * FROM BLOG WHERE  (  ID = ?   or NAME = ? )";
+    DynamicSqlSource source = createDynamicSqlSource(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(new Configuration(), mixedContents(
+            new TrimSqlNode(new Configuration(), mixedContents(
+                new IfSqlNode(mixedContents(new TextSqlNode("  OR ID = ?   ")), "true"),
+                new IfSqlNode(mixedContents(new TextSqlNode("or NAME = ?  ")), "true")),
+                "and (", "OR ", ")", null))));
+    BoundSql boundSql = source.getBoundSql(null);
+    assertEquals(expected, boundSql.getSql());
+  }
+
   @Test
   void shouldIterateOnceForEachItemInCollection() throws Exception {
     final HashMap<String, String[]> parameterObject = new HashMap<String, String[]>() {{
@@ -376,6 +413,93 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  void shouldReuseParameterMappingsOfTheSameSqlShape() {
+    Configuration configuration = new Configuration();
+    configuration.setDynamicSqlShapeCacheSize(16);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{item}")), "list", null, "item", "(", ")", ",")));
+    BoundSql first = source.getBoundSql(Collections.singletonMap("list", Arrays.asList(1, 2)));
+    BoundSql second = source.getBoundSql(Collections.singletonMap("list", Arrays.asList(3, 4)));
+    BoundSql third = source.getBoundSql(Collections.singletonMap("list", Arrays.asList(5, 6, 7)));
+    assertEquals("SELECT * FROM BLOG WHERE ID in (  ? , ? )", second.getSql());
+    assertSame(first.getParameterMappings(), second.getParameterMappings());
+    assertEquals(3, third.getParameterMappings().size());
+    assertEquals(4, second.getAdditionalParameter("__frch_item_1"));
+  }
+
+  @Test
+  void shouldResolveParameterMappingsAgainWhenBindingTypesChange() {
+    Configuration configuration = new Configuration();
+    configuration.setDynamicSqlShapeCacheSize(16);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{item}")), "list", null, "item", "(", ")", ",")));
+    BoundSql integers = source.getBoundSql(Collections.singletonMap("list", Collections.singletonList(1)));
+    BoundSql strings = source.getBoundSql(Collections.singletonMap("list", Collections.singletonList("1")));
+    assertEquals(Integer.class, integers.getParameterMappings().get(0).getJavaType());
+    assertEquals(String.class, strings.getParameterMappings().get(0).getJavaType());
+  }
+
+  @Test
+  void shouldReuseCachedParameterMappings() {
+    Configuration configuration = new Configuration();
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID = #{id,jdbcType=VARCHAR}"),
+        new IfSqlNode(mixedContents(new TextSqlNode("AND ID <> #{id}")), "id != null")));
+    BoundSql first = source.getBoundSql(new Bean("1"));
+    BoundSql second = source.getBoundSql(new Bean(null));
+    assertEquals(2, first.getParameterMappings().size());
+    assertEquals(1, second.getParameterMappings().size());
+    assertSame(first.getParameterMappings().get(0), second.getParameterMappings().get(0));
+    assertEquals(String.class, second.getParameterMappings().get(0).getJavaType());
+  }
+
+  @Test
+  void shouldNotShareCachedParameterMappingsAcrossAdditionalParameterTypes() {
+    Configuration configuration = new Configuration();
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{item}")), "list", null, "item", "(", ")", ",")));
+    BoundSql integers = source.getBoundSql(Collections.singletonMap("list", Arrays.asList(1, 2)));
+    BoundSql strings = source.getBoundSql(Collections.singletonMap("list", Arrays.asList("1", 2)));
+    assertEquals(Integer.class, integers.getParameterMappings().get(0).getJavaType());
+    assertEquals(String.class, strings.getParameterMappings().get(0).getJavaType());
+    assertSame(integers.getParameterMappings().get(1), strings.getParameterMappings().get(1));
+  }
+
+  @Test
+  void shouldKeepCachingParameterMappingsAfterReachingTheLimit() {
+    Configuration configuration = new Configuration();
+    DynamicSqlSource foreach = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{item}")), "list", null, "item", "(", ")", ",")));
+    List<Integer> list = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      list.add(i);
+    }
+    foreach.getBoundSql(Collections.singletonMap("list", list));
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}")));
+    assertSame(source.getBoundSql(new Bean("1")).getParameterMappings().get(0),
+        source.getBoundSql(new Bean("2")).getParameterMappings().get(0));
+  }
+
+  @Test
+  void shouldResolveParameterMappingsAgainAfterRegisteringTypeHandler() {
+    Configuration configuration = new Configuration();
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}")));
+    BoundSql first = source.getBoundSql(new Bean("1"));
+    TypeHandler<String> typeHandler = new StringTypeHandler() {
+    };
+    configuration.getTypeHandlerRegistry().register(String.class, typeHandler);
+    BoundSql second = source.getBoundSql(new Bean("1"));
+    assertNotSame(first.getParameterMappings().get(0), second.getParameterMappings().get(0));
+    assertSame(typeHandler, second.getParameterMappings().get(0).getTypeHandler());
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
@@ -390,6 +514,31 @@ class DynamicSqlSourceTest extends BaseDataTest {
     return new MixedSqlNode(Arrays.asList(contents));
   }
 
+  @Test
+  void shouldSubstituteEveryTokenOfPreparedText() {
+    Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("col", "name");
+    parameterObject.put("v", 1);
+    TextSqlNode sqlNode = new TextSqlNode("SELECT ${col} FROM \\${tbl} WHERE x = '${v}${v}' AND y = ${col} ${unclosed");
+    assertTrue(sqlNode.isDynamic());
+    DynamicSqlSource source = new DynamicSqlSource(new Configuration(), mixedContents(sqlNode));
+    assertEquals("SELECT name FROM ${tbl} WHERE x = '11' AND y = name ${unclosed", source.getBoundSql(parameterObject).getSql());
+    assertFalse(new TextSqlNode("SELECT \\${col} FROM blog").isDynamic());
+  }
+
+  @Test
+  void shouldRejectSubstitutedValueNotMatchingInjectionFilter() {
+    Pattern injectionFilter = Pattern.compile("^[a-zA-Z0-9_]*$");
+    DynamicSqlSource source = new DynamicSqlSource(new Configuration(),
+        mixedContents(new TextSqlNode("SELECT * FROM blog ORDER BY ${col}, ${dir}", injectionFilter)));
+    Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("col", "name");
+    parameterObject.put("dir", "desc");
+    assertEquals("SELECT * FROM blog ORDER BY name, desc", source.getBoundSql(parameterObject).getSql());
+    parameterObject.put("dir", "desc; drop table blog");
+    Assertions.assertThrows(ScriptingException.class, () -> source.getBoundSql(parameterObject));
+  }
+
   @Test
   void shouldMapNullStringsToEmptyStrings() {
     final String expected = "id=${id}";
@@ -41,6 +41,7 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.MethodHandleReflectorFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -129,8 +130,87 @@ class DefaultResultSetHandlerTest {
     }
   }
 
-  MappedStatement getMappedStatement() {
+  @Test
+  void shouldReadColumnsByIndex() throws Exception {
+    final Configuration config = new Configuration();
+    config.setUseColumnIndex(true);
+    final MappedStatement ms = getMappedStatement(config);
+    final DefaultResultSetHandler resultSetHandler = new DefaultResultSetHandler(null/*executor*/, ms,
+            null/*parameterHandler*/, null/*resultHandler*/, null/*boundSql*/, new RowBounds(0, 100));
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+    when(rs.getInt(2)).thenReturn(100).thenReturn(200);
+    when(rsmd.getColumnCount()).thenReturn(2);
+    when(rsmd.getColumnLabel(1)).thenReturn("other");
+    when(rsmd.getColumnLabel(2)).thenReturn("COLUMN1");
+    when(rsmd.getColumnType(1)).thenReturn(Types.VARCHAR);
+    when(rsmd.getColumnType(2)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(String.class.getCanonicalName());
+    when(rsmd.getColumnClassName(2)).thenReturn(Integer.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    final List<Object> results = resultSetHandler.handleResultSets(stmt);
+    assertEquals(2, results.size());
+    assertEquals(100, ((HashMap) results.get(0)).get("cOlUmN1"));
+    assertEquals(200, ((HashMap) results.get(1)).get("cOlUmN1"));
+  }
+
+  @Test
+  void shouldSetPrimitivePropertiesWithoutBoxing() throws Exception {
     final Configuration config = new Configuration();
+    config.setReflectorFactory(new MethodHandleReflectorFactory());
+    final ResultMap resultMap = new ResultMap.Builder(config, "primitiveMap", PrimitiveBean.class, Collections.singletonList(
+      new ResultMapping.Builder(config, "count", "count", config.getTypeHandlerRegistry().getTypeHandler(int.class)).build())).build();
+    final MappedStatement ms = new MappedStatement.Builder(config, "testSelect", new StaticSqlSource(config, "some select statement"), SqlCommandType.SELECT)
+      .resultMaps(Collections.singletonList(resultMap)).build();
+    final DefaultResultSetHandler resultSetHandler = new DefaultResultSetHandler(null/*executor*/, ms,
+            null/*parameterHandler*/, null/*resultHandler*/, null/*boundSql*/, new RowBounds(0, 100));
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+    when(rs.getInt("count")).thenReturn(1).thenReturn(0);
+    when(rs.getLong("TOTAL")).thenReturn(2L).thenReturn(3L);
+    when(rs.getDouble("RATIO")).thenReturn(0.5d).thenReturn(0d);
+    // the second row has a zero ratio and a null count
+    when(rs.wasNull()).thenReturn(false).thenReturn(true);
+    when(rsmd.getColumnCount()).thenReturn(3);
+    when(rsmd.getColumnLabel(1)).thenReturn("count");
+    when(rsmd.getColumnLabel(2)).thenReturn("TOTAL");
+    when(rsmd.getColumnLabel(3)).thenReturn("RATIO");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnType(2)).thenReturn(Types.BIGINT);
+    when(rsmd.getColumnType(3)).thenReturn(Types.DOUBLE);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(rsmd.getColumnClassName(2)).thenReturn(Long.class.getCanonicalName());
+    when(rsmd.getColumnClassName(3)).thenReturn(Double.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    final List<Object> results = resultSetHandler.handleResultSets(stmt);
+    assertEquals(2, results.size());
+    PrimitiveBean first = (PrimitiveBean) results.get(0);
+    assertEquals(1, first.getCount());
+    assertEquals(2L, first.getTotal());
+    assertEquals(0.5d, first.getRatio());
+    PrimitiveBean second = (PrimitiveBean) results.get(1);
+    assertEquals(-1, second.getCount());
+    assertEquals(3L, second.getTotal());
+    assertEquals(0d, second.getRatio());
+  }
+
+  MappedStatement getMappedStatement() {
+    return getMappedStatement(new Configuration());
+  }
+
+  MappedStatement getMappedStatement(final Configuration config) {
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
     return new MappedStatement.Builder(config, "testSelect", new StaticSqlSource(config, "some select statement"), SqlCommandType.SELECT).resultMaps(
         new ArrayList<ResultMap>() {
@@ -144,4 +224,34 @@ class DefaultResultSetHandlerTest {
         }).build();
   }
 
+  public static class PrimitiveBean {
+    private int count = -1;
+    private long total;
+    private double ratio = -1d;
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    public long getTotal() {
+      return total;
+    }
+
+    public void setTotal(long total) {
+      this.total = total;
+    }
+
+    public double getRatio() {
+      return ratio;
+    }
+
+    public void setRatio(double ratio) {
+      this.ratio = ratio;
+    }
+  }
+
 }
@@ -0,0 +1,144 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClasspathIndexTest {
+
+  @TempDir
+  File tempDir;
+
+  @AfterEach
+  void clearIndex() {
+    ClasspathIndex.clear();
+  }
+
+  @Test
+  void shouldListResourcesByPath() throws IOException {
+    File jar = createJar("a.jar", "org/", "org/apache/", "org/apache/A.class", "org/apache/b/B.class", "org/apachex/C.class", "D.class");
+    assertEquals(Arrays.asList("org/apache/A.class", "org/apache/b/B.class"), ClasspathIndex.list(jar, "org/apache"));
+    assertEquals(Collections.singletonList("org/apache/b/B.class"), ClasspathIndex.list(jar, "/org/apache/b/"));
+    assertEquals(Collections.emptyList(), ClasspathIndex.list(jar, "com"));
+  }
+
+  @Test
+  void shouldReindexModifiedJar() throws IOException {
+    File jar = createJar("a.jar", "org/apache/A.class");
+    assertEquals(Collections.singletonList("org/apache/A.class"), ClasspathIndex.list(jar, "org/apache"));
+    jar = createJar("a.jar", "org/apache/A.class", "org/apache/B.class");
+    assertEquals(Arrays.asList("org/apache/A.class", "org/apache/B.class"), ClasspathIndex.list(jar, "org/apache"));
+  }
+
+  @Test
+  void shouldSaveAndLoadIndex() throws IOException {
+    File jar = createJar("a.jar", "org/apache/A.class");
+    ClasspathIndex.list(jar, "org/apache");
+    File index = new File(tempDir, "index.bin");
+    ClasspathIndex.save(index);
+    ClasspathIndex.clear();
+
+    ClasspathIndex.load(index);
+    assertEquals(Collections.singletonList("org/apache/A.class"), ClasspathIndex.list(jar, "org"));
+    // the loaded entry is still valid, so nothing was indexed again and the file is not rewritten
+    assertTrue(index.setLastModified(0));
+    ClasspathIndex.save(index);
+    assertEquals(0, index.lastModified());
+
+    ClasspathIndex.load(new File(tempDir, "missing.bin"));
+  }
+
+  @Test
+  void shouldIgnoreCorruptIndex() throws IOException {
+    File jar = createJar("a.jar", "org/apache/A.class");
+    ClasspathIndex.list(jar, "org/apache");
+    File index = new File(tempDir, "index.bin");
+    ClasspathIndex.save(index);
+    ClasspathIndex.clear();
+    byte[] content = Files.readAllBytes(index.toPath());
+
+    // truncated
+    Files.write(index.toPath(), Arrays.copyOf(content, content.length - 3));
+    ClasspathIndex.load(index);
+    // not an index file
+    Files.write(index.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    ClasspathIndex.load(index);
+
+    // nothing was loaded, so the jar is indexed again and the file is rewritten
+    assertEquals(Collections.singletonList("org/apache/A.class"), ClasspathIndex.list(jar, "org"));
+    ClasspathIndex.save(index);
+    assertArrayEquals(content, Files.readAllBytes(index.toPath()));
+  }
+
+  @Test
+  void shouldIgnoreUnwritableIndex() throws IOException {
+    File jar = createJar("a.jar", "org/apache/A.class");
+    ClasspathIndex.list(jar, "org/apache");
+    File notADirectory = new File(tempDir, "file");
+    assertTrue(notADirectory.createNewFile());
+
+    ClasspathIndex.save(new File(notADirectory, "index.bin"));
+    assertEquals(Collections.singletonList("file"), Arrays.asList(tempDir.list((dir, name) -> !name.endsWith(".jar"))));
+  }
+
+  @Test
+  void defaultVfsShouldListJarThroughIndex() throws IOException {
+    File jar = createJar("vfs.jar", "org/apache/ibatis/vfstest/", "org/apache/ibatis/vfstest/A.class", "org/apache/ibatis/vfstest/sub/B.xml", "org/other/C.class");
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, null)) {
+      Thread.currentThread().setContextClassLoader(loader);
+      List<String> resources = new DefaultVFS().list("org/apache/ibatis/vfstest");
+      assertEquals(Arrays.asList("org/apache/ibatis/vfstest/A.class", "org/apache/ibatis/vfstest/sub/B.xml"), resources);
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  private File createJar(String name, String... entries) throws IOException {
+    File jar = new File(tempDir, name);
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+      for (String entry : entries) {
+        out.putNextEntry(new ZipEntry(entry));
+        if (!entry.endsWith("/")) {
+          out.write(entry.getBytes("UTF-8"));
+        }
+        out.closeEntry();
+      }
+    }
+    // make sure a rewritten jar is seen as modified
+    jar.setLastModified(System.currentTimeMillis() + entries.length * 2000L);
+    return jar;
+  }
+
+}
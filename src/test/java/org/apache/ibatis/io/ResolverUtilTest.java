@@ -19,6 +19,9 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.ibatis.annotations.CacheNamespace;
@@ -109,6 +112,29 @@ class ResolverUtilTest {
     classSets.forEach(c -> assertTrue(VFS.class.isAssignableFrom(c)));
   }
 
+  @Test
+  void findShouldNotLoadClassesThatCannotMatch() {
+    List<String> loaded = new ArrayList<>();
+    ResolverUtil<VFS> resolverUtil = new ResolverUtil<>();
+    resolverUtil.setClassLoader(new ClassLoader(currentContextClassLoader) {
+      @Override
+      public Class<?> loadClass(String name) throws ClassNotFoundException {
+        loaded.add(name);
+        return super.loadClass(name);
+      }
+    });
+    resolverUtil.findImplementations(VFS.class, "org.apache.ibatis.io");
+    assertEquals(3, resolverUtil.getClasses().size());
+    assertEquals(3, loaded.size());
+
+    loaded.clear();
+    ResolverUtil<Object> annotated = new ResolverUtil<>();
+    annotated.setClassLoader(resolverUtil.getClassLoader());
+    annotated.findAnnotated(CacheNamespace.class, this.getClass().getPackage().getName());
+    assertEquals(1, annotated.getClasses().size());
+    assertEquals(Collections.singletonList(TestMapper.class.getName()), loaded);
+  }
+
   @Test
   void getPackagePath() {
     ResolverUtil resolverUtil = new ResolverUtil();
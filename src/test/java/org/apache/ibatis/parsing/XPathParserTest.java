@@ -16,6 +16,7 @@
 package org.apache.ibatis.parsing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -23,6 +24,10 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.io.Resources;
@@ -178,6 +183,36 @@ class XPathParserTest {
     }
   }
 
+  @Test
+  void constructorWithStreamingDocument() throws IOException {
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      XPathParser parser = new XPathParser(StreamingDocumentBuilder.build(inputStream, null), false);
+      testEvalMethod(parser);
+      assertEquals("Jim", parser.evalNode("/employee/first_name").getStringBody());
+      assertEquals("\n  ", parser.evalNode("/employee").getNode().getFirstChild().getNodeValue());
+    }
+  }
+
+  @Test
+  void evalSimplePathsInDocumentOrder() throws IOException {
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      XPathParser parser = new XPathParser(inputStream, false);
+      XNode employee = parser.evalNode("/*");
+      assertEquals("employee", employee.getName());
+      assertEquals(Arrays.asList("first_name", "height", "weight"), names(employee.evalNodes("weight|height|first_name")));
+      assertEquals(Arrays.asList("year", "month", "day"), names(parser.evalNodes("/employee/birth_date/*")));
+      assertEquals("1970", employee.evalNode("birth_date/year").getStringBody());
+      assertEquals(0, employee.evalNodes("missing").size());
+      assertNull(parser.evalNode("/employee/missing"));
+      // not a simple path, still evaluated by xpath
+      assertEquals(Collections.singletonList("weight"), names(parser.evalNodes("/employee/*[@units='lbs']")));
+    }
+  }
+
+  private static List<String> names(List<XNode> nodes) {
+    return nodes.stream().map(XNode::getName).collect(Collectors.toList());
+  }
+
   private void testEvalMethod(XPathParser parser) {
     assertEquals((Long) 1970L, parser.evalLong("/employee/birth_date/year"));
     assertEquals((short) 6, (short) parser.evalShort("/employee/birth_date/month"));
@@ -15,9 +15,14 @@
  */
 package org.apache.ibatis.plugin;
 
+import org.apache.ibatis.reflection.SystemMetaObject;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,6 +43,160 @@ class PluginTest {
     assertNotEquals("Always", map.toString());
   }
 
+  @Test
+  void shouldComposeInterceptorsIntoOneProxy() {
+    List<String> calls = new ArrayList<>();
+    Map<String, String> map = new HashMap<>();
+    map.put("key", "value");
+    Object wrapped = new TracingMapPlugin("inner", calls).plugin(map);
+    wrapped = new TracingMapPlugin("outer", calls).plugin(wrapped);
+    wrapped = new AlwaysMapPlugin().plugin(new SizeOnlyPlugin().plugin(wrapped));
+    Object handler = Proxy.getInvocationHandler(wrapped);
+    assertSame(map, SystemMetaObject.forObject(handler).getValue("target"));
+
+    @SuppressWarnings("unchecked")
+    Map<String, String> composed = (Map<String, String>) new TracingMapPlugin("outermost", calls).plugin(map);
+    composed = (Map<String, String>) new TracingMapPlugin("next", calls).plugin(composed);
+    assertEquals("value", composed.get("key"));
+    assertEquals("[next, outermost]", calls.toString());
+    assertEquals(1, composed.size());
+  }
+
+  @Test
+  void shouldExposeRemainingChainAsTarget() {
+    List<String> calls = new ArrayList<>();
+    Object wrapped = new TracingMapPlugin("inner", calls).plugin(new HashMap<>());
+    wrapped = new TargetCallingPlugin().plugin(wrapped);
+    assertEquals("direct", ((Map<?, ?>) wrapped).get("key"));
+    assertEquals("[inner]", calls.toString());
+  }
+
+  @Test
+  void shouldWrapInnerInterceptorExceptionsOnProceed() {
+    Object wrapped = new FailingMapPlugin().plugin(new HashMap<>());
+    wrapped = new ProceedCheckingPlugin().plugin(wrapped);
+    IllegalStateException e = assertThrows(IllegalStateException.class, ((Map<?, ?>) wrapped)::isEmpty);
+    assertEquals("failed", e.getMessage());
+  }
+
+  @Test
+  void shouldShareComposedDispatcherAcrossTargetsOfSameType() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new TracingMapPlugin("first", calls));
+    chain.addInterceptor(new SizeOnlyPlugin());
+    chain.addInterceptor(new TracingMapPlugin("last", calls));
+    Map<String, String> first = new HashMap<>();
+    first.put("key", "one");
+    @SuppressWarnings("unchecked")
+    Map<String, String> wrappedFirst = (Map<String, String>) chain.pluginAll(first);
+    @SuppressWarnings("unchecked")
+    Map<String, String> wrappedSecond = (Map<String, String>) chain.pluginAll(new HashMap<String, String>());
+
+    Object firstHandler = Proxy.getInvocationHandler(wrappedFirst);
+    Object secondHandler = Proxy.getInvocationHandler(wrappedSecond);
+    assertSame(first, SystemMetaObject.forObject(firstHandler).getValue("target"));
+    assertSame(SystemMetaObject.forObject(firstHandler).getValue("dispatcher"),
+        SystemMetaObject.forObject(secondHandler).getValue("dispatcher"));
+    assertEquals("one", wrappedFirst.get("key"));
+    assertEquals("[last, first]", calls.toString());
+    assertEquals(1, wrappedFirst.size());
+
+    // the same order as wrapping one by one
+    Object wrapped = new TracingMapPlugin("last", calls).plugin(new SizeOnlyPlugin().plugin(new TracingMapPlugin("first", calls).plugin(first)));
+    assertArrayEquals(wrappedFirst.getClass().getInterfaces(), wrapped.getClass().getInterfaces());
+    assertNotSame(first, chain.pluginAll(first));
+    assertEquals("plain", chain.pluginAll("plain"));
+  }
+
+  @Test
+  void shouldCallOverriddenPluginMethod() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new TracingMapPlugin("inner", calls));
+    chain.addInterceptor(new CustomPluginMethodPlugin("outer", calls));
+    Map<?, ?> wrapped = (Map<?, ?>) chain.pluginAll(new HashMap<>());
+    assertNull(wrapped.get("key"));
+    assertEquals("[plugin, outer, inner]", calls.toString());
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class TracingMapPlugin implements Interceptor {
+    private final String name;
+    private final List<String> calls;
+
+    TracingMapPlugin(String name, List<String> calls) {
+      this.name = name;
+      this.calls = calls;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.add(name);
+      return invocation.proceed();
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class CustomPluginMethodPlugin extends TracingMapPlugin {
+    private final List<String> calls;
+
+    CustomPluginMethodPlugin(String name, List<String> calls) {
+      super(name, calls);
+      this.calls = calls;
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      calls.add("plugin");
+      return Plugin.wrap(target, this);
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "size", args = {})})
+  public static class SizeOnlyPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      return invocation.proceed();
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class TargetCallingPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) {
+      Map<?, ?> target = (Map<?, ?>) invocation.getTarget();
+      assertTrue(Proxy.isProxyClass(target.getClass()));
+      return target.get(invocation.getArgs()[0]) == null ? "direct" : "unexpected";
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "isEmpty", args = {})})
+  public static class FailingMapPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) {
+      throw new IllegalStateException("failed");
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "isEmpty", args = {})})
+  public static class ProceedCheckingPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      try {
+        return invocation.proceed();
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
   @Intercepts({
       @Signature(type = Map.class, method = "get", args = {Object.class})})
   public static class AlwaysMapPlugin implements Interceptor {
@@ -0,0 +1,171 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleInvoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveGetter;
+import org.apache.ibatis.reflection.invoker.PrimitiveSetter;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.junit.jupiter.api.Test;
+
+class MethodHandleReflectorFactoryTest {
+
+  private final ReflectorFactory reflectorFactory = new MethodHandleReflectorFactory();
+
+  @Test
+  void shouldGetAndSetThroughMethods() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    Bean bean = new Bean();
+    Invoker setter = reflector.getSetInvoker("name");
+    assertThat(setter).isInstanceOf(MethodHandleInvoker.class);
+    setter.invoke(bean, new Object[] {"foo"});
+    assertEquals("foo", reflector.getGetInvoker("name").invoke(bean, null));
+  }
+
+  @Test
+  void shouldGetAndSetPrivateFields() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    Bean bean = new Bean();
+    reflector.getSetInvoker("count").invoke(bean, new Object[] {3});
+    assertEquals(3, reflector.getGetInvoker("count").invoke(bean, null));
+    assertEquals(int.class, reflector.getSetInvoker("count").getType());
+  }
+
+  @Test
+  void shouldReadStaticField() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    assertEquals("constant", reflector.getGetInvoker("CONSTANT").invoke(new Bean(), null));
+  }
+
+  @Test
+  void shouldSetFinalFieldLikeReflection() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    Bean bean = new Bean();
+    reflector.getSetInvoker("id").invoke(bean, new Object[] {2L});
+    assertEquals(2L, reflector.getGetInvoker("id").invoke(bean, null));
+  }
+
+  @Test
+  void shouldRejectNullForPrimitive() {
+    Invoker setter = reflectorFactory.findForClass(Bean.class).getSetInvoker("count");
+    assertThrows(IllegalArgumentException.class, () -> setter.invoke(new Bean(), new Object[] {null}));
+    assertThrows(IllegalArgumentException.class, () -> setter.invoke(new Bean(), new Object[] {"1"}));
+  }
+
+  @Test
+  void shouldWidenPrimitiveArgumentsLikeReflection() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    Bean bean = new Bean();
+    reflector.getSetInvoker("id").invoke(bean, new Object[] {7});
+    assertEquals(7L, reflector.getGetInvoker("id").invoke(bean, null));
+    reflector.getSetInvoker("count").invoke(bean, new Object[] {'a'});
+    assertEquals(97, reflector.getGetInvoker("count").invoke(bean, null));
+    // narrowing is rejected, as Method.invoke does
+    assertThrows(IllegalArgumentException.class, () -> reflector.getSetInvoker("count").invoke(bean, new Object[] {1L}));
+    assertThrows(IllegalArgumentException.class, () -> reflector.getSetInvoker("count").invoke(bean, new Object[] {1.0}));
+  }
+
+  @Test
+  void shouldRejectWrongTargetLikeReflection() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    assertThrows(IllegalArgumentException.class, () -> reflector.getGetInvoker("name").invoke("bean", null));
+    assertThrows(IllegalArgumentException.class, () -> reflector.getSetInvoker("name").invoke("bean", new Object[] {"foo"}));
+    assertThrows(IllegalArgumentException.class, () -> ((PrimitiveGetter) reflector.getGetInvoker("count")).getInt("bean"));
+    assertThrows(NullPointerException.class, () -> reflector.getGetInvoker("count").invoke(null, null));
+    // static members ignore the target
+    assertEquals("constant", reflector.getGetInvoker("CONSTANT").invoke(null, null));
+  }
+
+  @Test
+  void shouldWrapExceptionThrownByAccessor() {
+    Invoker getter = reflectorFactory.findForClass(Bean.class).getGetInvoker("broken");
+    InvocationTargetException e = assertThrows(InvocationTargetException.class, () -> getter.invoke(new Bean(), null));
+    assertThat(e.getTargetException()).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void shouldGetAndSetPrimitivesWithoutBoxing() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    Bean bean = new Bean();
+    PrimitiveSetter setter = (PrimitiveSetter) reflector.getSetInvoker("count");
+    PrimitiveGetter getter = (PrimitiveGetter) reflector.getGetInvoker("count");
+    setter.setInt(bean, 5);
+    assertEquals(5, getter.getInt(bean));
+    assertThrows(IllegalArgumentException.class, () -> setter.setLong(bean, 5L));
+    assertThrows(IllegalArgumentException.class, () -> getter.getDouble(bean));
+    assertThrows(IllegalArgumentException.class, () -> ((PrimitiveSetter) reflector.getSetInvoker("name")).setInt(bean, 1));
+  }
+
+  @Test
+  void shouldResolveGenericGetterType() {
+    MetaClass metaClass = MetaClass.forClass(Bean.class, reflectorFactory);
+    assertEquals(String.class, metaClass.getGetterType("tags[0]"));
+  }
+
+  @Test
+  void shouldWorkWithMetaObject() {
+    Bean bean = new Bean();
+    MetaObject metaObject = MetaObject.forObject(bean, new DefaultObjectFactory(), new DefaultObjectWrapperFactory(), reflectorFactory);
+    metaObject.setValue("name", "bar");
+    metaObject.setValue("child.name", "baz");
+    assertEquals("bar", bean.getName());
+    assertEquals("baz", metaObject.getValue("child.name"));
+    assertNull(metaObject.getValue("child.child"));
+  }
+
+  static class Bean {
+    private static final String CONSTANT = "constant";
+    private final long id = 1L;
+    private int count;
+    private String name;
+    private Bean child;
+    private List<String> tags;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public Bean getChild() {
+      return child;
+    }
+
+    public void setChild(Bean child) {
+      this.child = child;
+    }
+
+    public List<String> getTags() {
+      return tags;
+    }
+
+    public String getBroken() {
+      throw new IllegalStateException("broken");
+    }
+  }
+}
@@ -23,7 +23,11 @@ import java.util.HashMap;
 import java.util.List;
 
 import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.reflection.MethodHandleReflectorFactory;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.scripting.xmltags.StaticTextSqlNode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
@@ -36,6 +40,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -70,8 +76,134 @@ class DefaultParameterHandlerTest {
 
   }
 
-  MappedStatement getMappedStatement() {
+  @Test
+  void shouldReuseBindingPlanAcrossExecutions() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    List<ParameterMapping> parameterMappings = new ArrayList<>();
+    parameterMappings.add(new ParameterMapping.Builder(config, "id", registry.getTypeHandler(int.class)).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "username", registry.getTypeHandler(String.class)).build());
+
+    PreparedStatement ps = mock(PreparedStatement.class);
+    Author first = new Author(1, "jim", null, null, null, null);
+    new DefaultParameterHandler(mappedStatement, first, new BoundSql(config, "insert", parameterMappings, first)).setParameters(ps);
+    ParameterBindingPlan plan = mappedStatement.getParameterBinder().getPlan(config, mappedStatement.getSqlSource(), parameterMappings, first);
+    Author second = new Author(2, "sally", null, null, null, null);
+    new DefaultParameterHandler(mappedStatement, second, new BoundSql(config, "insert", parameterMappings, second)).setParameters(ps);
+
+    Assertions.assertSame(plan, mappedStatement.getParameterBinder().getPlan(config, mappedStatement.getSqlSource(), parameterMappings, second));
+    verify(ps).setInt(1, 1);
+    verify(ps).setString(2, "jim");
+    verify(ps).setInt(1, 2);
+    verify(ps).setString(2, "sally");
+  }
+
+  @Test
+  void shouldRebuildBindingPlanWhenParameterTypeChanges() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    List<ParameterMapping> parameterMappings = Collections.singletonList(
+        new ParameterMapping.Builder(config, "username", config.getTypeHandlerRegistry().getTypeHandler(String.class)).build());
+
+    PreparedStatement ps = mock(PreparedStatement.class);
+    Author author = new Author(1, "jim", null, null, null, null);
+    new DefaultParameterHandler(mappedStatement, author, new BoundSql(config, "select", parameterMappings, author)).setParameters(ps);
+    ParameterBindingPlan plan = mappedStatement.getParameterBinder().getPlan(config, mappedStatement.getSqlSource(), parameterMappings, author);
+    HashMap<String, Object> map = new HashMap<>();
+    map.put("username", "sally");
+    new DefaultParameterHandler(mappedStatement, map, new BoundSql(config, "select", parameterMappings, map)).setParameters(ps);
+    BoundSql boundSql = new BoundSql(config, "select", parameterMappings, map);
+    boundSql.setAdditionalParameter("username", "bob");
+    new DefaultParameterHandler(mappedStatement, map, boundSql).setParameters(ps);
+
+    Assertions.assertNotSame(plan, mappedStatement.getParameterBinder().getPlan(config, mappedStatement.getSqlSource(), parameterMappings, map));
+    // alternating parameter types keep their own plans
+    Assertions.assertSame(plan, mappedStatement.getParameterBinder().getPlan(config, mappedStatement.getSqlSource(), parameterMappings, author));
+    verify(ps).setString(1, "jim");
+    verify(ps).setString(1, "sally");
+    verify(ps).setString(1, "bob");
+  }
+
+  @Test
+  void shouldBindPrimitivePropertiesWithoutBoxing() throws SQLException {
+    final Configuration config = new Configuration();
+    config.setReflectorFactory(new MethodHandleReflectorFactory());
+    final MappedStatement mappedStatement = getMappedStatement(config);
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    List<ParameterMapping> parameterMappings = new ArrayList<>();
+    parameterMappings.add(new ParameterMapping.Builder(config, "id", registry.getTypeHandler(int.class)).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "username", registry.getTypeHandler(String.class)).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "id", registry.getTypeHandler(int.class)).build());
+
+    PreparedStatement ps = mock(PreparedStatement.class);
+    Author author = new Author(7, "jim", null, null, null, null);
+    BoundSql boundSql = new BoundSql(config, "insert", parameterMappings, author);
+    boundSql.setAdditionalParameter("id", 8);
+    new DefaultParameterHandler(mappedStatement, author, new BoundSql(config, "insert", parameterMappings, author)).setParameters(ps);
+    new DefaultParameterHandler(mappedStatement, author, boundSql).setParameters(ps);
+
+    ParameterBindingPlan plan = mappedStatement.getParameterBinder().getPlan(config, mappedStatement.getSqlSource(), parameterMappings, author);
+    Assertions.assertTrue(plan.isPrimitive(0));
+    Assertions.assertFalse(plan.isPrimitive(1));
+    verify(ps).setInt(1, 7);
+    verify(ps).setInt(3, 7);
+    // additional parameters still come first
+    verify(ps).setInt(1, 8);
+    verify(ps).setInt(3, 8);
+    verify(ps, times(2)).setString(2, "jim");
+  }
+
+  @Test
+  void shouldNotCacheBindingPlanForUncachedDynamicSql() throws SQLException {
+    final Configuration config = new Configuration();
+    final MappedStatement mappedStatement = getDynamicMappedStatement(config);
+    Author author = new Author(1, "jim", null, null, null, null);
+    BoundSql boundSql = mappedStatement.getBoundSql(author);
+
+    PreparedStatement ps = mock(PreparedStatement.class);
+    new DefaultParameterHandler(mappedStatement, author, boundSql).setParameters(ps);
+
+    // every execution gets a new mapping list, so a plan is built for each one and never kept
+    ParameterBinder binder = mappedStatement.getParameterBinder();
+    Assertions.assertNotSame(binder.getPlan(config, mappedStatement.getSqlSource(), boundSql.getParameterMappings(), author),
+        binder.getPlan(config, mappedStatement.getSqlSource(), boundSql.getParameterMappings(), author));
+    verify(ps).setString(1, "jim");
+  }
+
+  @Test
+  void shouldCacheBindingPlanForCachedDynamicSqlShape() throws SQLException {
     final Configuration config = new Configuration();
+    config.setDynamicSqlShapeCacheSize(8);
+    final MappedStatement mappedStatement = getDynamicMappedStatement(config);
+    Author first = new Author(1, "jim", null, null, null, null);
+    Author second = new Author(2, "sally", null, null, null, null);
+    BoundSql firstBoundSql = mappedStatement.getBoundSql(first);
+    BoundSql secondBoundSql = mappedStatement.getBoundSql(second);
+    Assertions.assertSame(firstBoundSql.getParameterMappings(), secondBoundSql.getParameterMappings());
+
+    PreparedStatement ps = mock(PreparedStatement.class);
+    new DefaultParameterHandler(mappedStatement, first, firstBoundSql).setParameters(ps);
+    new DefaultParameterHandler(mappedStatement, second, secondBoundSql).setParameters(ps);
+
+    ParameterBinder binder = mappedStatement.getParameterBinder();
+    Assertions.assertSame(binder.getPlan(config, mappedStatement.getSqlSource(), firstBoundSql.getParameterMappings(), first),
+        binder.getPlan(config, mappedStatement.getSqlSource(), secondBoundSql.getParameterMappings(), second));
+    verify(ps).setString(1, "jim");
+    verify(ps).setString(1, "sally");
+  }
+
+  MappedStatement getDynamicMappedStatement(final Configuration config) {
+    DynamicSqlSource sqlSource = new DynamicSqlSource(config,
+        new StaticTextSqlNode("select * from author where username = #{username}"));
+    return new MappedStatement.Builder(config, "testDynamicSelect", sqlSource, SqlCommandType.SELECT).build();
+  }
+
+  MappedStatement getMappedStatement() {
+    return getMappedStatement(new Configuration());
+  }
+
+  MappedStatement getMappedStatement(final Configuration config) {
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
     return new MappedStatement.Builder(config, "testSelect", new StaticSqlSource(config, "some select statement"), SqlCommandType.SELECT).resultMaps(
         new ArrayList<ResultMap>() {
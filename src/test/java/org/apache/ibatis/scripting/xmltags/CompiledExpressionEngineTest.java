@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CompiledExpressionEngineTest {
+
+  private static final String[] EXPRESSIONS = {
+      "name", "name != null", "name != null and name != ''", "name == 'cbegin'", "name eq \"cbegin\"",
+      "name != null && name.length() > 3", "name.trim() != ''", "!flag", "not flag", "flag == true",
+      "flag", "id", "id == 1", "id neq 1", "id > 0 and id <= 10", "id >= 1L", "id == 1.0", "count == id",
+      "ratio > 0", "ratio < id", "amount > 0", "amount == 1", "code == 'Y'", "name == 1",
+      "list != null and list.size() > 0", "list.isEmpty()", "map.size > 0", "map.key == 'value'", "map.isEmpty()",
+      "author.username == 'cbegin'", "author.id > 0 or name == null", "(id == 1 or id == 2) and flag",
+      "name and flag", "name or flag", "missing", "missing == null", "_parameter.name", "_databaseId == null",
+      "ids == null or ids.length == 0"
+  };
+
+  private final ExpressionEngine ognl = new OgnlExpressionEngine();
+  private final ExpressionEngine compiled = new CompiledExpressionEngine();
+
+  @Test
+  void shouldEvaluateLikeOgnl() {
+    for (Map<String, Object> parameter : Arrays.asList(parameter("cbegin", true, 1), parameter("  ", false, 0), parameter(null, null, 7))) {
+      Map<String, Object> bindings = new DynamicContext(new Configuration(), parameter).getBindings();
+      for (String expression : EXPRESSIONS) {
+        Object expected;
+        try {
+          expected = ognl.getValue(expression, bindings);
+        } catch (RuntimeException e) {
+          assertThrows(e.getClass(), () -> compiled.getValue(expression, bindings), expression);
+          continue;
+        }
+        assertEquals(expected, compiled.getValue(expression, bindings), expression + " with " + parameter);
+      }
+    }
+  }
+
+  @Test
+  void shouldEvaluateAgainstBean() {
+    Author author = new Author(1, "cbegin", "******", "cbegin@apache.org", "N/A", Section.NEWS);
+    assertEquals(Boolean.TRUE, compiled.getValue("username == 'cbegin' and id > 0", author));
+    assertEquals(Boolean.FALSE, compiled.getValue("password == null", author));
+  }
+
+  @Test
+  void shouldCompileCommonExpressions() {
+    for (String expression : new String[] {"name != null and name != ''", "list != null and list.size() > 0",
+        "author.username == 'cbegin'", "!(id == 1 or id == 2)", "id gte 10 && flag"}) {
+      assertThat(new ExpressionCompiler(expression, new DefaultReflectorFactory()).compile())
+          .as(expression).isNotSameAs(ExpressionCompiler.NOT_COMPILED);
+    }
+  }
+
+  @Test
+  void shouldLeaveOtherExpressionsToOgnl() {
+    for (String expression : new String[] {"code == 'Y'", "id + 1", "list[0]", "@java.lang.Math@max(1, 2)",
+        "id == 1.0", "id == 1L", "name.equals('a')", "id in {1, 2}", "#this"}) {
+      assertThat(new ExpressionCompiler(expression, new DefaultReflectorFactory()).compile())
+          .as(expression).isSameAs(ExpressionCompiler.NOT_COMPILED);
+    }
+  }
+
+  @Test
+  void shouldNotEvaluateAgainWithOgnlWhenGetterThrows() {
+    CountingBean bean = new CountingBean();
+    assertThrows(BuilderException.class, () -> compiled.getValue("failing != null", bean));
+    assertEquals(1, bean.calls);
+  }
+
+  @Test
+  void shouldUseOgnlAfterFirstFallback() {
+    CompiledExpressionEngine engine = new CompiledExpressionEngine();
+    CountingBean bean = new CountingBean();
+    // a string compared with a number is left to OGNL
+    assertEquals(Boolean.TRUE, engine.getValue("name == 1", bean));
+    assertEquals(2, bean.calls);
+    assertEquals(Boolean.TRUE, engine.getValue("name == 1", bean));
+    assertEquals(3, bean.calls);
+  }
+
+  @Test
+  void shouldUseReflectorFactoryOfConfiguration() {
+    Configuration configuration = new Configuration();
+    CompiledExpressionEngine engine = new CompiledExpressionEngine();
+    configuration.setExpressionEngine(engine);
+    assertSame(configuration.getReflectorFactory(), engine.getReflectorFactory());
+    configuration.setReflectorFactory(new DefaultReflectorFactory());
+    assertSame(configuration.getReflectorFactory(), engine.getReflectorFactory());
+  }
+
+  public static class CountingBean {
+    private int calls;
+
+    public String getName() {
+      calls++;
+      return "1";
+    }
+
+    public String getFailing() {
+      calls++;
+      throw new IllegalStateException("failing getter");
+    }
+  }
+
+  private static Map<String, Object> parameter(String name, Boolean flag, int id) {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", name);
+    parameter.put("flag", flag);
+    parameter.put("id", id);
+    parameter.put("count", (long) id);
+    parameter.put("ratio", id / 2.0);
+    parameter.put("amount", BigDecimal.valueOf(id));
+    parameter.put("code", name == null ? null : "Y");
+    parameter.put("list", id == 0 ? Collections.emptyList() : Arrays.asList(1, 2));
+    parameter.put("map", Collections.singletonMap("key", "value"));
+    parameter.put("author", new Author(id, name, "******", "cbegin@apache.org", "N/A", Section.NEWS));
+    parameter.put("ids", new int[id]);
+    return parameter;
+  }
+
+}
@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar_result;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.result.ColumnarResult;
+import org.apache.ibatis.executor.result.ColumnarResult.ColumnType;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ColumnarResultTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/columnar_result/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/columnar_result/CreateDB.sql");
+  }
+
+  @Test
+  void shouldLoadColumnsIntoPrimitiveArrays() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).selectAll();
+      assertEquals(4, result.getRowCount());
+      assertEquals(Arrays.asList("ID", "SENSOR", "READING", "TAKEN_AT", "AMOUNT"), result.getColumnNames());
+
+      int id = result.getColumnIndex("id");
+      assertEquals(ColumnType.INT, result.getColumnType(id));
+      assertArrayEquals(new int[] {1, 2, 3, 4}, result.getInts(id));
+
+      int reading = result.getColumnIndex("reading");
+      assertEquals(ColumnType.DOUBLE, result.getColumnType(reading));
+      assertEquals(2.5, result.getDoubles(reading)[1]);
+      assertTrue(result.isNull(reading, 2));
+      assertFalse(result.isNull(reading, 3));
+
+      int takenAt = result.getColumnIndex("taken_at");
+      assertEquals(ColumnType.LONG, result.getColumnType(takenAt));
+      assertEquals(1000000000002L, result.getLongs(takenAt)[1]);
+      assertNull(result.getObject(takenAt, 3));
+
+      int amount = result.getColumnIndex("amount");
+      assertEquals(ColumnType.OBJECT, result.getColumnType(amount));
+      assertEquals(new BigDecimal("20.50"), result.getObject(amount, 1));
+    }
+  }
+
+  @Test
+  void shouldDictionaryEncodeStrings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult result = sqlSession.getMapper(Mapper.class).selectAll();
+      int sensor = result.getColumnIndex("sensor");
+      assertEquals(ColumnType.STRING, result.getColumnType(sensor));
+      assertArrayEquals(new String[] {"north", "south"}, result.getDictionary(sensor));
+      assertArrayEquals(new int[] {0, 1, 0, -1}, result.getStringCodes(sensor));
+      assertEquals("north", result.getString(sensor, 2));
+      assertNull(result.getString(sensor, 3));
+      assertThrows(IllegalStateException.class, () -> result.getInts(sensor));
+    }
+  }
+
+  @Test
+  void shouldApplyRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<ColumnarResult> results = sqlSession.selectList("org.apache.ibatis.submitted.columnar_result.Mapper.selectAll", null, new RowBounds(1, 2));
+      assertEquals(1, results.size());
+      ColumnarResult result = results.get(0);
+      assertEquals(2, result.getRowCount());
+      assertArrayEquals(new int[] {2, 3}, result.getInts(result.getColumnIndex("id")));
+    }
+  }
+
+}
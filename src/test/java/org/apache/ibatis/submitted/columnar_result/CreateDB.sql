@@ -0,0 +1,31 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table measurement if exists;
+
+create table measurement (
+  id int,
+  sensor varchar(20),
+  reading double,
+  taken_at bigint,
+  amount decimal(10, 2)
+);
+
+insert into measurement (id, sensor, reading, taken_at, amount) values (1, 'north', 1.5, 1000000000001, 10.25);
+insert into measurement (id, sensor, reading, taken_at, amount) values (2, 'south', 2.5, 1000000000002, 20.50);
+insert into measurement (id, sensor, reading, taken_at, amount) values (3, 'north', null, 1000000000003, null);
+insert into measurement (id, sensor, reading, taken_at, amount) values (4, null, 4.5, null, 40.00);
@@ -19,11 +19,15 @@ import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
@@ -139,4 +143,36 @@ class ForEachTest {
     }
   }
 
+  @Test
+  void shouldBindCollectionAsArray() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Assertions.assertEquals(3, mapper.countByIdArray(Arrays.asList(1, 3, 5, 99)));
+      Assertions.assertEquals(1, mapper.countByIdArray(Collections.singletonList(2)));
+      BoundSql first = sqlSession.getConfiguration().getMappedStatement("countByIdArray").getBoundSql(Collections.singletonMap("ids", Arrays.asList(1, 2)));
+      BoundSql second = sqlSession.getConfiguration().getMappedStatement("countByIdArray").getBoundSql(Collections.singletonMap("ids", Arrays.asList(1, 2, 3)));
+      Assertions.assertEquals(first.getSql(), second.getSql());
+    }
+  }
+
+  @Test
+  void shouldPadElementsToPowerOfTwo() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Assertions.assertEquals(2, mapper.countByPaddedIds(Arrays.asList(1, 2, 3), Arrays.asList(1, 6, 7)));
+      Assertions.assertEquals(5, mapper.countByPaddedIds(Arrays.asList(1, 2, 3, 4, 5), Collections.singletonList(6)));
+      MappedStatement ms = sqlSession.getConfiguration().getMappedStatement("countByPaddedIds");
+      Map<String, Object> three = new HashMap<>();
+      three.put("ids", Arrays.asList(1, 2, 3));
+      three.put("excluded", Arrays.asList(1, 6, 7));
+      Map<String, Object> four = new HashMap<>();
+      four.put("ids", Arrays.asList(1, 2, 3, 4));
+      four.put("excluded", Arrays.asList(1, 6, 7, 8));
+      BoundSql boundSql = ms.getBoundSql(three);
+      Assertions.assertEquals(boundSql.getSql(), ms.getBoundSql(four).getSql());
+      Assertions.assertEquals(8, boundSql.getParameterMappings().size());
+      Assertions.assertEquals(3, boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(3).getProperty()));
+    }
+  }
+
 }
@@ -0,0 +1,41 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table binary_parent if exists;
+drop table composite_parent if exists;
+
+create table binary_parent (
+  id varbinary(16),
+  name varchar(20),
+  child_name varchar(20)
+);
+
+create table composite_parent (
+  region varchar(20),
+  num int,
+  name varchar(20),
+  child_name varchar(20)
+);
+
+insert into binary_parent (id, name, child_name) values (X'0102', 'p1', 'c1');
+insert into binary_parent (id, name, child_name) values (X'0102', 'p1', 'c2');
+insert into binary_parent (id, name, child_name) values (X'0304', 'p2', 'c3');
+
+insert into composite_parent (region, num, name, child_name) values ('a', 1, 'a1', 'c1');
+insert into composite_parent (region, num, name, child_name) values ('a', 1, 'a1', 'c2');
+insert into composite_parent (region, num, name, child_name) values ('a', 2, 'a2', 'c3');
+insert into composite_parent (region, num, name, child_name) values ('b', 1, 'b1', 'c4');
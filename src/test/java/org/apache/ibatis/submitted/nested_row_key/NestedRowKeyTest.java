@@ -0,0 +1,71 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.nested_row_key;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class NestedRowKeyTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_row_key/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/nested_row_key/CreateDB.sql");
+  }
+
+  @Test
+  void shouldCollapseRowsWithBinaryId() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Parent> parents = sqlSession.getMapper(Mapper.class).selectByBinaryId();
+      assertThat(parents).extracting(Parent::getName).containsExactly("p1", "p2");
+      assertThat(parents.get(0).getId()).containsExactly(1, 2);
+      assertThat(childNames(parents.get(0))).containsExactly("c1", "c2");
+      assertThat(childNames(parents.get(1))).containsExactly("c3");
+    }
+  }
+
+  @Test
+  void shouldCollapseRowsWithCompositeId() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Parent> parents = sqlSession.getMapper(Mapper.class).selectByCompositeId();
+      assertThat(parents).extracting(Parent::getName).containsExactly("a1", "a2", "b1");
+      assertThat(childNames(parents.get(0))).containsExactly("c1", "c2");
+      assertThat(childNames(parents.get(1))).containsExactly("c3");
+      assertThat(childNames(parents.get(2))).containsExactly("c4");
+    }
+  }
+
+  private static List<String> childNames(Parent parent) {
+    return parent.getChildren().stream().map(Child::getName).collect(Collectors.toList());
+  }
+
+}
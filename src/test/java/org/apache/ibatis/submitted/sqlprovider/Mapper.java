@@ -50,6 +50,9 @@ public interface Mapper extends BaseMapper<User> {
   @SelectProvider(type = OurSqlBuilder.class, method = "buildGetUsersByNameWithParamNameAndOrderByQuery")
   List<User> getUsersByNameWithParamNameAndOrderBy(@Param("name") String name, @Param("orderByColumn") String orderByColumn);
 
+  @SelectProvider(type = OurSqlBuilder.class, method = "buildGetUsersByNameWithCachedOrderByQuery")
+  List<User> getUsersByNameWithCachedOrderBy(@Param("name") String name, @Param("orderByColumn") String orderByColumn);
+
   @SelectProvider(type = OurSqlBuilder.class, method = "buildGetUsersByNameWithParamNameQuery")
   List<User> getUsersByNameWithParamName(@Param("name") String name);
 
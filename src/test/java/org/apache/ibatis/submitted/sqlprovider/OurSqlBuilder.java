@@ -16,6 +16,7 @@
 package org.apache.ibatis.submitted.sqlprovider;
 
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ProviderCacheKey;
 import org.apache.ibatis.builder.annotation.ProviderContext;
 import org.apache.ibatis.jdbc.SQL;
 
@@ -26,9 +27,12 @@ import java.lang.reflect.Type;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class OurSqlBuilder {
 
+  static final AtomicInteger cachedOrderByInvocations = new AtomicInteger();
+
   public String buildGetUsersQuery(Map<String, Object> parameter) {
     // MyBatis wraps a single List parameter in a Map with the key="list",
     // so need to pull it out
@@ -119,6 +123,17 @@ public class OurSqlBuilder {
     }}.toString();
   }
 
+  @ProviderCacheKey({"orderByColumn"})
+  public String buildGetUsersByNameWithCachedOrderByQuery(@Param("name") final String name, @Param("orderByColumn") final String orderByColumn) {
+    cachedOrderByInvocations.incrementAndGet();
+    return new SQL(){{
+      SELECT("*");
+      FROM("users");
+      WHERE("name like #{name} || '%'");
+      ORDER_BY(orderByColumn);
+    }}.toString();
+  }
+
   public String buildGetUsersByNameWithParamNameQuery(@Param("name") final String name) {
     return new SQL(){{
       SELECT("*");
@@ -207,6 +207,24 @@ class SqlProviderTest {
     }
   }
 
+  @Test
+  void shouldReuseProviderSqlForTheSameCacheKey() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      int invocations = OurSqlBuilder.cachedOrderByInvocations.get();
+      List<User> users = mapper.getUsersByNameWithCachedOrderBy("User", "id DESC");
+      assertEquals(4, users.size());
+      assertEquals("User4", users.get(0).getName());
+      users = mapper.getUsersByNameWithCachedOrderBy("User1", "id DESC");
+      assertEquals(1, users.size());
+      assertEquals("User1", users.get(0).getName());
+      assertEquals(invocations + 1, OurSqlBuilder.cachedOrderByInvocations.get());
+      users = mapper.getUsersByNameWithCachedOrderBy("User", "id");
+      assertEquals("User1", users.get(0).getName());
+      assertEquals(invocations + 2, OurSqlBuilder.cachedOrderByInvocations.get());
+    }
+  }
+
   // Test for map with @Param
   @Test
   void shouldGetUsersByNameWithParamNameUsingMap() {
@@ -87,4 +87,16 @@ class DoubleTypeHandlerTest extends BaseTypeHandlerTest {
     assertNull(TYPE_HANDLER.getResult(cs, 1));
   }
 
-}
\ No newline at end of file
+  @Test
+  void shouldSetAndGetPrimitiveDouble() throws Exception {
+    PrimitiveDoubleTypeHandler handler = new DoubleTypeHandler();
+    handler.setDouble(ps, 1, 100.5d);
+    verify(ps).setDouble(1, 100.5d);
+
+    when(rs.getDouble("column")).thenReturn(100.5d);
+    assertEquals(100.5d, handler.getDouble(rs, "column"));
+    when(rs.getDouble(1)).thenReturn(200.5d);
+    assertEquals(200.5d, handler.getDouble(rs, 1));
+  }
+
+}
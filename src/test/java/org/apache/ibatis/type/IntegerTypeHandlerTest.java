@@ -87,4 +87,28 @@ class IntegerTypeHandlerTest extends BaseTypeHandlerTest {
     assertNull(TYPE_HANDLER.getResult(cs, 1));
   }
 
-}
\ No newline at end of file
+  @Test
+  void shouldSetAndGetPrimitiveInt() throws Exception {
+    PrimitiveIntTypeHandler handler = new IntegerTypeHandler();
+    handler.setInt(ps, 1, 100);
+    verify(ps).setInt(1, 100);
+
+    when(rs.getInt("column")).thenReturn(100);
+    assertEquals(100, handler.getInt(rs, "column"));
+    when(rs.getInt(1)).thenReturn(200);
+    assertEquals(200, handler.getInt(rs, 1));
+  }
+
+  @Test
+  void shouldOnlyUsePrimitivePathOfDeclaringHandler() {
+    assertEquals(int.class, PrimitiveTypeHandlers.getPrimitiveType(TYPE_HANDLER));
+    assertEquals(long.class, PrimitiveTypeHandlers.getPrimitiveType(new LongTypeHandler()));
+    assertEquals(double.class, PrimitiveTypeHandlers.getPrimitiveType(new DoubleTypeHandler()));
+    assertNull(PrimitiveTypeHandlers.getPrimitiveType(new ShortTypeHandler()));
+    // a subclass may override the boxed methods
+    assertNull(PrimitiveTypeHandlers.getPrimitiveType(new IntegerTypeHandler() {
+    }));
+    assertNull(PrimitiveTypeHandlers.getPrimitiveType(null));
+  }
+
+}
@@ -87,4 +87,16 @@ class LongTypeHandlerTest extends BaseTypeHandlerTest {
     assertNull(TYPE_HANDLER.getResult(cs, 1));
   }
 
-}
\ No newline at end of file
+  @Test
+  void shouldSetAndGetPrimitiveLong() throws Exception {
+    PrimitiveLongTypeHandler handler = new LongTypeHandler();
+    handler.setLong(ps, 1, 100L);
+    verify(ps).setLong(1, 100L);
+
+    when(rs.getLong("column")).thenReturn(100L);
+    assertEquals(100L, handler.getLong(rs, "column"));
+    when(rs.getLong(1)).thenReturn(200L);
+    assertEquals(200L, handler.getLong(rs, 1));
+  }
+
+}
@@ -0,0 +1,111 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+class StreamingBlobTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<InputStream> TYPE_HANDLER = new StreamingBlobTypeHandler();
+
+  @Mock
+  protected Blob blob;
+
+  @Override
+  @Test
+  public void shouldSetParameter() throws Exception {
+    InputStream in = new ByteArrayInputStream("Hello".getBytes());
+    TYPE_HANDLER.setParameter(ps, 1, in, null);
+    verify(ps).setBinaryStream(1, in);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByName() throws Exception {
+    when(rs.getBinaryStream("column")).thenReturn(new ByteArrayInputStream("Hello".getBytes()));
+    when(rs.getRow()).thenReturn(1);
+    InputStream in = TYPE_HANDLER.getResult(rs, "column");
+    assertThat(in.read()).isEqualTo('H');
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByName() throws Exception {
+    when(rs.getBinaryStream("column")).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, "column")).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByPosition() throws Exception {
+    when(rs.getBinaryStream(1)).thenReturn(new ByteArrayInputStream("Hello".getBytes()));
+    when(rs.getRow()).thenReturn(1);
+    InputStream in = TYPE_HANDLER.getResult(rs, 1);
+    assertThat(in.read()).isEqualTo('H');
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByPosition() throws Exception {
+    when(rs.getBinaryStream(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, 1)).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    InputStream in = new ByteArrayInputStream("Hello".getBytes());
+    when(cs.getBlob(1)).thenReturn(blob);
+    when(blob.getBinaryStream()).thenReturn(in);
+    assertThat(TYPE_HANDLER.getResult(cs, 1)).isSameAs(in);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromCallableStatement() throws Exception {
+    when(cs.getBlob(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(cs, 1)).isNull();
+  }
+
+  @Test
+  void shouldFailToReadAfterTheRowHasAdvanced() throws Exception {
+    when(rs.getBinaryStream("column")).thenReturn(new ByteArrayInputStream("Hello".getBytes()));
+    when(rs.getRow()).thenReturn(1, 2);
+    InputStream in = TYPE_HANDLER.getResult(rs, "column");
+    assertThrows(IOException.class, in::read);
+  }
+
+  @Test
+  void shouldFailToReadAfterTheResultSetIsClosed() throws Exception {
+    when(rs.getBinaryStream("column")).thenReturn(new ByteArrayInputStream("Hello".getBytes()));
+    when(rs.getRow()).thenReturn(1);
+    when(rs.isClosed()).thenReturn(true);
+    InputStream in = TYPE_HANDLER.getResult(rs, "column");
+    assertThrows(IOException.class, in::read);
+  }
+
+}
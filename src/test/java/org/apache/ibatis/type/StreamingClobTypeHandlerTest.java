@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.Clob;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+class StreamingClobTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<Reader> TYPE_HANDLER = new StreamingClobTypeHandler();
+
+  @Mock
+  protected Clob clob;
+
+  @Override
+  @Test
+  public void shouldSetParameter() throws Exception {
+    Reader reader = new StringReader("Hello");
+    TYPE_HANDLER.setParameter(ps, 1, reader, null);
+    verify(ps).setCharacterStream(1, reader);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByName() throws Exception {
+    when(rs.getCharacterStream("column")).thenReturn(new StringReader("Hello"));
+    when(rs.getRow()).thenReturn(1);
+    Reader reader = TYPE_HANDLER.getResult(rs, "column");
+    assertThat(reader.read()).isEqualTo('H');
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByName() throws Exception {
+    when(rs.getCharacterStream("column")).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, "column")).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByPosition() throws Exception {
+    when(rs.getCharacterStream(1)).thenReturn(new StringReader("Hello"));
+    when(rs.getRow()).thenReturn(1);
+    Reader reader = TYPE_HANDLER.getResult(rs, 1);
+    assertThat(reader.read()).isEqualTo('H');
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByPosition() throws Exception {
+    when(rs.getCharacterStream(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, 1)).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    Reader reader = new StringReader("Hello");
+    when(cs.getClob(1)).thenReturn(clob);
+    when(clob.getCharacterStream()).thenReturn(reader);
+    assertThat(TYPE_HANDLER.getResult(cs, 1)).isSameAs(reader);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromCallableStatement() throws Exception {
+    when(cs.getClob(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(cs, 1)).isNull();
+  }
+
+  @Test
+  void shouldFailToReadAfterTheRowHasAdvanced() throws Exception {
+    when(rs.getCharacterStream(1)).thenReturn(new StringReader("Hello"));
+    when(rs.getRow()).thenReturn(1, 2);
+    Reader reader = TYPE_HANDLER.getResult(rs, 1);
+    assertThrows(IOException.class, reader::read);
+  }
+
+}
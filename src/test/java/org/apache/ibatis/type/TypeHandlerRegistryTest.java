@@ -215,4 +215,25 @@ class TypeHandlerRegistryTest {
     typeHandlerRegistry.register(Address.class, StringTypeHandler.class);
     assertTrue(typeHandlerRegistry.hasTypeHandler(Address.class));
   }
+
+  @Test
+  void shouldResolveAgainAfterRegistering() {
+    TypeHandler<String> handler = typeHandlerRegistry.getTypeHandler(String.class, JdbcType.LONGVARCHAR);
+    assertSame(handler, typeHandlerRegistry.getTypeHandler(String.class, JdbcType.LONGVARCHAR));
+    assertNull(typeHandlerRegistry.getTypeHandler(RichType.class, JdbcType.VARCHAR));
+
+    typeHandlerRegistry.register(String.class, JdbcType.LONGVARCHAR, ClobTypeHandler.class);
+    typeHandlerRegistry.register(RichType.class, JdbcType.VARCHAR, StringTypeHandler.class);
+    assertSame(ClobTypeHandler.class, typeHandlerRegistry.getTypeHandler(String.class, JdbcType.LONGVARCHAR).getClass());
+    assertSame(StringTypeHandler.class, typeHandlerRegistry.getTypeHandler(RichType.class, JdbcType.VARCHAR).getClass());
+  }
+
+  @Test
+  void shouldResolveColumnTypeHandlerByClassName() {
+    assertSame(IntegerTypeHandler.class, typeHandlerRegistry.getColumnTypeHandler("java.lang.Integer", JdbcType.INTEGER).getClass());
+    assertSame(LongTypeHandler.class, typeHandlerRegistry.getColumnTypeHandler("java.lang.Long", null).getClass());
+    assertSame(typeHandlerRegistry.getTypeHandler(JdbcType.VARCHAR), typeHandlerRegistry.getColumnTypeHandler("no.such.Type", JdbcType.VARCHAR));
+    assertNull(typeHandlerRegistry.getColumnTypeHandler("no.such.Type", null));
+    assertNull(typeHandlerRegistry.getColumnTypeHandler(null, null));
+  }
 }